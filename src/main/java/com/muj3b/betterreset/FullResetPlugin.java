@@ -4,19 +4,28 @@ import com.muj3b.betterreset.command.BetterResetCommand;
 import com.muj3b.betterreset.command.FullResetCommand;
 import com.muj3b.betterreset.command.LegacyFullResetCommand;
 import com.muj3b.betterreset.core.ConfirmationManager;
+import com.muj3b.betterreset.core.PregenService;
 import com.muj3b.betterreset.core.ResetService;
 import com.muj3b.betterreset.ui.SimpleGuiManager;
+import com.muj3b.betterreset.util.BackupManager;
 import com.muj3b.betterreset.util.CountdownManager;
+import com.muj3b.betterreset.util.MetricsExporter;
+import com.muj3b.betterreset.util.MetricsRegistry;
 import com.muj3b.betterreset.util.MultiverseCompat;
 import com.muj3b.betterreset.util.PlaytimeTracker;
 import com.muj3b.betterreset.util.PreloadManager;
+import com.muj3b.betterreset.util.RegionVisitTracker;
 import com.muj3b.betterreset.util.RespawnManager;
 import com.muj3b.betterreset.util.SeedHistory;
+import com.muj3b.betterreset.util.SeedScout;
 import org.bukkit.plugin.java.JavaPlugin;
 
+import java.util.List;
+import java.util.Locale;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ThreadFactory;
+import java.util.function.Supplier;
 
 /**
  * Plugin entry point for BetterReset. Consolidated implementation.
@@ -33,11 +42,25 @@ public final class FullResetPlugin extends JavaPlugin {
     private PlaytimeTracker playtimeTracker;
     private ExecutorService backgroundExecutor;
     private SeedHistory seedHistory;
+    private RegionVisitTracker visitTracker;
+    private SeedScout seedScout;
+    private PregenService pregenService;
+    private final MetricsRegistry metrics = new MetricsRegistry();
+    private MetricsExporter metricsExporter;
 
     @Override
     public void onEnable() {
         saveDefaultConfig();
 
+        // First, so managers can hand startup cleanup of leftover folders to it
+        int parallel = Math.max(1, getConfig().getInt("deletion.parallelism", 2));
+        ThreadFactory tf = r -> {
+            Thread t = new Thread(r, "betterreset-bg");
+            t.setDaemon(true);
+            return t;
+        };
+        this.backgroundExecutor = Executors.newFixedThreadPool(parallel, tf);
+
         this.confirmationManager = new ConfirmationManager(this);
         this.countdownManager = new CountdownManager(this);
         this.multiverseCompat = new MultiverseCompat(this);
@@ -46,19 +69,19 @@ public final class FullResetPlugin extends JavaPlugin {
         int historySize = Math.max(1, getConfig().getInt("seeds.historyCapacity", 10));
         this.seedHistory = new SeedHistory(historySize);
 
+        this.visitTracker = new RegionVisitTracker(this);
         this.resetService = new ResetService(this, confirmationManager, countdownManager, multiverseCompat,
                 preloadManager);
         this.guiManager = new SimpleGuiManager(this, resetService);
         this.respawnManager = new RespawnManager(this);
         this.playtimeTracker = new PlaytimeTracker(this);
+        this.seedScout = new SeedScout(this);
+        this.pregenService = new PregenService(this);
 
-        int parallel = Math.max(1, getConfig().getInt("deletion.parallelism", 2));
-        ThreadFactory tf = r -> {
-            Thread t = new Thread(r, "betterreset-bg");
-            t.setDaemon(true);
-            return t;
-        };
-        this.backgroundExecutor = Executors.newFixedThreadPool(parallel, tf);
+        resetService.getTrimDaemon().start();
+        registerMetrics();
+        this.metricsExporter = new MetricsExporter(this, metrics);
+        metricsExporter.start();
 
         // Register commands
         BetterResetCommand root = new BetterResetCommand(this, resetService, confirmationManager, guiManager);
@@ -78,8 +101,64 @@ public final class FullResetPlugin extends JavaPlugin {
         getLogger().info("BetterReset enabled.");
     }
 
+    /**
+     * Gauges read from the managers at scrape time; event counters and
+     * histograms are recorded where things happen.
+     */
+    private void registerMetrics() {
+        metrics.counter("betterreset_resets_total", "Resets and chunk trims performed since startup",
+                resetService::getTotalResets);
+        metrics.gauge("betterreset_reset_in_progress", "1 while a countdown or reset is running",
+                () -> resetService.isResetInProgress() ? 1 : 0);
+        Supplier<List<BackupManager.BackupRef>> backups = MetricsRegistry.cached(60_000L, resetService::listBackups);
+        metrics.gauge("betterreset_backups", "Stored backup snapshots", () -> backups.get().size());
+        metrics.gauge("betterreset_backup_bytes", "Total size of stored backup snapshots",
+                () -> backups.get().stream().mapToLong(BackupManager.BackupRef::sizeBytes).sum());
+        for (PreloadManager.State state : PreloadManager.State.values())
+            metrics.gauge("betterreset_preload_worlds", "Prepared worlds by lifecycle state",
+                    () -> preloadManager.countInState(state), "state", state.name().toLowerCase(Locale.ROOT));
+        metrics.gauge("betterreset_audit_queue_depth", "Audit events waiting to be written",
+                () -> resetService.getAuditLogger().queueDepth());
+        metrics.gauge("betterreset_join_queue_depth", "Players waiting to enter a reset world",
+                () -> respawnManager.getJoinQueueSize());
+        metrics.gauge("betterreset_pregen_jobs", "Worlds being pregenerated", () -> pregenService.getJobCount());
+        metrics.gauge("betterreset_pregen_chunks_in_flight", "Pregeneration chunk requests in flight",
+                () -> pregenService.getInFlight());
+        metrics.counter("betterreset_idle_worlds_unloaded_total", "Worlds unloaded for being idle",
+                () -> resetService.getIdleWorlds().getWorldsUnloaded());
+        metrics.counter("betterreset_idle_chunks_released_total", "Chunks released by idle world unloads",
+                () -> resetService.getIdleWorlds().getChunksReleased());
+        metrics.counter("betterreset_idle_heap_reclaimed_estimated_bytes_total",
+                "Estimated heap freed by idle world unloads: chunks released times idleUnload.estimatedBytesPerChunk",
+                () -> resetService.getIdleWorlds().getHeapReclaimedBytes());
+        metrics.counter("betterreset_offline_players_reset_lazily_total",
+                "Offline players whose data was reset on their next login",
+                () -> resetService.getOfflineEpochs().getPlayersReset());
+    }
+
+    public MetricsRegistry getMetrics() {
+        return metrics;
+    }
+
     @Override
     public void onDisable() {
+        if (metricsExporter != null) {
+            try {
+                metricsExporter.stop();
+            } catch (Exception ignored) {
+            }
+        }
+        if (resetService != null) {
+            resetService.getTrimDaemon().stop();
+            try {
+                resetService.getOfflineEpochs().shutdown();
+            } catch (Exception ignored) {
+            }
+            try {
+                resetService.getAuditLogger().shutdown();
+            } catch (Exception ignored) {
+            }
+        }
         // Save respawn data for persistence across restarts
         if (respawnManager != null) {
             try {
@@ -87,6 +166,30 @@ public final class FullResetPlugin extends JavaPlugin {
             } catch (Exception ignored) {
             }
         }
+        if (playtimeTracker != null) {
+            try {
+                playtimeTracker.shutdown();
+            } catch (Exception ignored) {
+            }
+        }
+        if (pregenService != null) {
+            try {
+                pregenService.shutdown();
+            } catch (Exception ignored) {
+            }
+        }
+        if (seedScout != null) {
+            try {
+                seedScout.shutdown();
+            } catch (Exception ignored) {
+            }
+        }
+        if (visitTracker != null) {
+            try {
+                visitTracker.shutdown();
+            } catch (Exception ignored) {
+            }
+        }
         if (backgroundExecutor != null) {
             try {
                 backgroundExecutor.shutdownNow();
@@ -112,6 +215,22 @@ public final class FullResetPlugin extends JavaPlugin {
         return respawnManager;
     }
 
+    public PreloadManager getPreloadManager() {
+        return preloadManager;
+    }
+
+    public PregenService getPregenService() {
+        return pregenService;
+    }
+
+    public SeedScout getSeedScout() {
+        return seedScout;
+    }
+
+    public RegionVisitTracker getVisitTracker() {
+        return visitTracker;
+    }
+
     public ResetService getResetService() {
         return resetService;
     }
@@ -2,9 +2,14 @@ package com.muj3b.betterreset.command;
 
 import com.muj3b.betterreset.FullResetPlugin;
 import com.muj3b.betterreset.core.ConfirmationManager;
+import com.muj3b.betterreset.core.PregenService;
 import com.muj3b.betterreset.core.ResetService;
+import com.muj3b.betterreset.core.TrimDaemon;
+import com.muj3b.betterreset.core.TrimPlan;
 import com.muj3b.betterreset.ui.SimpleGuiManager;
+import com.muj3b.betterreset.util.ByteFormat;
 import com.muj3b.betterreset.util.Messages;
+import com.muj3b.betterreset.util.SeedScout;
 import org.bukkit.Bukkit;
 import org.bukkit.World;
 import org.bukkit.command.Command;
@@ -15,6 +20,7 @@ import org.bukkit.entity.Player;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.io.IOException;
 import java.time.Duration;
 import java.time.Instant;
 import java.time.ZoneId;
@@ -54,7 +60,7 @@ public class BetterResetCommand implements CommandExecutor, TabCompleter {
             }
             Messages.send(sender,
                     "&eUsage: /" + label
-                            + " <fullreset|gui|reload|creator|status|cancel|fallback|seedsame|listworlds|about|prune|deleteallbackups|preload|testreset|trimchunks|seeds|stats>");
+                            + " <fullreset|gui|reload|creator|status|cancel|fallback|seedsame|listworlds|about|prune|deleteallbackups|preload|testreset|trimchunks|trimplan|trimdaemon|pregen|seeds|stats|audit>");
             return true;
         }
 
@@ -82,6 +88,8 @@ public class BetterResetCommand implements CommandExecutor, TabCompleter {
             case "reload":
                 if (!checkPermission(sender, "betterreset.reload")) return true;
                 plugin.reloadConfig();
+                resetService.getTrimDaemon().start();
+                if (plugin.getVisitTracker() != null) plugin.getVisitTracker().reloadSettings();
                 Messages.send(sender, "&aBetterReset config reloaded.");
                 return true;
             case "creator":
@@ -100,6 +108,12 @@ public class BetterResetCommand implements CommandExecutor, TabCompleter {
                 String status = resetService.getStatusLine();
                 String extra = "&7Total resets: &e" + resetService.getTotalResets();
                 Messages.send(sender, "&7Status: &e" + status + " &7| " + extra);
+                Set<String> lazy = resetService.getLazyDimensions().pendingWorlds();
+                if (!lazy.isEmpty())
+                    Messages.send(sender, "&7Created on first visit: &e" + String.join(", ", lazy));
+                int joinQueue = plugin.getRespawnManager().getJoinQueueSize();
+                if (joinQueue > 0)
+                    Messages.send(sender, "&7Players waiting to enter the new world: &e" + joinQueue);
                 return true;
             case "cancel":
                 if (!checkPermission(sender, "betterreset.cancel")) return true;
@@ -136,12 +150,24 @@ public class BetterResetCommand implements CommandExecutor, TabCompleter {
             case "trimchunks":
                 handleTrimChunks(sender, args);
                 return true;
+            case "trimplan":
+                handleTrimPlan(sender, args);
+                return true;
+            case "trimdaemon":
+                handleTrimDaemon(sender, args);
+                return true;
+            case "pregen":
+                handlePregen(sender, args);
+                return true;
             case "seeds":
                 handleSeeds(sender, args);
                 return true;
             case "stats":
                 handleStats(sender, args);
                 return true;
+            case "audit":
+                handleAudit(sender, args);
+                return true;
             default:
                 Messages.send(sender, "&cUnknown subcommand. Use &e/" + label + " help");
                 return true;
@@ -153,7 +179,7 @@ public class BetterResetCommand implements CommandExecutor, TabCompleter {
         if (args.length == 1) {
             List<String> subs = Arrays.asList("fullreset", "gui", "settings", "reload", "creator", "status", "cancel",
                     "fallback", "seedsame", "listworlds", "about", "prune", "deleteallbackups", "preload",
-                    "testreset", "trimchunks", "seeds", "stats");
+                    "testreset", "trimchunks", "trimplan", "trimdaemon", "pregen", "seeds", "stats", "audit");
             return subs.stream().filter(s -> s.startsWith(args[0].toLowerCase(Locale.ROOT))).collect(Collectors.toList());
         }
 
@@ -216,15 +242,45 @@ public class BetterResetCommand implements CommandExecutor, TabCompleter {
                             .filter(s -> s.startsWith(args[args.length - 1].toLowerCase(Locale.ROOT)))
                             .collect(Collectors.toList());
                 }
+                case "trimplan" -> {
+                    if (args.length == 2) {
+                        Set<String> options = new TreeSet<>(allBaseWorlds());
+                        options.add("confirm");
+                        return options.stream().filter(s -> s.startsWith(args[1].toLowerCase(Locale.ROOT))).collect(Collectors.toList());
+                    }
+                    if (args.length == 3 && args[1].equalsIgnoreCase("confirm")) {
+                        return new ArrayList<>(allBaseWorlds()).stream()
+                                .filter(s -> s.startsWith(args[2].toLowerCase(Locale.ROOT))).collect(Collectors.toList());
+                    }
+                    return Arrays.asList("--overworld", "--nether", "--end", "--all").stream()
+                            .filter(s -> s.startsWith(args[args.length - 1].toLowerCase(Locale.ROOT)))
+                            .collect(Collectors.toList());
+                }
+                case "pregen" -> {
+                    if (args.length == 2) {
+                        return Arrays.asList("start", "stop", "status").stream().filter(s -> s.startsWith(args[1].toLowerCase(Locale.ROOT))).collect(Collectors.toList());
+                    }
+                    if (args.length == 3 && !args[1].equalsIgnoreCase("status")) {
+                        return Bukkit.getWorlds().stream().map(World::getName).filter(s -> s.toLowerCase(Locale.ROOT).startsWith(args[2].toLowerCase(Locale.ROOT))).collect(Collectors.toList());
+                    }
+                    if (args.length == 4 && args[1].equalsIgnoreCase("start")) {
+                        return Arrays.asList("border", "1024", "2048").stream().filter(s -> s.startsWith(args[3].toLowerCase(Locale.ROOT))).collect(Collectors.toList());
+                    }
+                }
+                case "trimdaemon" -> {
+                    if (args.length == 2) {
+                        return Arrays.asList("on","off","status").stream().filter(s -> s.startsWith(args[1].toLowerCase(Locale.ROOT))).collect(Collectors.toList());
+                    }
+                }
                 case "seeds" -> {
                     if (args.length == 2) {
-                        return Arrays.asList("list","use").stream().filter(s -> s.startsWith(args[1].toLowerCase(Locale.ROOT))).collect(Collectors.toList());
+                        return Arrays.asList("list","use","pool").stream().filter(s -> s.startsWith(args[1].toLowerCase(Locale.ROOT))).collect(Collectors.toList());
                     }
                     if (args.length == 3 && args[1].equalsIgnoreCase("use")) {
                         return new ArrayList<>(allBaseWorlds()).stream().filter(s -> s.startsWith(args[2].toLowerCase(Locale.ROOT))).collect(Collectors.toList());
                     }
                 }
-                case "stats" -> {
+                case "stats", "audit" -> {
                     if (args.length == 2) {
                         return new ArrayList<>(allBaseWorlds()).stream().filter(s -> s.startsWith(args[1].toLowerCase(Locale.ROOT))).collect(Collectors.toList());
                     }
@@ -347,6 +403,8 @@ public class BetterResetCommand implements CommandExecutor, TabCompleter {
             case "status" -> {
                 boolean enabled = plugin.getConfig().getBoolean("preload.enabled", true);
                 Messages.send(sender, "&7Preload is currently &e" + (enabled ? "enabled" : "disabled"));
+                for (String line : plugin.getPreloadManager().statusLines())
+                    Messages.send(sender, line);
             }
             default -> Messages.send(sender, "&cUsage: /betterreset preload <on|off|status>");
         }
@@ -424,7 +482,7 @@ public class BetterResetCommand implements CommandExecutor, TabCompleter {
     private void handleSeeds(CommandSender sender, String[] args) {
         if (!checkPermission(sender, "betterreset.seeds")) return;
         if (args.length < 2) {
-            Messages.send(sender, "&cUsage: /betterreset seeds <list|use>");
+            Messages.send(sender, "&cUsage: /betterreset seeds <list|use|pool>");
             return;
         }
         String sub = args[1].toLowerCase(Locale.ROOT);
@@ -435,6 +493,24 @@ public class BetterResetCommand implements CommandExecutor, TabCompleter {
                     Messages.send(sender, "&7No seeds recorded yet.");
                 } else {
                     Messages.send(sender, "&7Recent seeds: &e" + seeds.stream().map(String::valueOf).collect(Collectors.joining("&7, &e")));
+                    for (Long seed : seeds) {
+                        String note = plugin.getSeedHistory().note(seed);
+                        if (note != null) Messages.send(sender, "&7- &e" + seed + "&7: " + note);
+                    }
+                }
+                return;
+            }
+            case "pool" -> {
+                SeedScout scout = plugin.getSeedScout();
+                if (scout == null || !scout.isEnabled()) {
+                    Messages.send(sender, "&7Seed scouting is disabled (&eseeds.scouting.enabled&7).");
+                    return;
+                }
+                List<SeedScout.ScoutedSeed> pool = scout.pool();
+                Messages.send(sender, "&7Seed pool: &e" + pool.size() + "&7 vetted (scouted &e" + scout.getScoutedCount()
+                        + "&7, rejected &e" + scout.getRejectedCount() + "&7 this session)");
+                for (SeedScout.ScoutedSeed s : pool) {
+                    Messages.send(sender, "&7- &e" + s.seed() + "&7: " + s.describe());
                 }
                 return;
             }
@@ -455,7 +531,7 @@ public class BetterResetCommand implements CommandExecutor, TabCompleter {
                 return;
             }
             default -> {
-                Messages.send(sender, "&cUsage: /betterreset seeds <list|use>");
+                Messages.send(sender, "&cUsage: /betterreset seeds <list|use|pool>");
             }
         }
     }
@@ -467,9 +543,129 @@ public class BetterResetCommand implements CommandExecutor, TabCompleter {
             Messages.send(sender, "&cUsage: /betterreset trimchunks <base> [--overworld] [--nether] [--end] [--all]");
             return;
         }
+        resetService.trimChunksAsync(sender, args[1], parseTrimDimensions(args, 2));
+    }
+
+    private void handleTrimPlan(CommandSender sender, String[] args) {
+        if (!checkPermission(sender, "betterreset.trim"))
+            return;
+        if (args.length < 2) {
+            Messages.send(sender, "&cUsage: /betterreset trimplan <base> [--overworld] [--nether] [--end] [--all]");
+            Messages.send(sender, "&cUsage: /betterreset trimplan confirm <base>");
+            return;
+        }
+        if (args[1].equalsIgnoreCase("confirm")) {
+            if (args.length < 3) {
+                Messages.send(sender, "&cUsage: /betterreset trimplan confirm <base>");
+                return;
+            }
+            resetService.executeTrimPlanAsync(sender, args[2]);
+            return;
+        }
         String base = args[1];
+        resetService.planTrimAsync(sender, base, parseTrimDimensions(args, 2), plan -> {
+            Messages.send(sender, "&6Trim plan for &e" + base + "&6: &e" + plan.regionCount() + "&6 regions, &e"
+                    + ByteFormat.human(plan.reclaimBytes()) + "&6 reclaimable, &e" + plan.protectedCount()
+                    + "&6 protected.");
+            for (TrimPlan.WorldPlan world : plan.getWorlds()) {
+                Messages.send(sender, "&7- &e" + world.worldName() + "&7: &e" + world.candidates().size()
+                        + "&7 / &e" + world.scanned() + "&7 regions, &e" + ByteFormat.human(world.reclaimBytes())
+                        + "&7 (protected: &e" + world.skippedProtected() + "&7, kept by rules: &e"
+                        + world.skippedRules() + "&7)");
+                Messages.send(sender, "&7  " + (world.visitData() ? "last visit" : "last modified") + ": "
+                        + formatAgeHistogram(world.ageHistogram()));
+            }
+            if (plan.regionCount() > 0) {
+                long ttl = Math.max(1L, plugin.getConfig().getLong("chunkReset.plan.ttlSeconds", 600L));
+                Messages.send(sender, "&7Run &e/betterreset trimplan confirm " + base + "&7 within &e"
+                        + humanDuration(Duration.ofSeconds(ttl)) + "&7 to delete these regions.");
+            }
+        });
+    }
+
+    private void handleTrimDaemon(CommandSender sender, String[] args) {
+        if (!checkPermission(sender, "betterreset.trim")) return;
+        if (args.length < 2) {
+            Messages.send(sender, "&cUsage: /betterreset trimdaemon <on|off|status>");
+            return;
+        }
+        TrimDaemon daemon = resetService.getTrimDaemon();
+        switch (args[1].toLowerCase(Locale.ROOT)) {
+            case "on" -> {
+                daemon.setEnabled(true);
+                Messages.send(sender, "&aTrim daemon enabled.");
+            }
+            case "off" -> {
+                daemon.setEnabled(false);
+                Messages.send(sender, "&cTrim daemon disabled.");
+            }
+            case "status" -> {
+                for (String line : daemon.statusLines())
+                    Messages.send(sender, line);
+            }
+            default -> Messages.send(sender, "&cUsage: /betterreset trimdaemon <on|off|status>");
+        }
+    }
+
+    private void handlePregen(CommandSender sender, String[] args) {
+        if (!checkPermission(sender, "betterreset.pregen")) return;
+        PregenService pregen = plugin.getPregenService();
+        String usage = "&cUsage: /betterreset pregen <start <world> [radiusBlocks|border]|stop <world>|status>";
+        if (args.length < 2) {
+            Messages.send(sender, usage);
+            return;
+        }
+        switch (args[1].toLowerCase(Locale.ROOT)) {
+            case "start" -> {
+                if (args.length < 3) {
+                    Messages.send(sender, usage);
+                    return;
+                }
+                World world = Bukkit.getWorld(args[2]);
+                if (world == null) {
+                    Messages.send(sender, "&cWorld not loaded: &e" + args[2]);
+                    return;
+                }
+                int radius = plugin.getConfig().getInt("pregen.radiusBlocks", 1024);
+                if (plugin.getConfig().getBoolean("pregen.useWorldBorder", false)) radius = 0;
+                if (args.length >= 4) {
+                    if (args[3].equalsIgnoreCase("border")) {
+                        radius = 0;
+                    } else {
+                        try {
+                            radius = Integer.parseInt(args[3]);
+                        } catch (NumberFormatException ex) {
+                            Messages.send(sender, "&cInvalid radius: &e" + args[3]);
+                            return;
+                        }
+                    }
+                }
+                pregen.start(world, radius);
+                Messages.send(sender, "&aPregeneration started for &e" + world.getName() + "&a ("
+                        + (radius <= 0 ? "world border" : radius + " blocks") + ").");
+            }
+            case "stop" -> {
+                if (args.length < 3) {
+                    Messages.send(sender, usage);
+                    return;
+                }
+                if (pregen.cancel(args[2])) {
+                    Messages.send(sender, "&cPregeneration stopped for &e" + args[2] + "&c.");
+                } else {
+                    Messages.send(sender, "&7No pregeneration job for &e" + args[2] + "&7.");
+                }
+            }
+            case "status" -> {
+                for (String line : pregen.statusLines())
+                    Messages.send(sender, line);
+            }
+            default -> Messages.send(sender, usage);
+        }
+    }
+
+    private static EnumSet<ResetService.Dimension> parseTrimDimensions(String[] args, int from) {
         EnumSet<ResetService.Dimension> dims = EnumSet.noneOf(ResetService.Dimension.class);
-        for (int i = 2; i < args.length; i++) {
+        for (int i = from; i < args.length; i++) {
             String token = args[i];
             switch (token.toLowerCase(Locale.ROOT)) {
                 case "--all" -> dims = EnumSet.of(ResetService.Dimension.OVERWORLD, ResetService.Dimension.NETHER,
@@ -484,7 +680,17 @@ public class BetterResetCommand implements CommandExecutor, TabCompleter {
         if (dims.isEmpty()) {
             dims = EnumSet.of(ResetService.Dimension.OVERWORLD, ResetService.Dimension.NETHER, ResetService.Dimension.END);
         }
-        resetService.trimChunksAsync(sender, base, dims);
+        return dims;
+    }
+
+    private static String formatAgeHistogram(long[] histogram) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < histogram.length; i++) {
+            if (i > 0)
+                sb.append("&8 | ");
+            sb.append("&7").append(TrimPlan.AGE_BUCKET_LABELS[i]).append(" &e").append(histogram[i]);
+        }
+        return sb.toString();
     }
 
     private void handleStats(CommandSender sender, String[] args) {
@@ -502,9 +708,69 @@ public class BetterResetCommand implements CommandExecutor, TabCompleter {
             Messages.send(sender, "&7Total resets performed: &e" + resetService.getTotalResets());
             Messages.send(sender, "&7Countdown status: &e" + resetService.getStatusLine());
             Messages.send(sender, "&7Backups stored: &e" + resetService.listBackups().size());
+            for (String line : resetService.getIdleWorlds().statusLines())
+                Messages.send(sender, line);
+            if (plugin.getConfig().getBoolean("templates.cache.enabled", false))
+                for (String line : resetService.templateCacheStatusLines())
+                    Messages.send(sender, line);
         }
     }
 
+    private void handleAudit(CommandSender sender, String[] args) {
+        if (!checkPermission(sender, "betterreset.audit")) return;
+        String base = null;
+        int limit = 10;
+        for (int i = 1; i < args.length; i++) {
+            try {
+                limit = Math.max(1, Math.min(100, Integer.parseInt(args[i])));
+            } catch (NumberFormatException ex) {
+                base = args[i];
+            }
+        }
+        String filter = base;
+        int count = limit;
+        Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> {
+            List<Map<String, String>> events;
+            try {
+                events = resetService.getAuditLogger().tail(filter, count);
+            } catch (IOException ex) {
+                Bukkit.getScheduler().runTask(plugin,
+                        () -> Messages.send(sender, "&cFailed to read the audit log: " + ex.getMessage()));
+                return;
+            }
+            Bukkit.getScheduler().runTask(plugin, () -> {
+                if (events.isEmpty()) {
+                    Messages.send(sender, "&7No audit entries" + (filter != null ? " for &e" + filter : "") + "&7.");
+                    return;
+                }
+                Messages.send(sender, "&7Last &e" + events.size() + "&7 audit entries"
+                        + (filter != null ? " for &e" + filter : "") + "&7 (newest first):");
+                for (Map<String, String> e : events) {
+                    String time;
+                    try {
+                        time = TIMESTAMP_FMT.format(Instant.parse(e.get("time")));
+                    } catch (RuntimeException ex) {
+                        time = "?";
+                    }
+                    StringBuilder line = new StringBuilder("&7").append(time)
+                            .append(" &e").append(e.getOrDefault("phase", "?"));
+                    if (e.containsKey("base"))
+                        line.append(" &6").append(e.get("base"));
+                    if (e.containsKey("initiator"))
+                        line.append(" &7by &e").append(e.get("initiator"));
+                    if (e.containsKey("millis"))
+                        line.append(" &7in &e").append(e.get("millis")).append("ms");
+                    if (e.containsKey("bytes"))
+                        line.append(" &7(&e").append(ByteFormat.human(Long.parseLong(e.get("bytes"))))
+                                .append("&7)");
+                    if (e.containsKey("message"))
+                        line.append("&7: ").append(e.get("message"));
+                    Messages.send(sender, line.toString());
+                }
+            });
+        });
+    }
+
     private boolean checkPermission(CommandSender sender, String permission) {
         if (sender.hasPermission(permission)) {
             return true;
@@ -0,0 +1,135 @@
+package com.muj3b.betterreset.core;
+
+import com.muj3b.betterreset.FullResetPlugin;
+import org.bukkit.Chunk;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.configuration.file.FileConfiguration;
+import org.bukkit.entity.Player;
+
+import java.util.List;
+
+/**
+ * Protected region providers that ship with BetterReset. Each reads its
+ * settings under {@code chunkReset.protect} at collection time, so edits take
+ * effect on the next trim without a reload.
+ */
+final class BuiltinRegionProviders {
+
+    private BuiltinRegionProviders() {
+    }
+
+    static List<ProtectedRegionProvider> defaults(FullResetPlugin plugin, OfflineRespawnPoints offline) {
+        return List.of(loadedChunks(plugin), spawnRadius(plugin), respawnPoints(plugin, offline),
+                configuredBoxes(plugin));
+    }
+
+    /**
+     * Regions with at least one loaded chunk; the server may still write to them.
+     */
+    static ProtectedRegionProvider loadedChunks(FullResetPlugin plugin) {
+        return new Named("loaded-chunks") {
+            @Override
+            public void collect(World world, ProtectedRegionIndex.Builder index) {
+                if (!plugin.getConfig().getBoolean("chunkReset.protect.loadedChunks", true))
+                    return;
+                for (Chunk chunk : world.getLoadedChunks())
+                    index.protectChunk(chunk.getX(), chunk.getZ());
+            }
+        };
+    }
+
+    /**
+     * Square around the world spawn. Off (-1) unless configured, so enabling
+     * protection does not change what an existing trim setup deletes.
+     */
+    static ProtectedRegionProvider spawnRadius(FullResetPlugin plugin) {
+        return new Named("spawn-radius") {
+            @Override
+            public void collect(World world, ProtectedRegionIndex.Builder index) {
+                int radius = plugin.getConfig().getInt("chunkReset.protect.spawnRadiusBlocks", -1);
+                if (radius < 0)
+                    return;
+                Location spawn = world.getSpawnLocation();
+                index.protectRadius(spawn.getBlockX(), spawn.getBlockZ(), radius);
+            }
+        };
+    }
+
+    /**
+     * Bed and respawn-anchor points of players that respawn in this world:
+     * online players live, offline players from the last read of their
+     * player data (refreshed once per trim plan, see
+     * {@link OfflineRespawnPoints}).
+     */
+    static ProtectedRegionProvider respawnPoints(FullResetPlugin plugin, OfflineRespawnPoints offline) {
+        return new Named("respawn-points") {
+            @Override
+            public void collect(World world, ProtectedRegionIndex.Builder index) {
+                if (!respawnPointsEnabled(plugin))
+                    return;
+                int radius = Math.max(0, plugin.getConfig().getInt("chunkReset.protect.respawnRadiusBlocks", 32));
+                for (Player p : plugin.getServer().getOnlinePlayers()) {
+                    Location respawn = p.getRespawnLocation();
+                    if (respawn == null || !world.equals(respawn.getWorld()))
+                        continue;
+                    index.protectRadius(respawn.getBlockX(), respawn.getBlockZ(), radius);
+                }
+                for (OfflineRespawnPoints.Point point : offline.points())
+                    if (OfflineRespawnPoints.isIn(point, world))
+                        index.protectRadius(point.x(), point.z(), radius);
+            }
+        };
+    }
+
+    /**
+     * Whether respawn points are protected; {@code onlineRespawnPoints} is the
+     * key from before offline players were covered.
+     */
+    static boolean respawnPointsEnabled(FullResetPlugin plugin) {
+        FileConfiguration config = plugin.getConfig();
+        if (!config.isSet("chunkReset.protect.respawnPoints") && config.isSet("chunkReset.protect.onlineRespawnPoints"))
+            return config.getBoolean("chunkReset.protect.onlineRespawnPoints");
+        return config.getBoolean("chunkReset.protect.respawnPoints", true);
+    }
+
+    /**
+     * Boxes listed as {@code "<world>:<x1>,<z1>,<x2>,<z2>"} in block coordinates.
+     */
+    static ProtectedRegionProvider configuredBoxes(FullResetPlugin plugin) {
+        return new Named("configured-boxes") {
+            @Override
+            public void collect(World world, ProtectedRegionIndex.Builder index) {
+                for (String entry : plugin.getConfig().getStringList("chunkReset.protect.boxes")) {
+                    int sep = entry.lastIndexOf(':');
+                    if (sep <= 0 || !entry.substring(0, sep).trim().equalsIgnoreCase(world.getName()))
+                        continue;
+                    String[] parts = entry.substring(sep + 1).split(",");
+                    if (parts.length != 4) {
+                        plugin.getLogger().warning("Ignoring malformed chunkReset.protect.boxes entry: " + entry);
+                        continue;
+                    }
+                    try {
+                        index.protectBlockArea(Integer.parseInt(parts[0].trim()), Integer.parseInt(parts[1].trim()),
+                                Integer.parseInt(parts[2].trim()), Integer.parseInt(parts[3].trim()));
+                    } catch (NumberFormatException ex) {
+                        plugin.getLogger().warning("Ignoring malformed chunkReset.protect.boxes entry: " + entry);
+                    }
+                }
+            }
+        };
+    }
+
+    private abstract static class Named implements ProtectedRegionProvider {
+        private final String name;
+
+        Named(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package com.muj3b.betterreset.core;
+
+import com.muj3b.betterreset.FullResetPlugin;
+import org.bukkit.Bukkit;
+import org.bukkit.NamespacedKey;
+import org.bukkit.Registry;
+import org.bukkit.attribute.Attribute;
+import org.bukkit.attribute.AttributeInstance;
+import org.bukkit.entity.Player;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+/**
+ * Applies the fresh-start reset (inventory, health, hunger, XP, effects) to
+ * players. The max-health attribute is resolved once, settings are read once
+ * per reset into a {@link Settings} snapshot, and large player lists are
+ * processed in per-tick batches.
+ */
+final class FreshStartProcessor {
+
+    record Settings(boolean enabled, int batchSize) {
+    }
+
+    record Result(int processed, int skipped, int ticks) {
+    }
+
+    private final FullResetPlugin plugin;
+    private final Attribute maxHealth;
+
+    FreshStartProcessor(FullResetPlugin plugin) {
+        this.plugin = plugin;
+        this.maxHealth = resolveMaxHealth();
+        if (maxHealth == null)
+            plugin.getLogger().warning("Max health attribute not found; fresh start will use 20 health.");
+    }
+
+    Settings snapshot() {
+        return new Settings(plugin.getConfig().getBoolean("players.freshStartOnReset", true),
+                Math.max(1, plugin.getConfig().getInt("players.freshStartBatchSize", 20)));
+    }
+
+    /**
+     * Resets one player now. Returns false if the player could not be reset.
+     */
+    boolean apply(Player p) {
+        try {
+            // Clear inventory and ender chest
+            p.getInventory().clear();
+            p.getEnderChest().clear();
+
+            // Reset health and status effects
+            p.setFireTicks(0);
+            double health = 20.0;
+            if (maxHealth != null) {
+                AttributeInstance attr = p.getAttribute(maxHealth);
+                if (attr != null)
+                    health = attr.getValue();
+            }
+            p.setHealth(Math.min(health, 20.0));
+
+            // Reset hunger and saturation
+            p.setFoodLevel(20);
+            p.setSaturation(5f);
+            p.setExhaustion(0f);
+
+            p.setLevel(0);
+            p.setExp(0f);
+            p.setTotalExperience(0);
+
+            // Reset other player state
+            p.setFallDistance(0f);
+            p.setRemainingAir(p.getMaximumAir());
+            p.clearActivePotionEffects();
+            return true;
+        } catch (Exception ex) {
+            plugin.getLogger().warning("Failed to apply fresh start for player " + p.getName() + ": "
+                    + ex.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Resets the given players, at most {@code settings.batchSize()} per tick,
+     * calling {@code after} for each one reset. Players who went offline or
+     * could not be reset count as skipped. Must be called on the main thread.
+     */
+    CompletableFuture<Result> process(Collection<UUID> players, Settings settings, Consumer<Player> after) {
+        CompletableFuture<Result> done = new CompletableFuture<>();
+        if (!settings.enabled() || players.isEmpty()) {
+            done.complete(new Result(0, players.size(), 0));
+            return done;
+        }
+        List<UUID> queue = new ArrayList<>(players);
+        int[] state = new int[3]; // next index, processed, skipped
+        int[] ticks = {0};
+        Bukkit.getScheduler().runTaskTimer(plugin, task -> {
+            ticks[0]++;
+            int end = Math.min(queue.size(), state[0] + settings.batchSize());
+            for (; state[0] < end; state[0]++) {
+                Player p = Bukkit.getPlayer(queue.get(state[0]));
+                if (p == null || !p.isOnline() || !apply(p)) {
+                    state[2]++;
+                    continue;
+                }
+                state[1]++;
+                try {
+                    after.accept(p);
+                } catch (Throwable ignored) {
+                }
+            }
+            if (state[0] >= queue.size()) {
+                task.cancel();
+                done.complete(new Result(state[1], state[2], ticks[0]));
+            }
+        }, 0L, 1L);
+        return done;
+    }
+
+    private static Attribute resolveMaxHealth() {
+        // 1.21.3+ key first, then the pre-1.21.3 one
+        Attribute attr = Registry.ATTRIBUTE.get(NamespacedKey.minecraft("max_health"));
+        return attr != null ? attr : Registry.ATTRIBUTE.get(NamespacedKey.minecraft("generic.max_health"));
+    }
+}
@@ -0,0 +1,396 @@
+package com.muj3b.betterreset.core;
+
+import com.muj3b.betterreset.FullResetPlugin;
+import com.muj3b.betterreset.util.ByteFormat;
+import com.muj3b.betterreset.util.Messages;
+import net.kyori.adventure.text.Component;
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.WorldCreator;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.entity.EntityPortalEnterEvent;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerPortalEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+import org.bukkit.event.player.PlayerTeleportEvent;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Unloads worlds BetterReset created (reset dimensions and {@code brprep_}
+ * worlds) once they have had no players and no plugin chunk tickets for
+ * {@code idleUnload.minutes}. Unloaded worlds are remembered in
+ * {@code idle_worlds.yml} and loaded again when a player portals or
+ * teleports into them, or joins where they logged out in one. Heap reclaimed
+ * is an estimate, {@code idleUnload.estimatedBytesPerChunk} per chunk the
+ * unload released; measuring used memory around an unload mostly measures
+ * unrelated allocation and GC timing.
+ */
+public final class IdleWorldManager implements Listener {
+
+    // Reserved top-level key in idle_worlds.yml for logout locations
+    private static final String PLAYERS_KEY = "_players";
+
+    private final FullResetPlugin plugin;
+    private final ResetService resetService;
+    private final File dataFile;
+    // Keyed by lower-case world name; main thread only
+    private final Map<String, World.Environment> managed = new HashMap<>();
+    private final Map<String, String> names = new HashMap<>();
+    private final Set<String> unloaded = new HashSet<>();
+    private final Map<String, Long> idleSince = new HashMap<>();
+    private final Map<String, CompletableFuture<World>> loading = new HashMap<>();
+    private final Set<UUID> held = new HashSet<>();
+    private final PortalTrips trips;
+    // Where players logged out in a managed world, to bring them back on join
+    private final Map<UUID, LogoutSpot> loggedOutAt = new HashMap<>();
+    // Written on the main thread, read by metrics scrapes
+    private volatile long worldsUnloaded;
+    private volatile long worldsReloaded;
+    private volatile long chunksReleased;
+    private volatile long heapReclaimedBytes;
+
+    IdleWorldManager(FullResetPlugin plugin, ResetService resetService) {
+        this.plugin = plugin;
+        this.resetService = resetService;
+        this.dataFile = new File(plugin.getDataFolder(), "idle_worlds.yml");
+        this.trips = new PortalTrips(plugin);
+        load();
+        Bukkit.getPluginManager().registerEvents(this, plugin);
+        Bukkit.getScheduler().runTaskTimer(plugin, this::sweep, 600L, 600L);
+    }
+
+    public boolean isEnabled() {
+        return plugin.getConfig().getBoolean("idleUnload.enabled", false);
+    }
+
+    /**
+     * Puts a world BetterReset just created under idle management.
+     */
+    void manage(World world) {
+        String k = key(world.getName());
+        managed.put(k, world.getEnvironment());
+        names.put(k, world.getName());
+        idleSince.remove(k);
+        unloaded.remove(k);
+        save();
+    }
+
+    /**
+     * Drops a world that is about to be deleted so it is never reloaded.
+     */
+    void forget(String worldName) {
+        String k = key(worldName);
+        idleSince.remove(k);
+        names.remove(k);
+        unloaded.remove(k);
+        boolean dropped = loggedOutAt.values().removeIf(spot -> k.equals(key(spot.world())));
+        if (managed.remove(k) != null || dropped)
+            save();
+    }
+
+    public boolean isIdleUnloaded(String worldName) {
+        return unloaded.contains(key(worldName));
+    }
+
+    /**
+     * Returns the world, loading it again first if it was unloaded for being
+     * idle. Completes with null if the world is neither loaded nor idle.
+     */
+    public CompletableFuture<World> ensureLoaded(String worldName) {
+        World loadedWorld = Bukkit.getWorld(worldName);
+        if (loadedWorld != null)
+            return CompletableFuture.completedFuture(loadedWorld);
+        String k = key(worldName);
+        CompletableFuture<World> inProgress = loading.get(k);
+        if (inProgress != null)
+            return inProgress;
+        if (!unloaded.contains(k))
+            return CompletableFuture.completedFuture(null);
+
+        CompletableFuture<World> future = new CompletableFuture<>();
+        loading.put(k, future);
+        // Never load a world from inside the event that asked for it
+        Bukkit.getScheduler().runTask(plugin, () -> {
+            World world = null;
+            try {
+                world = new WorldCreator(names.getOrDefault(k, worldName))
+                        .environment(managed.getOrDefault(k, World.Environment.NORMAL)).createWorld();
+            } catch (Exception ex) {
+                plugin.getLogger().warning("Failed to reload idle world '" + worldName + "': " + ex.getMessage());
+            }
+            loading.remove(k);
+            if (world == null) {
+                future.complete(null);
+                return;
+            }
+            unloaded.remove(k);
+            idleSince.remove(k);
+            worldsReloaded++;
+            save();
+            plugin.getLogger().info("Reloaded idle world '" + world.getName() + "' on demand.");
+            future.complete(world);
+        });
+        return future;
+    }
+
+    public List<String> statusLines() {
+        List<String> lines = new ArrayList<>();
+        lines.add("&7Idle unloading: " + (isEnabled() ? "&aenabled" : "&cdisabled") + "&7, &e" + unloaded.size()
+                + "&7 world(s) unloaded now");
+        lines.add("&7Unloaded: &e" + worldsUnloaded + "&7, reloaded: &e" + worldsReloaded + "&7, chunks released: &e"
+                + chunksReleased + "&7, heap reclaimed (estimated): &e~" + ByteFormat.human(heapReclaimedBytes));
+        return lines;
+    }
+
+    public long getWorldsUnloaded() {
+        return worldsUnloaded;
+    }
+
+    public long getChunksReleased() {
+        return chunksReleased;
+    }
+
+    /**
+     * Estimated heap released by unloads: chunks released times
+     * {@code idleUnload.estimatedBytesPerChunk}.
+     */
+    public long getHeapReclaimedBytes() {
+        return heapReclaimedBytes;
+    }
+
+    private void sweep() {
+        if (!isEnabled() || resetService.isResetInProgress()) {
+            idleSince.clear();
+            return;
+        }
+        long idleMillis = Math.max(1L, plugin.getConfig().getLong("idleUnload.minutes", 10L)) * 60_000L;
+        List<String> exclude = plugin.getConfig().getStringList("idleUnload.exclude");
+        World primary = Bukkit.getWorlds().isEmpty() ? null : Bukkit.getWorlds().get(0);
+        long now = System.currentTimeMillis();
+        for (World world : new ArrayList<>(Bukkit.getWorlds())) {
+            String k = key(world.getName());
+            boolean isManaged = managed.containsKey(k) || world.getName().startsWith("brprep_");
+            if (!isManaged || world.equals(primary)
+                    || exclude.stream().anyMatch(n -> n.equalsIgnoreCase(world.getName()))
+                    || !isIdle(world)) {
+                idleSince.remove(k);
+                continue;
+            }
+            long since = idleSince.computeIfAbsent(k, x -> now);
+            if (now - since >= idleMillis)
+                unload(world);
+        }
+    }
+
+    private boolean isIdle(World world) {
+        if (!world.getPlayers().isEmpty())
+            return false;
+        if (!world.getPluginChunkTickets().isEmpty() || !world.getForceLoadedChunks().isEmpty())
+            return false;
+        PregenService pregen = plugin.getPregenService();
+        return pregen == null || !pregen.hasJob(world.getName());
+    }
+
+    private void unload(World world) {
+        String name = world.getName();
+        String k = key(name);
+        int chunks = world.getLoadedChunks().length;
+        World.Environment env = world.getEnvironment();
+        if (!Bukkit.unloadWorld(world, true)) {
+            idleSince.remove(k);
+            return;
+        }
+        idleSince.remove(k);
+        // Prep worlds are picked up from disk by the swap; nothing to reload
+        if (!name.startsWith("brprep_")) {
+            managed.put(k, env);
+            names.put(k, name);
+            unloaded.add(k);
+            save();
+        }
+        worldsUnloaded++;
+        chunksReleased += chunks;
+        long perChunk = Math.max(0L, plugin.getConfig().getLong("idleUnload.estimatedBytesPerChunk", 81920L));
+        heapReclaimedBytes += chunks * perChunk;
+        plugin.getLogger().info("Unloaded idle world '" + name + "' (" + chunks + " chunks).");
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPortalEnter(EntityPortalEnterEvent event) {
+        if (!(event.getEntity() instanceof Player player) || unloaded.isEmpty())
+            return;
+        String target = LazyDimensionManager.portalTarget(player.getWorld(), LazyDimensionManager.portalCause(event));
+        if (target != null && isIdleUnloaded(target))
+            hold(player, target);
+    }
+
+    @EventHandler(priority = EventPriority.LOWEST, ignoreCancelled = true)
+    public void onPortal(PlayerPortalEvent event) {
+        if (unloaded.isEmpty() && loading.isEmpty())
+            return;
+        String target = LazyDimensionManager.portalTarget(event.getFrom().getWorld(), event.getCause());
+        if (target == null || (!isIdleUnloaded(target) && !loading.containsKey(key(target))))
+            return;
+        event.setCancelled(true);
+        trips.await(event.getPlayer(), event.getFrom().getWorld(), event.getCause(), hold(event.getPlayer(), target));
+    }
+
+    /**
+     * Teleports into an idle world (homes, warps, other plugins) load it
+     * first and then go ahead to the same spot.
+     */
+    @EventHandler(priority = EventPriority.LOWEST, ignoreCancelled = true)
+    public void onTeleport(PlayerTeleportEvent event) {
+        if (unloaded.isEmpty() && loading.isEmpty())
+            return;
+        // Portals are handled above
+        if (event.getCause() == PlayerTeleportEvent.TeleportCause.NETHER_PORTAL
+                || event.getCause() == PlayerTeleportEvent.TeleportCause.END_PORTAL)
+            return;
+        Location to = event.getTo();
+        String target = LazyDimensionManager.worldName(to);
+        if (target == null || Bukkit.getWorld(target) != null
+                || (!isIdleUnloaded(target) && !loading.containsKey(key(target))))
+            return;
+        event.setCancelled(true);
+        Player player = event.getPlayer();
+        PlayerTeleportEvent.TeleportCause cause = event.getCause();
+        hold(player, target).thenAccept(world -> {
+            if (world != null && player.isOnline())
+                player.teleportAsync(new Location(world, to.getX(), to.getY(), to.getZ(), to.getYaw(), to.getPitch()),
+                        cause);
+        });
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onQuit(PlayerQuitEvent event) {
+        Player player = event.getPlayer();
+        String k = key(player.getWorld().getName());
+        if (!managed.containsKey(k) && loggedOutAt.remove(player.getUniqueId()) == null)
+            return;
+        if (managed.containsKey(k))
+            loggedOutAt.put(player.getUniqueId(), LogoutSpot.of(player.getLocation()));
+        save();
+    }
+
+    /**
+     * A player who logged out in a world that has since gone idle joins at
+     * the server's fallback spawn; load the world and put them back.
+     */
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onJoin(PlayerJoinEvent event) {
+        Player player = event.getPlayer();
+        LogoutSpot last = loggedOutAt.remove(player.getUniqueId());
+        if (last == null)
+            return;
+        save();
+        String target = last.world();
+        if ((!isIdleUnloaded(target) && !loading.containsKey(key(target))))
+            return;
+        hold(player, target).thenAccept(world -> {
+            if (world != null && player.isOnline())
+                player.teleportAsync(new Location(world, last.x(), last.y(), last.z(), last.yaw(), last.pitch()),
+                        PlayerTeleportEvent.TeleportCause.PLUGIN);
+        });
+    }
+
+    private CompletableFuture<World> hold(Player player, String target) {
+        CompletableFuture<World> future = ensureLoaded(target);
+        if (future.isDone() || !held.add(player.getUniqueId()))
+            return future;
+        player.sendActionBar(Component.text("Loading " + target + "..."));
+        Messages.send(player, "&7Loading &e" + target + "&7, hold on...");
+        future.whenComplete((world, err) -> held.remove(player.getUniqueId()));
+        return future;
+    }
+
+
+    private static String key(String worldName) {
+        return worldName.toLowerCase(Locale.ROOT);
+    }
+
+    private void load() {
+        if (!dataFile.exists())
+            return;
+        try {
+            YamlConfiguration yaml = YamlConfiguration.loadConfiguration(dataFile);
+            ConfigurationSection players = yaml.getConfigurationSection(PLAYERS_KEY);
+            if (players != null) {
+                for (String id : players.getKeys(false)) {
+                    ConfigurationSection sec = players.getConfigurationSection(id);
+                    if (sec != null)
+                        loggedOutAt.put(UUID.fromString(id), new LogoutSpot(sec.getString("world", ""),
+                                sec.getDouble("x"), sec.getDouble("y"), sec.getDouble("z"),
+                                (float) sec.getDouble("yaw"), (float) sec.getDouble("pitch")));
+                }
+            }
+            for (String k : yaml.getKeys(false)) {
+                if (k.equals(PLAYERS_KEY))
+                    continue;
+                String name = yaml.getString(k + ".world", k);
+                World.Environment env = World.Environment.valueOf(yaml.getString(k + ".environment", "NORMAL"));
+                // A world deleted meanwhile is no longer ours to reload
+                if (!new File(Bukkit.getWorldContainer(), name).isDirectory())
+                    continue;
+                managed.put(k, env);
+                names.put(k, name);
+                if (yaml.getBoolean(k + ".unloaded", false))
+                    unloaded.add(k);
+            }
+        } catch (Exception e) {
+            plugin.getLogger().warning("Failed to load idle world data: " + e.getMessage());
+        }
+    }
+
+    private void save() {
+        try {
+            YamlConfiguration yaml = new YamlConfiguration();
+            for (Map.Entry<String, World.Environment> e : managed.entrySet()) {
+                yaml.set(e.getKey() + ".world", names.getOrDefault(e.getKey(), e.getKey()));
+                yaml.set(e.getKey() + ".environment", e.getValue().name());
+                yaml.set(e.getKey() + ".unloaded", unloaded.contains(e.getKey()));
+            }
+            for (Map.Entry<UUID, LogoutSpot> e : loggedOutAt.entrySet()) {
+                String path = PLAYERS_KEY + "." + e.getKey();
+                LogoutSpot spot = e.getValue();
+                yaml.set(path + ".world", spot.world());
+                yaml.set(path + ".x", spot.x());
+                yaml.set(path + ".y", spot.y());
+                yaml.set(path + ".z", spot.z());
+                yaml.set(path + ".yaw", spot.yaw());
+                yaml.set(path + ".pitch", spot.pitch());
+            }
+            yaml.save(dataFile);
+        } catch (IOException e) {
+            plugin.getLogger().warning("Failed to save idle world data: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Logout location kept by world name, since the world is usually unloaded
+     * by the time it is used.
+     */
+    private record LogoutSpot(String world, double x, double y, double z, float yaw, float pitch) {
+        static LogoutSpot of(Location loc) {
+            return new LogoutSpot(loc.getWorld().getName(), loc.getX(), loc.getY(), loc.getZ(), loc.getYaw(),
+                    loc.getPitch());
+        }
+    }
+}
@@ -0,0 +1,287 @@
+package com.muj3b.betterreset.core;
+
+import com.muj3b.betterreset.FullResetPlugin;
+import com.muj3b.betterreset.util.Messages;
+import com.muj3b.betterreset.util.MultiverseCompat;
+import net.kyori.adventure.text.Component;
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.Material;
+import org.bukkit.World;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.entity.EntityPortalEnterEvent;
+import org.bukkit.event.player.PlayerPortalEvent;
+import org.bukkit.event.player.PlayerTeleportEvent;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Defers creating a reset's nether and end until a player first uses a portal
+ * to them. A reset then only creates the overworld; the pending dimensions
+ * are remembered in {@code lazy_dimensions.yml} with their seeds. When a
+ * player steps into a portal whose target is pending, the portal is held
+ * while the world is created on the next tick and the trip then continues
+ * (see {@link PortalTrips}). Teleports into a pending world are held the
+ * same way and then carried out to a safe spot at the same coordinates.
+ */
+public final class LazyDimensionManager implements Listener {
+
+    private final FullResetPlugin plugin;
+    private final MultiverseCompat multiverseCompat;
+    private final File dataFile;
+    // Keyed by lower-case world name; main thread only
+    private final Map<String, StagedWorldCreator.Stage> pending = new HashMap<>();
+    private final Map<String, CompletableFuture<World>> creating = new HashMap<>();
+    private final Map<String, Set<UUID>> waiting = new HashMap<>();
+    private final PortalTrips trips;
+
+    LazyDimensionManager(FullResetPlugin plugin, MultiverseCompat multiverseCompat) {
+        this.plugin = plugin;
+        this.multiverseCompat = multiverseCompat;
+        this.trips = new PortalTrips(plugin);
+        this.dataFile = new File(plugin.getDataFolder(), "lazy_dimensions.yml");
+        load();
+        Bukkit.getPluginManager().registerEvents(this, plugin);
+    }
+
+    /**
+     * Whether a reset should leave {@code dimension} for first use. The
+     * overworld is never deferred.
+     */
+    boolean defers(ResetService.Dimension dimension) {
+        if (dimension == ResetService.Dimension.OVERWORLD
+                || !plugin.getConfig().getBoolean("lazyDimensions.enabled", false))
+            return false;
+        List<String> dims = plugin.getConfig().getStringList("lazyDimensions.dimensions");
+        return dims.isEmpty() || dims.stream().anyMatch(d -> d.equalsIgnoreCase(dimension.name()));
+    }
+
+    void markPending(StagedWorldCreator.Stage stage) {
+        pending.put(key(stage.worldName()), stage);
+        save();
+    }
+
+    void clearPending(String worldName) {
+        if (pending.remove(key(worldName)) != null)
+            save();
+    }
+
+    public boolean isPending(String worldName) {
+        return pending.containsKey(key(worldName));
+    }
+
+    public Set<String> pendingWorlds() {
+        Set<String> names = new HashSet<>();
+        for (StagedWorldCreator.Stage stage : pending.values())
+            names.add(stage.worldName());
+        return names;
+    }
+
+    /**
+     * Returns the world, creating it first if it is pending. The future
+     * completes on the main thread once the spawn chunk is loaded, or with
+     * null if the world is neither loaded nor pending.
+     */
+    public CompletableFuture<World> ensureCreated(String worldName) {
+        World loaded = Bukkit.getWorld(worldName);
+        if (loaded != null)
+            return CompletableFuture.completedFuture(loaded);
+        String k = key(worldName);
+        CompletableFuture<World> inProgress = creating.get(k);
+        if (inProgress != null)
+            return inProgress;
+        StagedWorldCreator.Stage stage = pending.get(k);
+        if (stage == null)
+            return CompletableFuture.completedFuture(null);
+
+        StagedWorldCreator creator = new StagedWorldCreator(plugin, multiverseCompat, List.of(stage));
+        CompletableFuture<World> future = creator.ready(stage.dimension());
+        creating.put(k, future);
+        future.whenComplete((world, err) -> {
+            creating.remove(k);
+            Set<UUID> held = waiting.remove(k);
+            if (err != null) {
+                // Stays pending so the next portal use retries
+                plugin.getLogger().warning("Failed to create '" + stage.worldName() + "' on demand: "
+                        + err.getMessage());
+                return;
+            }
+            clearPending(stage.worldName());
+            if (plugin.getResetService() != null)
+                plugin.getResetService().getIdleWorlds().manage(world);
+            plugin.getLogger().info("Created '" + stage.worldName() + "' on first use.");
+            if (held != null) {
+                for (UUID id : held) {
+                    Player p = Bukkit.getPlayer(id);
+                    if (p != null)
+                        p.sendActionBar(Component.text(displayName(stage) + " is ready"));
+                }
+            }
+        });
+        // Never create a world from inside the event that asked for it
+        Bukkit.getScheduler().runTask(plugin, creator::start);
+        return future;
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPortalEnter(EntityPortalEnterEvent event) {
+        if (!(event.getEntity() instanceof Player player) || pending.isEmpty())
+            return;
+        String target = portalTarget(player.getWorld(), portalCause(event));
+        if (target != null && isPending(target))
+            hold(player, target);
+    }
+
+    @EventHandler(priority = EventPriority.LOWEST, ignoreCancelled = true)
+    public void onPortal(PlayerPortalEvent event) {
+        if (pending.isEmpty() && creating.isEmpty())
+            return;
+        String target = portalTarget(event.getFrom().getWorld(), event.getCause());
+        if (target == null || (!isPending(target) && !creating.containsKey(key(target))))
+            return;
+        event.setCancelled(true);
+        trips.await(event.getPlayer(), event.getFrom().getWorld(), event.getCause(), hold(event.getPlayer(), target));
+    }
+
+    @EventHandler(priority = EventPriority.LOWEST, ignoreCancelled = true)
+    public void onTeleport(PlayerTeleportEvent event) {
+        if (pending.isEmpty() && creating.isEmpty())
+            return;
+        // Portals are handled above
+        if (event.getCause() == PlayerTeleportEvent.TeleportCause.NETHER_PORTAL
+                || event.getCause() == PlayerTeleportEvent.TeleportCause.END_PORTAL)
+            return;
+        Location to = event.getTo();
+        String target = worldName(to);
+        if (target == null || Bukkit.getWorld(target) != null
+                || (!isPending(target) && !creating.containsKey(key(target))))
+            return;
+        event.setCancelled(true);
+        Player player = event.getPlayer();
+        PlayerTeleportEvent.TeleportCause cause = event.getCause();
+        hold(player, target).thenAccept(world -> {
+            // The coordinates came from the world before the reset; find room to stand there
+            if (world != null && player.isOnline())
+                player.teleportAsync(PortalTrips.standAt(world, to.getX(), to.getZ(), to.getYaw(), to.getPitch()),
+                        cause);
+        });
+    }
+
+    private CompletableFuture<World> hold(Player player, String target) {
+        CompletableFuture<World> future = ensureCreated(target);
+        if (future.isDone())
+            return future;
+        if (waiting.computeIfAbsent(key(target), k -> new HashSet<>()).add(player.getUniqueId())) {
+            StagedWorldCreator.Stage stage = pending.get(key(target));
+            String name = stage != null ? displayName(stage) : target;
+            player.sendActionBar(Component.text("Preparing " + name + "..."));
+            Messages.send(player, "&7Preparing &e" + name + "&7 for the first visit, hold on...");
+        }
+        return future;
+    }
+
+    /**
+     * World a portal of the given kind leads to from {@code from}, following
+     * the {@code <base>_nether} / {@code <base>_the_end} naming, or null if
+     * the portal does not link two worlds of a base.
+     */
+    static String portalTarget(World from, PlayerTeleportEvent.TeleportCause cause) {
+        if (from == null)
+            return null;
+        String name = from.getName();
+        if (from.getEnvironment() == World.Environment.NORMAL) {
+            return switch (cause) {
+                case NETHER_PORTAL -> name + "_nether";
+                case END_PORTAL -> name + "_the_end";
+                default -> null;
+            };
+        }
+        if (from.getEnvironment() == World.Environment.NETHER && cause == PlayerTeleportEvent.TeleportCause.NETHER_PORTAL
+                && name.endsWith("_nether"))
+            return name.substring(0, name.length() - "_nether".length());
+        if (from.getEnvironment() == World.Environment.THE_END && cause == PlayerTeleportEvent.TeleportCause.END_PORTAL
+                && name.endsWith("_the_end"))
+            return name.substring(0, name.length() - "_the_end".length());
+        return null;
+    }
+
+    /**
+     * Name of the world a location points at, or null. {@link Location#getWorld()}
+     * throws once that world has been unloaded and collected.
+     */
+    static String worldName(Location loc) {
+        if (loc == null)
+            return null;
+        try {
+            World world = loc.getWorld();
+            return world != null ? world.getName() : null;
+        } catch (IllegalArgumentException ex) {
+            return null;
+        }
+    }
+
+    static PlayerTeleportEvent.TeleportCause portalCause(EntityPortalEnterEvent event) {
+        return event.getLocation().getBlock().getType() == Material.END_PORTAL
+                ? PlayerTeleportEvent.TeleportCause.END_PORTAL
+                : PlayerTeleportEvent.TeleportCause.NETHER_PORTAL;
+    }
+
+    private static String displayName(StagedWorldCreator.Stage stage) {
+        return stage.dimension() == ResetService.Dimension.END ? "the End" : "the Nether";
+    }
+
+    private static String key(String worldName) {
+        return worldName.toLowerCase(Locale.ROOT);
+    }
+
+    private void load() {
+        if (!dataFile.exists())
+            return;
+        try {
+            YamlConfiguration yaml = YamlConfiguration.loadConfiguration(dataFile);
+            for (String k : yaml.getKeys(false)) {
+                ConfigurationSection sec = yaml.getConfigurationSection(k);
+                if (sec == null)
+                    continue;
+                String worldName = sec.getString("world", k);
+                // Created by someone else meanwhile
+                if (new File(Bukkit.getWorldContainer(), worldName).isDirectory())
+                    continue;
+                ResetService.Dimension dim = ResetService.Dimension.valueOf(sec.getString("dimension", "NETHER"));
+                World.Environment env = dim == ResetService.Dimension.END ? World.Environment.THE_END
+                        : World.Environment.NETHER;
+                pending.put(key(worldName), new StagedWorldCreator.Stage(dim, worldName, env, sec.getLong("seed")));
+            }
+        } catch (Exception e) {
+            plugin.getLogger().warning("Failed to load lazy dimension data: " + e.getMessage());
+        }
+    }
+
+    private void save() {
+        try {
+            YamlConfiguration yaml = new YamlConfiguration();
+            for (Map.Entry<String, StagedWorldCreator.Stage> e : pending.entrySet()) {
+                yaml.set(e.getKey() + ".world", e.getValue().worldName());
+                yaml.set(e.getKey() + ".dimension", e.getValue().dimension().name());
+                yaml.set(e.getKey() + ".seed", e.getValue().seed());
+            }
+            yaml.save(dataFile);
+        } catch (IOException e) {
+            plugin.getLogger().warning("Failed to save lazy dimension data: " + e.getMessage());
+        }
+    }
+}
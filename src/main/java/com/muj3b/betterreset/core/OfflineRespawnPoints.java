@@ -0,0 +1,129 @@
+package com.muj3b.betterreset.core;
+
+import com.muj3b.betterreset.FullResetPlugin;
+import com.muj3b.betterreset.util.NbtRootTags;
+import org.bukkit.Bukkit;
+import org.bukkit.World;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Bed and respawn-anchor points of every player with saved data, read from
+ * the main world's {@code playerdata} folder off the main thread. A trim plan
+ * refreshes it once before collecting protected regions; the trim daemon
+ * reuses the last read while it is recent. Online players are covered live
+ * by the provider, so a stale entry for them only protects a little more.
+ */
+final class OfflineRespawnPoints {
+
+    /** A respawn point; {@code dimension} is a world key such as {@code minecraft:overworld}. */
+    record Point(String dimension, int x, int z) {
+    }
+
+    // Pre-1.21.5 root tags, and the compound that replaced them
+    private static final Set<String> TAGS = Set.of("SpawnX", "SpawnZ", "SpawnDimension", "respawn");
+    private static final String OVERWORLD = "minecraft:overworld";
+
+    private final FullResetPlugin plugin;
+    private volatile List<Point> points = List.of();
+    private volatile long readAt;
+    private CompletableFuture<Void> reading;
+
+    OfflineRespawnPoints(FullResetPlugin plugin) {
+        this.plugin = plugin;
+    }
+
+    List<Point> points() {
+        return points;
+    }
+
+    boolean isFresh(long maxAgeMillis) {
+        return readAt > 0 && System.currentTimeMillis() - readAt <= maxAgeMillis;
+    }
+
+    /**
+     * Reads every player's respawn point again. Concurrent callers share one
+     * read; the future completes on the main thread, also when the read
+     * failed, in which case the previous points are kept.
+     */
+    synchronized CompletableFuture<Void> refresh() {
+        if (reading != null)
+            return reading;
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        reading = done;
+        Path folder = Bukkit.getWorlds().isEmpty() ? null
+                : Bukkit.getWorlds().get(0).getWorldFolder().toPath().resolve("playerdata");
+        Runnable read = () -> {
+            try {
+                if (folder != null && Files.isDirectory(folder)) {
+                    points = readAll(folder);
+                    readAt = System.currentTimeMillis();
+                }
+            } catch (IOException ex) {
+                plugin.getLogger().warning("Failed to read player respawn points: " + ex.getMessage());
+            } finally {
+                synchronized (this) {
+                    reading = null;
+                }
+                Bukkit.getScheduler().runTask(plugin, () -> done.complete(null));
+            }
+        };
+        try {
+            if (plugin.getBackgroundExecutor() != null) {
+                plugin.getBackgroundExecutor().submit(read);
+                return done;
+            }
+        } catch (RejectedExecutionException ignored) {
+        }
+        read.run();
+        return done;
+    }
+
+    /**
+     * Whether {@code point} is in {@code world}.
+     */
+    static boolean isIn(Point point, World world) {
+        return point.dimension().equals(world.getKey().toString());
+    }
+
+    private List<Point> readAll(Path folder) throws IOException {
+        List<Point> out = new ArrayList<>();
+        int failed = 0;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(folder, "*.dat")) {
+            for (Path file : files) {
+                try {
+                    Point point = parse(NbtRootTags.read(file, TAGS));
+                    if (point != null)
+                        out.add(point);
+                } catch (IOException | RuntimeException ex) {
+                    failed++;
+                }
+            }
+        }
+        if (failed > 0)
+            plugin.getLogger().warning("Could not read the respawn point of " + failed + " player data file(s).");
+        return out;
+    }
+
+    private static Point parse(Map<String, Object> tags) {
+        if (tags.get("respawn") instanceof Map<?, ?> respawn && respawn.get("pos") instanceof int[] pos
+                && pos.length == 3) {
+            Object dim = respawn.get("dimension");
+            return new Point(dim instanceof String s ? s : OVERWORLD, pos[0], pos[2]);
+        }
+        if (tags.get("SpawnX") instanceof Integer x && tags.get("SpawnZ") instanceof Integer z) {
+            Object dim = tags.get("SpawnDimension");
+            return new Point(dim instanceof String s ? s : OVERWORLD, x, z);
+        }
+        return null;
+    }
+}
@@ -0,0 +1,129 @@
+package com.muj3b.betterreset.core;
+
+import com.muj3b.betterreset.FullResetPlugin;
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.Material;
+import org.bukkit.World;
+import org.bukkit.WorldBorder;
+import org.bukkit.block.Block;
+import org.bukkit.entity.Player;
+import org.bukkit.event.player.PlayerTeleportEvent;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Finishes portal trips that were held while their target world was created
+ * or loaded. Once the world is ready, a player still standing in the portal
+ * has the portal cooldown cleared so the server repeats the trip itself,
+ * linking or building the exit portal as usual. If that has not happened
+ * shortly after (the portal does not lead to that world natively), the player
+ * is moved where the portal would have put them.
+ */
+final class PortalTrips {
+
+    private static final long FALLBACK_DELAY_TICKS = 40L;
+
+    private final FullResetPlugin plugin;
+    // Main thread only
+    private final Set<UUID> travelling = new HashSet<>();
+
+    PortalTrips(FullResetPlugin plugin) {
+        this.plugin = plugin;
+    }
+
+    /**
+     * Continues the trip of {@code player} from {@code origin} once
+     * {@code ready} completes with the target world. Repeated portal events
+     * for the same player while waiting are ignored.
+     */
+    void await(Player player, World origin, PlayerTeleportEvent.TeleportCause cause, CompletableFuture<World> ready) {
+        if (origin == null || !travelling.add(player.getUniqueId()))
+            return;
+        ready.whenComplete((world, err) -> {
+            travelling.remove(player.getUniqueId());
+            if (world != null && err == null)
+                resume(player, origin, world, cause);
+        });
+    }
+
+    private void resume(Player player, World origin, World target, PlayerTeleportEvent.TeleportCause cause) {
+        if (!stillInPortal(player, origin))
+            return;
+        player.setPortalCooldown(0);
+        UUID targetId = target.getUID();
+        Bukkit.getScheduler().runTaskLater(plugin, () -> {
+            World world = Bukkit.getWorld(targetId);
+            if (world == null || !stillInPortal(player, origin))
+                return;
+            player.teleportAsync(arrival(player.getLocation(), world), cause);
+        }, FALLBACK_DELAY_TICKS);
+    }
+
+    private static boolean stillInPortal(Player player, World origin) {
+        if (!player.isOnline() || !player.getWorld().equals(origin))
+            return false;
+        return isPortal(player.getLocation().getBlock()) || isPortal(player.getEyeLocation().getBlock());
+    }
+
+    private static boolean isPortal(Block block) {
+        Material type = block.getType();
+        return type == Material.NETHER_PORTAL || type == Material.END_PORTAL;
+    }
+
+    /**
+     * Where a portal trip from {@code from} into {@code target} lands: the
+     * obsidian platform for the End, the world spawn when leaving the End,
+     * and otherwise the coordinate-scaled spot with room to stand.
+     */
+    static Location arrival(Location from, World target) {
+        if (target.getEnvironment() == World.Environment.THE_END) {
+            // Same platform and spot the server uses for End arrivals
+            platform(target, 100, 50, 0, 2);
+            return new Location(target, 100.5, 50, 0.5, 90f, 0f);
+        }
+        World source = from.getWorld();
+        if (source != null && source.getEnvironment() == World.Environment.THE_END)
+            return target.getSpawnLocation();
+        double scale = source != null ? source.getCoordinateScale() / target.getCoordinateScale() : 1.0;
+        return standAt(target, from.getX() * scale, from.getZ() * scale, from.getYaw(), from.getPitch());
+    }
+
+    /**
+     * The highest spot at {@code x, z} (kept inside the world border and under
+     * the logical ceiling) with solid ground and two free blocks; a small
+     * obsidian platform is built if there is none.
+     */
+    static Location standAt(World world, double x, double z, float yaw, float pitch) {
+        WorldBorder border = world.getWorldBorder();
+        double limit = Math.max(0.0, border.getSize() / 2 - 16);
+        int bx = (int) Math.floor(clamp(x, border.getCenter().getX(), limit));
+        int bz = (int) Math.floor(clamp(z, border.getCenter().getZ(), limit));
+        int top = Math.min(world.getMaxHeight(), world.getMinHeight() + world.getLogicalHeight()) - 2;
+        for (int y = top; y > world.getMinHeight(); y--) {
+            Block floor = world.getBlockAt(bx, y - 1, bz);
+            Block feet = world.getBlockAt(bx, y, bz);
+            Block head = world.getBlockAt(bx, y + 1, bz);
+            if (floor.getType().isSolid() && feet.isPassable() && !feet.isLiquid() && head.isPassable()
+                    && !head.isLiquid())
+                return new Location(world, bx + 0.5, y, bz + 0.5, yaw, pitch);
+        }
+        int y = Math.max(world.getMinHeight() + 1, Math.min(70, top - 2));
+        platform(world, bx, y, bz, 1);
+        return new Location(world, bx + 0.5, y, bz + 0.5, yaw, pitch);
+    }
+
+    private static void platform(World world, int x, int y, int z, int radius) {
+        for (int dx = -radius; dx <= radius; dx++)
+            for (int dz = -radius; dz <= radius; dz++)
+                for (int dy = -1; dy <= 2; dy++)
+                    world.getBlockAt(x + dx, y + dy, z + dz).setType(dy == -1 ? Material.OBSIDIAN : Material.AIR);
+    }
+
+    private static double clamp(double value, double center, double limit) {
+        return Math.max(center - limit, Math.min(center + limit, value));
+    }
+}
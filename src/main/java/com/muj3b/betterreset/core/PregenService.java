@@ -0,0 +1,362 @@
+package com.muj3b.betterreset.core;
+
+import com.muj3b.betterreset.FullResetPlugin;
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.WorldBorder;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.file.YamlConfiguration;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Pregenerates a square around a world's spawn (or its world border) after a
+ * reset so the first players do not generate terrain on demand. Chunks are
+ * requested in an outward spiral through the async chunk API with a global
+ * cap on requests in flight, and requesting pauses while MSPT is high. Each
+ * job's progress is saved to {@code pregen.yml} and resumes after a restart;
+ * saves are serialized on the main thread and written on the background
+ * executor.
+ */
+public final class PregenService {
+
+    private final FullResetPlugin plugin;
+    private final File dataFile;
+    // Keyed by lower-case world name; main thread only
+    private final Map<String, Job> jobs = new LinkedHashMap<>();
+    // Written on the main thread; volatile so metrics scrapes can read them
+    private volatile int jobCount;
+    private volatile int inFlight;
+    private long lastSaveAt;
+    // Latest serialized jobs not yet written; writers always take the newest
+    private final AtomicReference<String> pendingSave = new AtomicReference<>();
+
+    private static final class Job {
+        final String worldName;
+        final int centerX;
+        final int centerZ;
+        final int radius;
+        final long total;
+        // Every spiral index below this is generated
+        long watermark;
+        long nextIndex;
+        // Completed indices at or above the watermark, relative to it
+        final BitSet done = new BitSet();
+        long lastReportPercent;
+        final long startedAt;
+
+        Job(String worldName, int centerX, int centerZ, int radius, long watermark, long startedAt) {
+            this.worldName = worldName;
+            this.centerX = centerX;
+            this.centerZ = centerZ;
+            this.radius = radius;
+            this.total = (2L * radius + 1) * (2L * radius + 1);
+            this.watermark = watermark;
+            this.nextIndex = watermark;
+            this.lastReportPercent = percent(watermark, total);
+            this.startedAt = startedAt;
+        }
+
+        boolean isIssued() {
+            return nextIndex >= total;
+        }
+
+        boolean isComplete() {
+            return watermark >= total;
+        }
+
+        void markDone(long index) {
+            if (index < watermark)
+                return;
+            done.set((int) (index - watermark));
+            int advance = done.nextClearBit(0);
+            if (advance > 0) {
+                watermark += advance;
+                // Shift the window so bit 0 is the new watermark again
+                BitSet shifted = done.get(advance, Math.max(advance, done.length()));
+                done.clear();
+                done.or(shifted);
+            }
+        }
+    }
+
+    public PregenService(FullResetPlugin plugin) {
+        this.plugin = plugin;
+        this.dataFile = new File(plugin.getDataFolder(), "pregen.yml");
+        loadJobs();
+        Bukkit.getScheduler().runTaskTimer(plugin, this::tick, 20L, 1L);
+    }
+
+    /**
+     * Starts (or restarts) pregeneration of {@code world}. A non-positive
+     * {@code radiusBlocks} means the world border area.
+     */
+    public void start(World world, int radiusBlocks) {
+        int centerX;
+        int centerZ;
+        int radiusChunks;
+        if (radiusBlocks <= 0) {
+            WorldBorder border = world.getWorldBorder();
+            Location c = border.getCenter();
+            centerX = c.getBlockX() >> 4;
+            centerZ = c.getBlockZ() >> 4;
+            radiusChunks = (int) Math.ceil(border.getSize() / 2.0 / 16.0);
+        } else {
+            Location spawn = world.getSpawnLocation();
+            centerX = spawn.getBlockX() >> 4;
+            centerZ = spawn.getBlockZ() >> 4;
+            radiusChunks = (radiusBlocks + 15) >> 4;
+        }
+        int maxRadius = Math.max(1, plugin.getConfig().getInt("pregen.maxRadiusChunks", 2000));
+        radiusChunks = Math.max(0, Math.min(radiusChunks, maxRadius));
+        jobs.put(key(world.getName()), new Job(world.getName(), centerX, centerZ, radiusChunks, 0L,
+                System.currentTimeMillis()));
+        saveJobs();
+        plugin.getLogger().info("Pregeneration started for '" + world.getName() + "': radius " + radiusChunks
+                + " chunks around " + (centerX << 4) + "," + (centerZ << 4) + ".");
+    }
+
+    /**
+     * Starts jobs for the worlds configured under {@code pregen.afterReset};
+     * called once a reset has recreated its worlds.
+     */
+    public void startAfterReset(String base, EnumSet<ResetService.Dimension> dims) {
+        if (!plugin.getConfig().getBoolean("pregen.afterReset.enabled", false))
+            return;
+        int radius = plugin.getConfig().getInt("pregen.radiusBlocks", 1024);
+        if (plugin.getConfig().getBoolean("pregen.useWorldBorder", false))
+            radius = 0;
+        List<String> wanted = plugin.getConfig().getStringList("pregen.afterReset.dimensions");
+        for (ResetService.Dimension dim : dims) {
+            if (!wanted.isEmpty() && wanted.stream().noneMatch(d -> d.equalsIgnoreCase(dim.name())))
+                continue;
+            String name = switch (dim) {
+                case OVERWORLD -> base;
+                case NETHER -> base + "_nether";
+                case END -> base + "_the_end";
+            };
+            World world = Bukkit.getWorld(name);
+            if (world != null)
+                start(world, radius);
+        }
+    }
+
+    public boolean cancel(String worldName) {
+        boolean removed = jobs.remove(key(worldName)) != null;
+        if (removed)
+            saveJobs();
+        return removed;
+    }
+
+    public int getJobCount() {
+        return jobCount;
+    }
+
+    public int getInFlight() {
+        return inFlight;
+    }
+
+    public boolean hasJob(String worldName) {
+        return jobs.containsKey(key(worldName));
+    }
+
+    public List<String> statusLines() {
+        List<String> lines = new ArrayList<>();
+        if (jobs.isEmpty()) {
+            lines.add("&7No pregeneration jobs.");
+            return lines;
+        }
+        for (Job job : jobs.values()) {
+            String state = Bukkit.getWorld(job.worldName) == null ? " &c(world not loaded)" : "";
+            lines.add("&7- &e" + job.worldName + "&7: &e" + job.watermark + "&7/&e" + job.total + "&7 chunks (&e"
+                    + percent(job.watermark, job.total) + "%&7)" + state);
+        }
+        lines.add("&7In flight: &e" + inFlight + (isThrottled() ? " &c(paused: high MSPT)" : ""));
+        return lines;
+    }
+
+    public void shutdown() {
+        pendingSave.set(serializeJobs());
+        writePendingJobs();
+    }
+
+    private void tick() {
+        if (jobs.isEmpty())
+            return;
+        long now = System.currentTimeMillis();
+        if (now - lastSaveAt > 10_000L) {
+            lastSaveAt = now;
+            saveJobs();
+        }
+        if (isThrottled())
+            return;
+        int maxConcurrent = Math.max(1, plugin.getConfig().getInt("pregen.maxConcurrent", 8));
+        for (Job job : new ArrayList<>(jobs.values())) {
+            World world = Bukkit.getWorld(job.worldName);
+            // Resumed jobs wait for their world to be loaded
+            if (world == null)
+                continue;
+            while (inFlight < maxConcurrent && !job.isIssued())
+                request(world, job, job.nextIndex++);
+            if (inFlight >= maxConcurrent)
+                return;
+        }
+    }
+
+    private boolean isThrottled() {
+        return Bukkit.getAverageTickTime() > plugin.getConfig().getDouble("pregen.maxMspt", 45.0);
+    }
+
+    private void request(World world, Job job, long index) {
+        long offset = spiral(index);
+        int cx = job.centerX + (int) (offset >> 32);
+        int cz = job.centerZ + (int) offset;
+        inFlight++;
+        world.getChunkAtAsync(cx, cz, true).whenComplete((chunk, err) -> {
+            inFlight--;
+            if (err != null)
+                plugin.getLogger().warning("Pregen failed for chunk " + cx + "," + cz + " in '" + job.worldName
+                        + "': " + err.getMessage());
+            // A job replaced or cancelled meanwhile ignores late completions
+            if (jobs.get(key(job.worldName)) != job)
+                return;
+            job.markDone(index);
+            reportProgress(job);
+        });
+    }
+
+    private void reportProgress(Job job) {
+        if (job.isComplete()) {
+            jobs.remove(key(job.worldName));
+            saveJobs();
+            long secs = Math.max(1L, (System.currentTimeMillis() - job.startedAt) / 1000L);
+            plugin.getLogger().info("Pregeneration finished for '" + job.worldName + "': " + job.total
+                    + " chunks in " + secs + "s.");
+            return;
+        }
+        long pct = percent(job.watermark, job.total);
+        if (pct >= job.lastReportPercent + 10) {
+            job.lastReportPercent = pct - pct % 10;
+            plugin.getLogger().info("Pregeneration '" + job.worldName + "': " + pct + "%");
+        }
+    }
+
+    /**
+     * Offset of spiral index {@code n} from the centre, packed as
+     * {@code dx << 32 | dz}. Ring {@code k} holds {@code 8k} chunks starting
+     * at index {@code (2k-1)^2}.
+     */
+    static long spiral(long n) {
+        if (n <= 0)
+            return 0L;
+        long k = (long) ((Math.sqrt((double) n) + 1) / 2);
+        while ((2 * k + 1) * (2 * k + 1) <= n)
+            k++;
+        while (k > 1 && (2 * k - 1) * (2 * k - 1) > n)
+            k--;
+        long offset = n - (2 * k - 1) * (2 * k - 1);
+        long side = offset / (2 * k);
+        long pos = offset % (2 * k);
+        long dx;
+        long dz;
+        if (side == 0) {
+            dx = k;
+            dz = -k + 1 + pos;
+        } else if (side == 1) {
+            dx = k - 1 - pos;
+            dz = k;
+        } else if (side == 2) {
+            dx = -k;
+            dz = k - 1 - pos;
+        } else {
+            dx = -k + 1 + pos;
+            dz = -k;
+        }
+        return (dx << 32) | (dz & 0xffffffffL);
+    }
+
+    private static long percent(long value, long total) {
+        return total <= 0 ? 100L : value * 100L / total;
+    }
+
+    private static String key(String worldName) {
+        return worldName.toLowerCase(Locale.ROOT);
+    }
+
+    private void loadJobs() {
+        if (!dataFile.exists())
+            return;
+        try {
+            YamlConfiguration yaml = YamlConfiguration.loadConfiguration(dataFile);
+            for (String name : yaml.getKeys(false)) {
+                ConfigurationSection sec = yaml.getConfigurationSection(name);
+                if (sec == null)
+                    continue;
+                Job job = new Job(sec.getString("world", name), sec.getInt("centerX"), sec.getInt("centerZ"),
+                        sec.getInt("radius"), sec.getLong("index"), sec.getLong("startedAt",
+                                System.currentTimeMillis()));
+                if (!job.isComplete()) {
+                    jobs.put(key(job.worldName), job);
+                    plugin.getLogger().info("Resuming pregeneration for '" + job.worldName + "' at "
+                            + percent(job.watermark, job.total) + "%.");
+                }
+            }
+            jobCount = jobs.size();
+        } catch (Exception e) {
+            plugin.getLogger().warning("Failed to load pregen data: " + e.getMessage());
+        }
+    }
+
+    private void saveJobs() {
+        // Every change to jobs is saved, so the count is published here
+        jobCount = jobs.size();
+        pendingSave.set(serializeJobs());
+        try {
+            if (plugin.getBackgroundExecutor() != null) {
+                plugin.getBackgroundExecutor().submit(this::writePendingJobs);
+                return;
+            }
+        } catch (RejectedExecutionException ignored) {
+        }
+        writePendingJobs();
+    }
+
+    private String serializeJobs() {
+        YamlConfiguration yaml = new YamlConfiguration();
+        for (Map.Entry<String, Job> e : jobs.entrySet()) {
+            Job job = e.getValue();
+            String k = e.getKey();
+            yaml.set(k + ".world", job.worldName);
+            yaml.set(k + ".centerX", job.centerX);
+            yaml.set(k + ".centerZ", job.centerZ);
+            yaml.set(k + ".radius", job.radius);
+            yaml.set(k + ".index", job.watermark);
+            yaml.set(k + ".startedAt", job.startedAt);
+        }
+        return yaml.saveToString();
+    }
+
+    private synchronized void writePendingJobs() {
+        String data = pendingSave.getAndSet(null);
+        if (data == null)
+            return;
+        try {
+            Files.writeString(dataFile.toPath(), data, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            plugin.getLogger().warning("Failed to save pregen data: " + e.getMessage());
+        }
+    }
+}
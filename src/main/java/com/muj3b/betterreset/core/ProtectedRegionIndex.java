@@ -0,0 +1,86 @@
+package com.muj3b.betterreset.core;
+
+import com.muj3b.betterreset.util.LongHashSet;
+import org.bukkit.World;
+
+import java.util.Collection;
+import java.util.logging.Logger;
+
+/**
+ * Immutable set of protected region coordinates for one world, backed by a
+ * primitive long hash set so trims can test membership without boxing.
+ */
+public final class ProtectedRegionIndex {
+
+    private static final ProtectedRegionIndex EMPTY = new ProtectedRegionIndex(new LongHashSet());
+
+    private final LongHashSet regions;
+
+    private ProtectedRegionIndex(LongHashSet regions) {
+        this.regions = regions;
+    }
+
+    public static ProtectedRegionIndex empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Builds an index for {@code world} from all given providers. A provider
+     * that throws is logged and skipped so one broken claim hook cannot
+     * disable protection from the others.
+     */
+    public static ProtectedRegionIndex build(World world, Collection<ProtectedRegionProvider> providers,
+            Logger logger) {
+        Builder builder = new Builder();
+        for (ProtectedRegionProvider provider : providers) {
+            try {
+                provider.collect(world, builder);
+            } catch (Throwable t) {
+                logger.warning("Protected region provider '" + provider.getName() + "' failed for world '"
+                        + world.getName() + "': " + t.getMessage());
+            }
+        }
+        return new ProtectedRegionIndex(builder.regions);
+    }
+
+    public boolean contains(int rx, int rz) {
+        return regions.contains(ResetService.regionKey(rx, rz));
+    }
+
+    public int size() {
+        return regions.size();
+    }
+
+    /**
+     * Collects protected areas; all coordinates are in blocks unless the
+     * method name says otherwise.
+     */
+    public static final class Builder {
+        private final LongHashSet regions = new LongHashSet(256);
+
+        public Builder protectRegion(int rx, int rz) {
+            regions.add(ResetService.regionKey(rx, rz));
+            return this;
+        }
+
+        public Builder protectChunk(int cx, int cz) {
+            return protectRegion(cx >> 5, cz >> 5);
+        }
+
+        public Builder protectBlockArea(int x1, int z1, int x2, int z2) {
+            int minRx = Math.min(x1, x2) >> 9;
+            int maxRx = Math.max(x1, x2) >> 9;
+            int minRz = Math.min(z1, z2) >> 9;
+            int maxRz = Math.max(z1, z2) >> 9;
+            for (int rx = minRx; rx <= maxRx; rx++)
+                for (int rz = minRz; rz <= maxRz; rz++)
+                    protectRegion(rx, rz);
+            return this;
+        }
+
+        public Builder protectRadius(int centerX, int centerZ, int radiusBlocks) {
+            int r = Math.max(0, radiusBlocks);
+            return protectBlockArea(centerX - r, centerZ - r, centerX + r, centerZ + r);
+        }
+    }
+}
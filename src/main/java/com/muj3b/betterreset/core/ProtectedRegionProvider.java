@@ -0,0 +1,25 @@
+package com.muj3b.betterreset.core;
+
+import org.bukkit.World;
+
+/**
+ * Supplies regions that chunk trimming must never delete. Implementations are
+ * queried on the main thread right before a trim, so they may use the Bukkit
+ * API freely but should stay cheap.
+ * <p>
+ * Claim plugins can contribute their own protection by registering an
+ * implementation with Bukkit's services manager:
+ * {@code Bukkit.getServicesManager().register(ProtectedRegionProvider.class, provider, plugin, ServicePriority.Normal)}.
+ */
+public interface ProtectedRegionProvider {
+
+    /**
+     * Short identifier used in logs and reports.
+     */
+    String getName();
+
+    /**
+     * Adds every protected area of {@code world} to {@code index}.
+     */
+    void collect(World world, ProtectedRegionIndex.Builder index);
+}
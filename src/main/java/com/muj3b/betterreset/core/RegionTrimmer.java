@@ -0,0 +1,478 @@
+package com.muj3b.betterreset.core;
+
+import com.muj3b.betterreset.FullResetPlugin;
+import com.muj3b.betterreset.util.RegionVisitTracker;
+import org.bukkit.configuration.file.FileConfiguration;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveTask;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Scans and trims region folders on a fork/join pool. Trimming runs in two
+ * phases: {@link #plan} evaluates the rules for every world in parallel
+ * without touching any file, and {@link #execute} deletes exactly the files a
+ * plan selected, in fixed-size batches. Deleting a region also removes its
+ * entities/ and poi/ counterparts so no stale data is left behind.
+ * {@link #trimIncrement} handles one small slice at a time for the trim daemon.
+ */
+class RegionTrimmer {
+    static final Pattern REGION_FILE_PATTERN = Pattern.compile("^r\\.(-?\\d+)\\.(-?\\d+)\\.mca$");
+
+    // Below this many files a scan slice is evaluated on the current worker
+    private static final int SCAN_THRESHOLD = 256;
+    // Sibling folders that hold per-region data next to region/
+    private static final String[] COMPANION_FOLDERS = { "entities", "poi" };
+    // Last region file name handled by the trim daemon, kept inside region/
+    static final String CURSOR_FILE = ".betterreset-trim-cursor";
+
+    private final FullResetPlugin plugin;
+    // Sorted region file names per folder, listed once per trim daemon sweep
+    private final Map<Path, String[]> sweepListings = new ConcurrentHashMap<>();
+
+    RegionTrimmer(FullResetPlugin plugin) {
+        this.plugin = plugin;
+    }
+
+    /**
+     * Outcome of one {@link #trimIncrement} pass. {@code wrapped} is set when
+     * the pass reached the end of the folder and the cursor was reset.
+     */
+    record IncrementResult(String worldName, int examined, int deleted, int skippedProtected, long bytesDeleted,
+            boolean wrapped) {
+    }
+
+    /**
+     * Rule snapshot taken once per trim so workers never touch the live config.
+     */
+    record Rules(boolean inactiveEnabled, long cutoffMillis, boolean endDistanceEnabled, int minDistanceBlocks) {
+        static Rules fromConfig(FileConfiguration config) {
+            boolean inactiveEnabled = config.getBoolean("chunkReset.inactive.enabled", true);
+            long inactiveDays = Math.max(1L, config.getLong("chunkReset.inactive.days", 30L));
+            long cutoffMillis = System.currentTimeMillis() - Duration.ofDays(inactiveDays).toMillis();
+            boolean endDistanceEnabled = config.getBoolean("chunkReset.endDistance.enabled", true);
+            int minDistanceBlocks = Math.max(0, config.getInt("chunkReset.endDistance.minDistanceBlocks", 5000));
+            return new Rules(inactiveEnabled, cutoffMillis, endDistanceEnabled, minDistanceBlocks);
+        }
+    }
+
+    /**
+     * Evaluates the rules for every world in {@code regionFolders} in parallel.
+     * Nothing is deleted; world plans keep the iteration order of the map.
+     * Worlds with an entry in {@code visits} are judged by last player visit
+     * instead of file modification time.
+     */
+    TrimPlan plan(String base, EnumSet<ResetService.Dimension> dims, Map<String, Path> regionFolders,
+            Map<String, ProtectedRegionIndex> protectedRegions, Map<String, RegionVisitTracker.Snapshot> visits,
+            Rules rules) {
+        long now = System.currentTimeMillis();
+        ForkJoinPool pool = newPool();
+        try {
+            List<ForkJoinTask<TrimPlan.WorldPlan>> tasks = new ArrayList<>();
+            for (Map.Entry<String, Path> e : regionFolders.entrySet()) {
+                ProtectedRegionIndex index = protectedRegions.getOrDefault(e.getKey(), ProtectedRegionIndex.empty());
+                tasks.add(pool.submit(new PlanTask(e.getKey(), e.getValue(), index, visits.get(e.getKey()), rules,
+                        now)));
+            }
+            List<TrimPlan.WorldPlan> worlds = new ArrayList<>(tasks.size());
+            for (ForkJoinTask<TrimPlan.WorldPlan> task : tasks)
+                worlds.add(task.join());
+            return new TrimPlan(base, dims, now, worlds);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Deletes the files selected by {@code plan}. Regions that became
+     * protected since planning (for example because a player walked into
+     * them) are skipped rather than rescanned, as are regions whose file was
+     * modified or that have a newer visit in {@code visitsNow}; those count as
+     * rule skips. Worlds missing from {@code protectedNow} are left untouched.
+     */
+    List<ResetService.ChunkTrimResult> execute(TrimPlan plan, Map<String, ProtectedRegionIndex> protectedNow,
+            Map<String, RegionVisitTracker.Snapshot> visitsNow) {
+        int batchSize = Math.max(1, plugin.getConfig().getInt("chunkReset.deleteBatchSize", 256));
+        ForkJoinPool pool = newPool();
+        try {
+            List<ForkJoinTask<DeleteTally>> tasks = new ArrayList<>();
+            for (TrimPlan.WorldPlan world : plan.getWorlds()) {
+                ProtectedRegionIndex index = protectedNow.get(world.worldName());
+                List<TrimPlan.Candidate> candidates = index == null ? List.of() : world.candidates();
+                tasks.add(pool.submit(new DeleteTask(candidates, 0, candidates.size(), index,
+                        visitsNow.get(world.worldName()), batchSize)));
+            }
+            List<ResetService.ChunkTrimResult> results = new ArrayList<>(tasks.size());
+            for (int i = 0; i < tasks.size(); i++) {
+                TrimPlan.WorldPlan world = plan.getWorlds().get(i);
+                DeleteTally tally = tasks.get(i).join();
+                results.add(new ResetService.ChunkTrimResult(world.worldName(), world.scanned(), tally.regions,
+                        world.skippedProtected() + tally.nowProtected, world.skippedRules() + tally.changed,
+                        tally.companions,
+                        tally.bytes));
+            }
+            return results;
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Evaluates and trims the next {@code maxRegions} region files after the
+     * folder's cursor, in file name order, then advances the cursor. Slices are
+     * capped at the scan threshold so the work runs entirely on the calling
+     * thread. The folder is listed and sorted once when a sweep starts and
+     * later passes continue in that listing, so region files created mid-sweep
+     * are picked up by the next sweep.
+     */
+    IncrementResult trimIncrement(String worldName, Path regionFolder, ProtectedRegionIndex protectedRegions,
+            RegionVisitTracker.Snapshot visits, Rules rules, int maxRegions) throws IOException {
+        if (!Files.isDirectory(regionFolder))
+            return new IncrementResult(worldName, 0, 0, 0, 0L, true);
+        int limit = Math.max(1, Math.min(maxRegions, SCAN_THRESHOLD));
+        Path cursorFile = regionFolder.resolve(CURSOR_FILE);
+        String cursor = readCursor(cursorFile);
+
+        String[] names = cursor.isEmpty() ? null : sweepListings.get(regionFolder);
+        if (names == null) {
+            names = listRegionNames(regionFolder);
+            sweepListings.put(regionFolder, names);
+        }
+        int start = Arrays.binarySearch(names, cursor);
+        start = start >= 0 ? start + 1 : -start - 1;
+        int end = Math.min(names.length, start + limit);
+        List<Path> files = new ArrayList<>(end - start);
+        for (int i = start; i < end; i++)
+            files.add(regionFolder.resolve(names[i]));
+
+        boolean isEndWorld = worldName.endsWith("_the_end");
+        ScanResult scan = new ScanTask(files, 0, files.size(), protectedRegions, visits, rules, isEndWorld,
+                System.currentTimeMillis()).compute();
+        DeleteTally tally = new DeleteTask(scan.candidates, 0, scan.candidates.size(), protectedRegions, visits,
+                Integer.MAX_VALUE).compute();
+
+        boolean wrapped = end >= names.length;
+        writeCursor(cursorFile, wrapped ? "" : names[end - 1]);
+        if (wrapped)
+            sweepListings.remove(regionFolder);
+        return new IncrementResult(worldName, files.size(), tally.regions,
+                scan.skippedProtected + tally.nowProtected, tally.bytes, wrapped);
+    }
+
+    private static String[] listRegionNames(Path regionFolder) throws IOException {
+        List<String> names = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(regionFolder, "*.mca")) {
+            for (Path file : stream)
+                names.add(file.getFileName().toString());
+        }
+        String[] sorted = names.toArray(new String[0]);
+        Arrays.sort(sorted);
+        return sorted;
+    }
+
+    private static String readCursor(Path cursorFile) {
+        try {
+            return Files.readString(cursorFile, StandardCharsets.UTF_8).trim();
+        } catch (IOException ex) {
+            return "";
+        }
+    }
+
+    private static void writeCursor(Path cursorFile, String value) throws IOException {
+        Path tmp = cursorFile.resolveSibling(CURSOR_FILE + ".tmp");
+        Files.writeString(tmp, value, StandardCharsets.UTF_8);
+        try {
+            Files.move(tmp, cursorFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException ex) {
+            Files.move(tmp, cursorFile, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private ForkJoinPool newPool() {
+        int parallelism = plugin.getConfig().getInt("chunkReset.parallelism", 0);
+        if (parallelism <= 0)
+            parallelism = Runtime.getRuntime().availableProcessors();
+        return new ForkJoinPool(parallelism, RegionTrimmer::newWorker, null, false);
+    }
+
+    private static ForkJoinWorkerThread newWorker(ForkJoinPool pool) {
+        ForkJoinWorkerThread t = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+        t.setName("betterreset-trim-" + t.getPoolIndex());
+        t.setDaemon(true);
+        return t;
+    }
+
+    private static final class PlanTask extends RecursiveTask<TrimPlan.WorldPlan> {
+        private final String worldName;
+        private final Path regionFolder;
+        private final ProtectedRegionIndex protectedRegions;
+        private final RegionVisitTracker.Snapshot visits;
+        private final Rules rules;
+        private final long now;
+
+        PlanTask(String worldName, Path regionFolder, ProtectedRegionIndex protectedRegions,
+                RegionVisitTracker.Snapshot visits, Rules rules, long now) {
+            this.worldName = worldName;
+            this.regionFolder = regionFolder;
+            this.protectedRegions = protectedRegions;
+            this.visits = visits;
+            this.rules = rules;
+            this.now = now;
+        }
+
+        @Override
+        protected TrimPlan.WorldPlan compute() {
+            if (regionFolder == null || !Files.isDirectory(regionFolder)) {
+                return new TrimPlan.WorldPlan(worldName, regionFolder, 0, 0, 0, protectedRegions.size(),
+                        List.of(), 0L, new long[TrimPlan.AGE_BUCKET_LABELS.length], visits != null);
+            }
+            List<Path> files = new ArrayList<>();
+            try (DirectoryStream<Path> stream = Files.newDirectoryStream(regionFolder, "*.mca")) {
+                for (Path file : stream)
+                    files.add(file);
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+
+            boolean isEndWorld = worldName.endsWith("_the_end");
+            ScanResult scan = new ScanTask(files, 0, files.size(), protectedRegions, visits, rules, isEndWorld,
+                    now).invoke();
+            return new TrimPlan.WorldPlan(worldName, regionFolder, scan.scanned, scan.skippedProtected,
+                    scan.skippedRules, protectedRegions.size(), List.copyOf(scan.candidates), scan.bytes,
+                    scan.ageHistogram, visits != null);
+        }
+    }
+
+    private static final class ScanResult {
+        int scanned;
+        int skippedProtected;
+        int skippedRules;
+        long bytes;
+        final long[] ageHistogram = new long[TrimPlan.AGE_BUCKET_LABELS.length];
+        final List<TrimPlan.Candidate> candidates = new ArrayList<>();
+
+        ScanResult merge(ScanResult other) {
+            scanned += other.scanned;
+            skippedProtected += other.skippedProtected;
+            skippedRules += other.skippedRules;
+            bytes += other.bytes;
+            for (int i = 0; i < ageHistogram.length; i++)
+                ageHistogram[i] += other.ageHistogram[i];
+            candidates.addAll(other.candidates);
+            return this;
+        }
+    }
+
+    private static final class ScanTask extends RecursiveTask<ScanResult> {
+        private final List<Path> files;
+        private final int from;
+        private final int to;
+        private final ProtectedRegionIndex protectedRegions;
+        private final RegionVisitTracker.Snapshot visits;
+        private final Rules rules;
+        private final boolean isEndWorld;
+        private final long now;
+
+        ScanTask(List<Path> files, int from, int to, ProtectedRegionIndex protectedRegions,
+                RegionVisitTracker.Snapshot visits, Rules rules, boolean isEndWorld, long now) {
+            this.files = files;
+            this.from = from;
+            this.to = to;
+            this.protectedRegions = protectedRegions;
+            this.visits = visits;
+            this.rules = rules;
+            this.isEndWorld = isEndWorld;
+            this.now = now;
+        }
+
+        @Override
+        protected ScanResult compute() {
+            if (to - from > SCAN_THRESHOLD) {
+                int mid = (from + to) >>> 1;
+                ScanTask left = new ScanTask(files, from, mid, protectedRegions, visits, rules, isEndWorld, now);
+                left.fork();
+                ScanResult right = new ScanTask(files, mid, to, protectedRegions, visits, rules, isEndWorld,
+                        now).compute();
+                return left.join().merge(right);
+            }
+            ScanResult result = new ScanResult();
+            for (int i = from; i < to; i++) {
+                Path file = files.get(i);
+                result.scanned++;
+                Matcher matcher = REGION_FILE_PATTERN.matcher(file.getFileName().toString());
+                if (!matcher.matches()) {
+                    result.skippedRules++;
+                    continue;
+                }
+
+                BasicFileAttributes attrs;
+                try {
+                    attrs = Files.readAttributes(file, BasicFileAttributes.class);
+                } catch (IOException ex) {
+                    // Vanished or unreadable; leave it to the rule skip count
+                    result.skippedRules++;
+                    continue;
+                }
+                int rx = Integer.parseInt(matcher.group(1));
+                int rz = Integer.parseInt(matcher.group(2));
+                long lastActive = visits != null ? visits.lastVisitMillis(rx, rz)
+                        : attrs.lastModifiedTime().toMillis();
+                result.ageHistogram[TrimPlan.ageBucket(now - lastActive)]++;
+
+                if (protectedRegions.contains(rx, rz)) {
+                    result.skippedProtected++;
+                    continue;
+                }
+
+                boolean deleteByInactive = rules.inactiveEnabled() && lastActive < rules.cutoffMillis();
+                boolean deleteByEndDistance = rules.endDistanceEnabled() && isEndWorld
+                        && ResetService.isRegionOutsideDistance(rx, rz, rules.minDistanceBlocks());
+
+                if (!deleteByInactive && !deleteByEndDistance) {
+                    result.skippedRules++;
+                    continue;
+                }
+                long bytes = attrs.size() + companionBytes(file);
+                result.bytes += bytes;
+                result.candidates.add(new TrimPlan.Candidate(file, rx, rz, bytes,
+                        attrs.lastModifiedTime().toMillis(), visits != null ? lastActive : -1L));
+            }
+            return result;
+        }
+    }
+
+    private static final class DeleteTally {
+        int regions;
+        int companions;
+        int nowProtected;
+        int changed;
+        long bytes;
+
+        DeleteTally merge(DeleteTally other) {
+            regions += other.regions;
+            companions += other.companions;
+            nowProtected += other.nowProtected;
+            changed += other.changed;
+            bytes += other.bytes;
+            return this;
+        }
+    }
+
+    private final class DeleteTask extends RecursiveTask<DeleteTally> {
+        private final List<TrimPlan.Candidate> candidates;
+        private final int from;
+        private final int to;
+        private final ProtectedRegionIndex protectedRegions;
+        private final RegionVisitTracker.Snapshot visitsNow;
+        private final int batchSize;
+
+        DeleteTask(List<TrimPlan.Candidate> candidates, int from, int to, ProtectedRegionIndex protectedRegions,
+                RegionVisitTracker.Snapshot visitsNow, int batchSize) {
+            this.candidates = candidates;
+            this.from = from;
+            this.to = to;
+            this.protectedRegions = protectedRegions;
+            this.visitsNow = visitsNow;
+            this.batchSize = batchSize;
+        }
+
+        @Override
+        protected DeleteTally compute() {
+            if (to - from > batchSize) {
+                int mid = (from + to) >>> 1;
+                DeleteTask left = new DeleteTask(candidates, from, mid, protectedRegions, visitsNow, batchSize);
+                left.fork();
+                DeleteTally right = new DeleteTask(candidates, mid, to, protectedRegions, visitsNow, batchSize)
+                        .compute();
+                return left.join().merge(right);
+            }
+            DeleteTally tally = new DeleteTally();
+            for (int i = from; i < to; i++) {
+                TrimPlan.Candidate candidate = candidates.get(i);
+                if (protectedRegions.contains(candidate.rx(), candidate.rz())) {
+                    tally.nowProtected++;
+                    continue;
+                }
+                if (visitsNow != null && candidate.lastVisit() >= 0
+                        && visitsNow.lastVisitMillis(candidate.rx(), candidate.rz()) > candidate.lastVisit()) {
+                    tally.changed++;
+                    continue;
+                }
+                Path file = candidate.file();
+                try {
+                    if (Files.getLastModifiedTime(file).toMillis() != candidate.lastModified()) {
+                        tally.changed++;
+                        continue;
+                    }
+                    long size = sizeOrZero(file);
+                    if (Files.deleteIfExists(file)) {
+                        tally.bytes += size;
+                        tally.regions++;
+                    }
+                } catch (NoSuchFileException ex) {
+                    // Already gone; its companions are still cleared below
+                } catch (IOException ex) {
+                    plugin.getLogger().warning("Failed to delete region file '" + file + "': " + ex.getMessage());
+                    continue;
+                }
+                deleteCompanions(file, tally);
+            }
+            return tally;
+        }
+
+        private void deleteCompanions(Path regionFile, DeleteTally tally) {
+            for (Path companion : companionsOf(regionFile)) {
+                try {
+                    long size = sizeOrZero(companion);
+                    if (Files.deleteIfExists(companion)) {
+                        tally.bytes += size;
+                        tally.companions++;
+                    }
+                } catch (IOException ex) {
+                    plugin.getLogger().warning("Failed to delete '" + companion + "': " + ex.getMessage());
+                }
+            }
+        }
+    }
+
+    private static List<Path> companionsOf(Path regionFile) {
+        Path worldRoot = regionFile.getParent().getParent();
+        if (worldRoot == null)
+            return List.of();
+        List<Path> out = new ArrayList<>(COMPANION_FOLDERS.length);
+        for (String folder : COMPANION_FOLDERS)
+            out.add(worldRoot.resolve(folder).resolve(regionFile.getFileName()));
+        return out;
+    }
+
+    private static long companionBytes(Path regionFile) {
+        long total = 0L;
+        for (Path companion : companionsOf(regionFile))
+            total += sizeOrZero(companion);
+        return total;
+    }
+
+    private static long sizeOrZero(Path file) {
+        try {
+            return Files.size(file);
+        } catch (IOException ex) {
+            return 0L;
+        }
+    }
+}
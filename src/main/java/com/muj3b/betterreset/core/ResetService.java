@@ -2,13 +2,18 @@ package com.muj3b.betterreset.core;
 
 import com.muj3b.betterreset.FullResetPlugin;
 import com.muj3b.betterreset.util.BackupManager;
+import com.muj3b.betterreset.util.ByteFormat;
 import com.muj3b.betterreset.util.CountdownManager;
 import com.muj3b.betterreset.util.Messages;
+import com.muj3b.betterreset.util.MetricsRegistry;
 import com.muj3b.betterreset.util.MultiverseCompat;
 import com.muj3b.betterreset.util.PreloadManager;
 import com.muj3b.betterreset.util.OfflinePlayerResetUtil;
+import com.muj3b.betterreset.util.OfflineResetEpochs;
+import com.muj3b.betterreset.util.RegionVisitTracker;
 import com.muj3b.betterreset.util.ResetAuditLogger;
 import com.muj3b.betterreset.util.SeedHistory;
+import com.muj3b.betterreset.util.SeedScout;
 import org.bukkit.Bukkit;
 import org.bukkit.Location;
 import org.bukkit.World;
@@ -17,25 +22,24 @@ import org.bukkit.WorldType;
 import org.bukkit.Material;
 import org.bukkit.command.CommandSender;
 import org.bukkit.entity.Player;
+import org.bukkit.plugin.RegisteredServiceProvider;
 
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.*;
 import java.nio.file.attribute.BasicFileAttributes;
-import java.time.Duration;
 import java.time.Instant;
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
 
 /**
  * Orchestrates the safe reset flow for worlds.
  */
 public class ResetService {
-    private static final Pattern REGION_FILE_PATTERN = Pattern.compile("^r\\.(-?\\d+)\\.(-?\\d+)\\.mca$");
-
     public enum Dimension {
         OVERWORLD, NETHER, END
     }
@@ -48,8 +52,18 @@ public class ResetService {
     private final BackupManager backupManager;
     private final PreloadManager preloadManager;
     private final OfflinePlayerResetUtil offlinePlayerResetUtil;
-
-    private final ResetAuditLogger auditLogger = new ResetAuditLogger();
+    private final OfflineResetEpochs offlineEpochs;
+    private final RegionTrimmer regionTrimmer;
+    private final List<ProtectedRegionProvider> protectedRegionProviders = new CopyOnWriteArrayList<>();
+    private final OfflineRespawnPoints offlineRespawns;
+    private final Map<String, TrimPlan> trimPlans = new ConcurrentHashMap<>();
+    private final TrimDaemon trimDaemon;
+    private final LazyDimensionManager lazyDimensions;
+    private final IdleWorldManager idleWorlds;
+    private final WorldTemplates worldTemplates;
+    private final FreshStartProcessor freshStart;
+
+    private final ResetAuditLogger auditLogger;
     private final Map<UUID, ResetTask> activeTasks = new HashMap<>();
     private final Random rng = new Random();
     private final SeedHistory seedHistory;
@@ -57,7 +71,8 @@ public class ResetService {
     private final Map<String, Long> lastResetTimestamp = new ConcurrentHashMap<>();
     private long totalResets = 0;
 
-    public record ChunkTrimResult(String worldName, int scanned, int deleted, int skippedLoaded, int skippedRules) {
+    public record ChunkTrimResult(String worldName, int scanned, int deleted, int skippedProtected, int skippedRules,
+            int companionsDeleted, long bytesDeleted) {
     }
 
     public ResetService(FullResetPlugin plugin, ConfirmationManager confirmationManager,
@@ -67,14 +82,26 @@ public class ResetService {
         this.countdownManager = countdownManager;
         this.multiverseCompat = multiverseCompat;
         this.backupManager = new BackupManager(plugin);
+        this.auditLogger = new ResetAuditLogger(plugin);
         this.preloadManager = preloadManager;
-        this.offlinePlayerResetUtil = new OfflinePlayerResetUtil(plugin.getLogger(), plugin.getBackgroundExecutor());
+        this.offlinePlayerResetUtil = new OfflinePlayerResetUtil(plugin);
+        this.offlineEpochs = new OfflineResetEpochs(plugin, offlinePlayerResetUtil);
         this.seedHistory = plugin.getSeedHistory();
+        this.regionTrimmer = new RegionTrimmer(plugin);
+        this.offlineRespawns = new OfflineRespawnPoints(plugin);
+        this.protectedRegionProviders.addAll(BuiltinRegionProviders.defaults(plugin, offlineRespawns));
+        this.trimDaemon = new TrimDaemon(plugin, this, regionTrimmer);
+        this.lazyDimensions = new LazyDimensionManager(plugin, multiverseCompat);
+        this.idleWorlds = new IdleWorldManager(plugin, this);
+        this.worldTemplates = new WorldTemplates(plugin);
+        this.freshStart = new FreshStartProcessor(plugin);
     }
 
     private volatile boolean resetInProgress = false;
     private volatile String currentTarget = null;
     private volatile String phase = "IDLE";
+    // Seed picked by nextSeed() for the running countdown; returned to the scout pool if it is cancelled
+    private Long countdownSeed;
 
     public void startReset(Player player, String baseWorld, EnumSet<Dimension> dimensions) {
         if (!checkLimits(player, baseWorld)) {
@@ -87,7 +114,8 @@ public class ResetService {
 
         List<World> affectedWorlds = dimensions.stream().flatMap(dim -> getAffectedWorld(baseWorld, dim).stream())
                 .toList();
-        Optional<Long> effectiveSeed = Optional.of(rng.nextLong());
+        Optional<Long> effectiveSeed = Optional.of(nextSeed());
+        countdownSeed = effectiveSeed.get();
         try {
             maybePreload(baseWorld, effectiveSeed.get(), dimensions);
         } catch (Throwable ignored) {
@@ -98,6 +126,7 @@ public class ResetService {
         int seconds = plugin.getConfig().getInt("countdown.seconds", 10);
         Messages.send(player, "&eStarting reset countdown for &6" + baseWorld + "&e...");
         countdownManager.startCountdown(task.getInitiator(), task.getAffectedWorlds(), seconds, () -> {
+            countdownSeed = null;
             if (!task.isCancelled()) {
                 resetWorldAsync(task.getInitiator(), baseWorld, effectiveSeed, dimensions);
                 lastResetAt.put(baseWorld, System.currentTimeMillis());
@@ -119,7 +148,8 @@ public class ResetService {
         }
         List<World> affectedWorlds = dimensions.stream().flatMap(dim -> getAffectedWorld(baseWorld, dim).stream())
                 .toList();
-        Optional<Long> effectiveSeed = seedOpt.isPresent() ? seedOpt : Optional.of(rng.nextLong());
+        Optional<Long> effectiveSeed = seedOpt.isPresent() ? seedOpt : Optional.of(nextSeed());
+        countdownSeed = seedOpt.isPresent() ? null : effectiveSeed.get();
         try {
             maybePreload(baseWorld, effectiveSeed.get(), dimensions);
         } catch (Throwable ignored) {
@@ -129,6 +159,7 @@ public class ResetService {
         int seconds = plugin.getConfig().getInt("countdown.seconds", 10);
         Messages.send(player, "&eStarting reset countdown for &6" + baseWorld + "&e...");
         countdownManager.startCountdown(task.getInitiator(), task.getAffectedWorlds(), seconds, () -> {
+            countdownSeed = null;
             if (!task.isCancelled()) {
                 resetWorldAsync(task.getInitiator(), baseWorld, effectiveSeed, dimensions);
                 lastResetAt.put(baseWorld, System.currentTimeMillis());
@@ -157,6 +188,15 @@ public class ResetService {
         }
     }
 
+    /**
+     * Seed for a new overworld: the best scouted seed when the pool has one,
+     * otherwise a random seed.
+     */
+    private long nextSeed() {
+        SeedScout scout = plugin.getSeedScout();
+        return scout != null ? scout.nextSeed(rng) : rng.nextLong();
+    }
+
     private boolean checkLimits(CommandSender sender, String baseWorld) {
         if (!(sender instanceof Player player)) {
             return true;
@@ -205,7 +245,7 @@ public class ResetService {
         Bukkit.getScheduler().runTask(plugin, () -> {
             try {
                 phase = "RUNNING";
-                auditLogger.log(plugin, "Reset started for '" + worldBase + "'");
+                audit(ResetAuditLogger.Event.of("started", worldBase, "Reset started").by(initiator));
                 World fallback = findOrCreateFallbackWorld(worldNames);
                 if (fallback == null) {
                     Messages.send(initiator, "&cFailed to find or create a fallback world; aborting.");
@@ -222,18 +262,22 @@ public class ResetService {
                 for (Player online : Bukkit.getOnlinePlayers())
                     if (worldNames.contains(online.getWorld().getName()))
                         safeTeleport(online, fallback.getSpawnLocation());
-                // Apply fresh-start immediately for affected players (pre-unload) to ensure
-                // visible reset
-                if (plugin.getConfig().getBoolean("players.freshStartOnReset", true)) {
-                    for (UUID id : affectedPlayers) {
-                        Player p = Bukkit.getPlayer(id);
-                        if (p != null && p.isOnline())
-                            applyFreshStartIfEnabled(p);
-                    }
-                }
+                // Apply fresh-start to affected players right away (pre-unload) to ensure
+                // visible reset; batched like the pass after recreation
+                freshStart.process(affectedPlayers, freshStart.snapshot(), p -> {
+                });
 
                 Map<String, Path> worldFolders = resolveWorldFolders(worldNames);
                 Set<String> failedToUnload = unloadWorldsReliably(worldNames, fallback, initiator);
+                for (String name : worldNames) {
+                    if (plugin.getVisitTracker() != null) {
+                        plugin.getVisitTracker().discard(name);
+                    }
+                    if (plugin.getPregenService() != null) {
+                        plugin.getPregenService().cancel(name);
+                    }
+                    idleWorlds.forget(name);
+                }
 
                 // For worlds that couldn't be unloaded (like the default world), use fallback
                 // reset
@@ -275,6 +319,7 @@ public class ResetService {
                 final Set<String> finalFailedToUnload = failedToUnload;
                 plugin.getBackgroundExecutor().submit(() -> {
                     try {
+                        long archiveStart = System.currentTimeMillis();
                         if (backupsEnabled && !unloadedWorldFolders.isEmpty())
                             backupManager.snapshot(worldBase, unloadedWorldFolders);
                         else if (!unloadedWorldFolders.isEmpty()) {
@@ -301,6 +346,13 @@ public class ResetService {
                                 }
                             });
                         }
+                        observePhase(backupsEnabled ? "backup" : "delete", archiveStart);
+                        // Template-backed worlds are restored from disk instead of generated
+                        long templateStart = System.currentTimeMillis();
+                        EnumSet<Dimension> templated = restoreTemplates(initiator, worldBase, dims,
+                                finalFailedToUnload);
+                        if (!templated.isEmpty())
+                            observePhase("templates", templateStart);
                         Bukkit.getScheduler().runTask(plugin, () -> {
                             // Only swap preloaded for worlds that were unloaded, skip fallback-reset ones
                             EnumSet<Dimension> dimsToSwap = EnumSet.noneOf(Dimension.class);
@@ -314,8 +366,10 @@ public class ResetService {
                                     dimsToSwap.add(dim);
                                 }
                             }
-                            if (!dimsToSwap.isEmpty()) {
-                                swapPreloadedIfAny(worldBase, dimsToSwap);
+                            EnumSet<Dimension> generated = EnumSet.copyOf(dimsToSwap);
+                            generated.removeAll(templated);
+                            if (!generated.isEmpty()) {
+                                swapPreloadedIfAny(worldBase, generated, seedOpt);
                             }
                             // Recreate only the worlds that weren't force-reset
                             recreateWorlds(initiator, worldBase, seedOpt, affectedPlayers, dimsToSwap);
@@ -325,8 +379,8 @@ public class ResetService {
                             Messages.send(initiator, "&cUnexpected error while deleting worlds: " + ex.getMessage());
                             resetInProgress = false;
                             phase = "IDLE";
-                            auditLogger.log(plugin, "Reset failed for '" + worldBase + "' (exception during delete): "
-                                    + ex.getMessage());
+                            audit(ResetAuditLogger.Event.of("failed", worldBase,
+                                    "Exception during delete: " + ex.getMessage()).by(initiator));
                         });
                     }
                 });
@@ -334,168 +388,282 @@ public class ResetService {
                 Messages.send(initiator, "&cError during reset: " + ex.getMessage());
                 resetInProgress = false;
                 phase = "IDLE";
-                auditLogger.log(plugin, "Reset failed for '" + worldBase + "' (exception): " + ex.getMessage());
+                audit(ResetAuditLogger.Event.of("failed", worldBase, "Exception: " + ex.getMessage())
+                        .by(initiator));
             }
         });
     }
 
-    private void recreateWorlds(CommandSender initiator, String base, Optional<Long> seedOpt,
-            Set<UUID> previouslyAffected, EnumSet<Dimension> dims) {
-        try {
-            boolean sameSeedForAll = plugin.getConfig().getBoolean("seeds.useSameSeedForAllDimensions", true);
-            long baseSeed = seedOpt.orElseGet(() -> rng.nextLong());
-            World overworld = null;
-            if (dims.contains(Dimension.OVERWORLD)) {
-                overworld = new WorldCreator(base).seed(baseSeed).environment(World.Environment.NORMAL)
-                        .type(WorldType.NORMAL).createWorld();
-                if (overworld == null) {
-                    Messages.send(initiator, "&cFailed to create overworld: " + base);
-                    resetInProgress = false;
-                    phase = "IDLE";
-                    auditLogger.log(plugin, "Reset failed creating overworld for '" + base + "'");
-                    return;
-                }
+    /**
+     * Copies template folders into place for the template-backed dimensions
+     * of {@code base}. Runs on the background executor; a dimension whose
+     * copy fails falls back to normal generation.
+     */
+    private EnumSet<Dimension> restoreTemplates(CommandSender initiator, String base, EnumSet<Dimension> dims,
+            Set<String> failedToUnload) {
+        EnumSet<Dimension> restored = EnumSet.noneOf(Dimension.class);
+        File container = Bukkit.getWorldContainer();
+        for (Dimension dim : dims) {
+            String name = dimensionNames(base, EnumSet.of(dim)).get(0);
+            if (failedToUnload.contains(name))
+                continue;
+            Optional<Path> template = worldTemplates.templateFor(base, dim);
+            if (template.isEmpty())
+                continue;
+            try {
+                WorldTemplates.CopyResult result = worldTemplates.restore(template.get(),
+                        new File(container, name).toPath());
+                restored.add(dim);
+                plugin.getMetrics().counter("betterreset_template_bytes_copied_total",
+                        "Bytes written restoring worlds from templates").add(result.bytes());
+                plugin.getLogger().info("Restored '" + name + "' from template " + template.get().getFileName()
+                        + ": " + result.files() + " files, " + ByteFormat.human(result.bytes()) + " in " + result.millis()
+                        + "ms" + (result.fromCache() ? " (cached)." : "."));
+            } catch (IOException ex) {
+                plugin.getLogger().warning("Template restore failed for '" + name + "': " + ex.getMessage()
+                        + "; generating it instead.");
+                Bukkit.getScheduler().runTask(plugin, () -> Messages.send(initiator,
+                        "&cTemplate restore failed for &e" + name + "&c; generating it instead."));
                 try {
-                    overworld.getChunkAt(overworld.getSpawnLocation()).load(true);
-                } catch (Exception ignored) {
+                    Path partial = new File(container, name).toPath();
+                    if (Files.exists(partial))
+                        deletePath(partial);
+                } catch (IOException ignored) {
                 }
-                multiverseCompat.ensureRegistered(base, World.Environment.NORMAL, baseSeed);
             }
+        }
+        return restored;
+    }
 
-            long netherSeed = sameSeedForAll ? baseSeed : rng.nextLong();
-            if (dims.contains(Dimension.NETHER)) {
-                World nether = new WorldCreator(base + "_nether").seed(netherSeed).environment(World.Environment.NETHER)
-                        .type(WorldType.NORMAL).createWorld();
-                if (nether == null) {
-                    Messages.send(initiator, "&cFailed to create nether: " + base + "_nether");
-                    resetInProgress = false;
-                    phase = "IDLE";
-                    auditLogger.log(plugin, "Reset failed creating nether for '" + base + "'");
-                    return;
-                }
-                try {
-                    nether.getChunkAt(nether.getSpawnLocation()).load(true);
-                } catch (Exception ignored) {
-                }
-                multiverseCompat.ensureRegistered(base + "_nether", World.Environment.NETHER, netherSeed);
-            }
+    private void recreateWorlds(CommandSender initiator, String base, Optional<Long> seedOpt,
+            Set<UUID> previouslyAffected, EnumSet<Dimension> dims) {
+        boolean sameSeedForAll = plugin.getConfig().getBoolean("seeds.useSameSeedForAllDimensions", true);
+        long baseSeed = seedOpt.orElseGet(this::nextSeed);
+        long netherSeed = sameSeedForAll ? baseSeed : rng.nextLong();
+        long endSeed = sameSeedForAll ? baseSeed : rng.nextLong();
 
-            long endSeed = sameSeedForAll ? baseSeed : rng.nextLong();
-            if (dims.contains(Dimension.END)) {
-                World theEnd = new WorldCreator(base + "_the_end").seed(endSeed).environment(World.Environment.THE_END)
-                        .type(WorldType.NORMAL).createWorld();
-                if (theEnd == null) {
-                    Messages.send(initiator, "&cFailed to create the_end: " + base + "_the_end");
-                    resetInProgress = false;
-                    phase = "IDLE";
-                    auditLogger.log(plugin, "Reset failed creating the_end for '" + base + "'");
-                    return;
-                }
-                try {
-                    theEnd.getChunkAt(theEnd.getSpawnLocation()).load(true);
-                } catch (Exception ignored) {
-                }
-                multiverseCompat.ensureRegistered(base + "_the_end", World.Environment.THE_END, endSeed);
+        List<StagedWorldCreator.Stage> stages = new ArrayList<>();
+        if (dims.contains(Dimension.OVERWORLD))
+            stages.add(new StagedWorldCreator.Stage(Dimension.OVERWORLD, base, World.Environment.NORMAL, baseSeed));
+        if (dims.contains(Dimension.NETHER))
+            stages.add(new StagedWorldCreator.Stage(Dimension.NETHER, base + "_nether", World.Environment.NETHER,
+                    netherSeed));
+        if (dims.contains(Dimension.END))
+            stages.add(new StagedWorldCreator.Stage(Dimension.END, base + "_the_end", World.Environment.THE_END,
+                    endSeed));
+
+        // Deferred dimensions are created on first portal use instead
+        for (Iterator<StagedWorldCreator.Stage> it = stages.iterator(); it.hasNext();) {
+            StagedWorldCreator.Stage stage = it.next();
+            if (lazyDimensions.defers(stage.dimension())
+                    && worldTemplates.templateFor(base, stage.dimension()).isEmpty()) {
+                lazyDimensions.markPending(stage);
+                it.remove();
+            } else {
+                lazyDimensions.clearPending(stage.worldName());
             }
+        }
 
-            try {
-                seedHistory.add(baseSeed);
-                if (!sameSeedForAll) {
-                    seedHistory.add(netherSeed);
-                    seedHistory.add(endSeed);
+        StagedWorldCreator creator = new StagedWorldCreator(plugin, multiverseCompat, stages);
+        // Players only need the overworld; nether/end keep loading while they are moved
+        CompletableFuture<World> overworldReady = creator.ready(Dimension.OVERWORLD);
+        CompletableFuture<?> playersReady = overworldReady != null
+                ? overworldReady.thenCompose(overworld -> returnAndFreshStart(initiator, overworld,
+                        previouslyAffected))
+                : creator.all().thenCompose(ignored -> returnAndFreshStart(initiator, null, previouslyAffected));
+
+        long createStart = System.currentTimeMillis();
+        CompletableFuture.allOf(creator.all(), playersReady).whenComplete((ignored, err) -> {
+            if (err != null) {
+                Throwable cause = err instanceof CompletionException && err.getCause() != null
+                        ? err.getCause()
+                        : err;
+                resetInProgress = false;
+                phase = "IDLE";
+                if (cause instanceof StagedWorldCreator.StageFailedException failed) {
+                    StagedWorldCreator.Stage stage = failed.stage();
+                    Messages.send(initiator, "&cFailed to create " + stage.label() + ": " + stage.worldName());
+                    audit(ResetAuditLogger.Event.of("failed", base,
+                            "Reset failed creating " + stage.label() + " for '" + base + "'").by(initiator));
+                } else {
+                    Messages.send(initiator, "&cError recreating worlds: " + cause.getMessage());
+                    audit(ResetAuditLogger.Event.of("failed", base,
+                            "Reset failed (exception during create) for '" + base + "': " + cause.getMessage())
+                            .by(initiator));
                 }
-            } catch (Exception ignored) {
+                return;
             }
-            Messages.send(initiator, "&aRecreated worlds for '&e" + base + "&a' successfully.");
+            observePhase("create", createStart);
+            finishRecreate(initiator, base, dims, sameSeedForAll, baseSeed, netherSeed, endSeed);
+        });
 
-            boolean returnPlayers = plugin.getConfig().getBoolean("players.returnToNewSpawnAfterReset", true);
-            if (returnPlayers && overworld != null) {
-                Location spawn = overworld.getSpawnLocation();
-                // Set world spawn to ensure respawning works correctly
-                try {
-                    overworld.setSpawnLocation(spawn);
-                } catch (Exception ex) {
-                    plugin.getLogger().warning("Failed to set world spawn after reset: " + ex.getMessage());
-                }
+        try {
+            creator.start();
+        } catch (Exception ex) {
+            Messages.send(initiator, "&cError recreating worlds: " + ex.getMessage());
+            resetInProgress = false;
+            phase = "IDLE";
+            audit(ResetAuditLogger.Event.of("failed", base,
+                    "Reset failed (exception during create) for '" + base + "': " + ex.getMessage()).by(initiator));
+        }
+    }
 
-                for (UUID id : previouslyAffected) {
-                    Player p = Bukkit.getPlayer(id);
-                    if (p != null && p.isOnline()) {
-                        safeTeleport(p, spawn);
-                        // Clear bed spawn location so they use world spawn
-                        try {
-                            p.setRespawnLocation(null);
-                        } catch (Exception ex) {
-                            plugin.getLogger().warning(
-                                    "Failed to clear bed spawn for player " + p.getName() + ": " + ex.getMessage());
-                        }
-                    }
-                }
+    /**
+     * Returns previously affected players to the new spawn and applies the
+     * fresh-start settings. Runs once the overworld (if recreated) is ready;
+     * the future completes when every batch has been processed.
+     */
+    private CompletableFuture<FreshStartProcessor.Result> returnAndFreshStart(CommandSender initiator,
+            World overworld, Set<UUID> previouslyAffected) {
+        boolean returnPlayers = plugin.getConfig().getBoolean("players.returnToNewSpawnAfterReset", true);
+        if (returnPlayers && overworld != null) {
+            Location spawn = overworld.getSpawnLocation();
+            // Set world spawn to ensure respawning works correctly
+            try {
+                overworld.setSpawnLocation(spawn);
+            } catch (Exception ex) {
+                plugin.getLogger().warning("Failed to set world spawn after reset: " + ex.getMessage());
             }
 
-            // Apply fresh-start resets to players as configured
-            if (plugin.getConfig().getBoolean("players.freshStartOnReset", true)) {
-                Set<UUID> alreadyReset = new HashSet<>();
-                for (UUID id : previouslyAffected) {
-                    Player p = Bukkit.getPlayer(id);
-                    if (p != null && p.isOnline()) {
-                        applyFreshStartIfEnabled(p);
-                        alreadyReset.add(id);
-                        try {
-                            showShortTitle(p, "Fresh start applied");
-                            p.sendActionBar(net.kyori.adventure.text.Component.text("Done"));
-                        } catch (Throwable ignored) {
-                        }
-                    }
-                }
-                if (plugin.getConfig().getBoolean("players.resetAllOnlineAfterReset", true)) {
-                    for (Player online : Bukkit.getOnlinePlayers()) {
-                        if (!alreadyReset.contains(online.getUniqueId())) {
-                            applyFreshStartIfEnabled(online);
-                            try {
-                                showShortTitle(online, "Fresh start applied");
-                                online.sendActionBar(net.kyori.adventure.text.Component.text("Done"));
-                            } catch (Throwable ignored) {
-                            }
-                        }
+            for (UUID id : previouslyAffected) {
+                Player p = Bukkit.getPlayer(id);
+                if (p != null && p.isOnline()) {
+                    safeTeleport(p, spawn);
+                    // Clear bed spawn location so they use world spawn
+                    try {
+                        p.setRespawnLocation(null);
+                    } catch (Exception ex) {
+                        plugin.getLogger().warning(
+                                "Failed to clear bed spawn for player " + p.getName() + ": " + ex.getMessage());
                     }
                 }
             }
+        }
 
-            Messages.send(initiator, "&aRecreated worlds for '&e" + base + "&a' successfully.");
-            for (Player online : Bukkit.getOnlinePlayers()) {
-                if (online.equals(initiator))
-                    continue;
-                if (online.hasPermission("betterreset.notify"))
-                    Messages.send(online, "&a[BetterReset]&7 World '&e" + base + "&7' has been reset.");
+        return freshStartPlayers(initiator, previouslyAffected);
+    }
+
+    /**
+     * Applies fresh-start to {@code first} and, if configured, everyone else
+     * online, affected players first and in per-tick batches. Completes on
+     * the main thread once every batch has run.
+     */
+    private CompletableFuture<FreshStartProcessor.Result> freshStartPlayers(CommandSender initiator,
+            Set<UUID> first) {
+        FreshStartProcessor.Settings settings = freshStart.snapshot();
+        Set<UUID> targets = new LinkedHashSet<>(first);
+        if (plugin.getConfig().getBoolean("players.resetAllOnlineAfterReset", true))
+            for (Player online : Bukkit.getOnlinePlayers())
+                targets.add(online.getUniqueId());
+        return freshStart.process(targets, settings, p -> {
+            showShortTitle(p, "Fresh start applied");
+            p.sendActionBar(net.kyori.adventure.text.Component.text("Done"));
+        }).thenApply(result -> {
+            if (settings.enabled()) {
+                Messages.send(initiator, "&7Fresh start applied to &e" + result.processed() + "&7 player(s)"
+                        + (result.skipped() > 0 ? ", &e" + result.skipped() + "&7 skipped" : "") + ".");
+                plugin.getLogger().info("Fresh start: " + result.processed() + " processed, " + result.skipped()
+                        + " skipped over " + result.ticks() + " tick(s).");
             }
+            return result;
+        });
+    }
 
-            // Reset offline players if enabled
-            if (plugin.getConfig().getBoolean("players.resetOfflinePlayers", false)) {
-                offlinePlayerResetUtil.resetOfflinePlayers(base).thenAccept(count -> {
-                    if (count > 0) {
-                        Bukkit.getScheduler().runTask(plugin, () -> {
-                            Messages.send(initiator, "&7Reset &e" + count + "&7 offline players' data.");
-                            auditLogger.log(plugin, "Reset " + count + " offline players for '" + base + "'");
-                        });
-                    }
-                });
+    private void finishRecreate(CommandSender initiator, String base, EnumSet<Dimension> dims,
+            boolean sameSeedForAll, long baseSeed, long netherSeed, long endSeed) {
+        try {
+            seedHistory.add(baseSeed);
+            if (!sameSeedForAll) {
+                seedHistory.add(netherSeed);
+                seedHistory.add(endSeed);
             }
+        } catch (Exception ignored) {
+        }
 
-            totalResets++;
-            lastResetTimestamp.put(base, System.currentTimeMillis());
-            auditLogger.log(plugin, "Reset completed for '" + base + "'");
-            resetInProgress = false;
-            phase = "IDLE";
-            try {
-                plugin.getRespawnManager().markReset(base);
-            } catch (Exception ignored) {
+        Messages.send(initiator, "&aRecreated worlds for '&e" + base + "&a' successfully.");
+        for (Player online : Bukkit.getOnlinePlayers()) {
+            if (online.equals(initiator))
+                continue;
+            if (online.hasPermission("betterreset.notify"))
+                Messages.send(online, "&a[BetterReset]&7 World '&e" + base + "&7' has been reset.");
+        }
+
+        // Reset offline players if enabled
+        if (plugin.getConfig().getBoolean("players.resetOfflinePlayers", false))
+            resetOfflinePlayers(initiator, base);
+
+        totalResets++;
+        lastResetTimestamp.put(base, System.currentTimeMillis());
+        Long startedAt = lastResetAt.get(base);
+        if (startedAt != null)
+            plugin.getMetrics().histogram("betterreset_reset_duration_seconds",
+                    "Time from the end of the countdown to a completed reset", MetricsRegistry.DURATION_BUCKETS)
+                    .observeMillis(System.currentTimeMillis() - startedAt);
+        audit(ResetAuditLogger.Event.of("completed", base, "Reset completed").by(initiator)
+                .millis(startedAt != null ? System.currentTimeMillis() - startedAt : -1L));
+        resetInProgress = false;
+        phase = "IDLE";
+        try {
+            plugin.getRespawnManager().markReset(base);
+        } catch (Exception ignored) {
+        }
+        for (String name : dimensionNames(base, dims)) {
+            World created = Bukkit.getWorld(name);
+            if (created != null)
+                idleWorlds.manage(created);
+        }
+        if (plugin.getPregenService() != null) {
+            plugin.getPregenService().startAfterReset(base, dims);
+        }
+    }
+
+    /**
+     * Resets offline players' data using {@code players.offlineReset.mode}.
+     * Every mode advances the base's epoch, recording whether offline players
+     * were handled here or still need the lazy check on login.
+     */
+    private void resetOfflinePlayers(CommandSender initiator, String base) {
+        List<UUID> online = new ArrayList<>();
+        for (Player p : Bukkit.getOnlinePlayers())
+            online.add(p.getUniqueId());
+
+        String mode = plugin.getConfig().getString("players.offlineReset.mode", "eager").toLowerCase(Locale.ROOT);
+        offlineEpochs.advance(base, online, switch (mode) {
+            case "lazy" -> OfflineResetEpochs.Handling.LAZY;
+            case "selective" -> OfflineResetEpochs.Handling.SELECTIVE;
+            default -> OfflineResetEpochs.Handling.FULL;
+        });
+        switch (mode) {
+            case "lazy" -> Messages.send(initiator, "&7Offline players will be reset when they next join.");
+            case "swap" -> {
+                try {
+                    int kept = offlinePlayerResetUtil.swapReset(base, online);
+                    Messages.send(initiator, "&7Offline player data moved aside (&e" + kept
+                            + "&7 online players kept).");
+                    audit(ResetAuditLogger.Event.of("offline", base,
+                            "Swapped out offline player data; kept " + kept).by(initiator));
+                } catch (IOException ex) {
+                    Messages.send(initiator, "&cOffline player swap failed: " + ex.getMessage());
+                    plugin.getLogger().warning("Offline player swap failed for '" + base + "': " + ex.getMessage());
+                }
             }
-        } catch (Exception ex) {
-            Messages.send(initiator, "&cError recreating worlds: " + ex.getMessage());
-            resetInProgress = false;
-            phase = "IDLE";
-            auditLogger.log(plugin, "Reset failed (exception during create) for '" + base + "': " + ex.getMessage());
+            default -> offlinePlayerResetUtil.resetOfflinePlayers(base, mode.equals("selective"), progress -> {
+                if (progress.done() < progress.total())
+                    Bukkit.getScheduler().runTask(plugin, () -> Messages.send(initiator, "&7Offline reset: &e"
+                            + (progress.done() * 100L / progress.total()) + "%"));
+            }).thenAccept(summary -> {
+                if (summary.players() > 0 || summary.failed() > 0) {
+                    Bukkit.getScheduler().runTask(plugin, () -> {
+                        Messages.send(initiator, "&7Reset &e" + summary.players() + "&7 offline players' data"
+                                + (summary.failed() > 0 ? " (&c" + summary.failed() + " files failed&7)" : "") + ".");
+                        plugin.getMetrics().counter("betterreset_offline_players_reset_total",
+                                "Offline players whose data was reset eagerly").add(summary.players());
+                        audit(ResetAuditLogger.Event.of("offline", base,
+                                "Reset " + summary.players() + " offline players").by(initiator)
+                                .millis(summary.millis()));
+                    });
+                }
+            });
         }
     }
 
@@ -547,9 +715,15 @@ public class ResetService {
         if (canceled) {
             resetInProgress = false;
             phase = "IDLE";
-            auditLogger.log(plugin, "Countdown canceled for '" + currentTarget + "'");
+            audit(ResetAuditLogger.Event.of("canceled", currentTarget, "Countdown canceled"));
+            preloadManager.discard(currentTarget);
             currentTarget = null;
+            SeedScout scout = plugin.getSeedScout();
+            if (countdownSeed != null && scout != null) {
+                scout.release(countdownSeed);
+            }
         }
+        countdownSeed = null;
         return canceled;
     }
 
@@ -566,6 +740,49 @@ public class ResetService {
         return backupManager.listBackups();
     }
 
+    public boolean isResetInProgress() {
+        return resetInProgress;
+    }
+
+    public TrimDaemon getTrimDaemon() {
+        return trimDaemon;
+    }
+
+    public LazyDimensionManager getLazyDimensions() {
+        return lazyDimensions;
+    }
+
+    public IdleWorldManager getIdleWorlds() {
+        return idleWorlds;
+    }
+
+    /**
+     * Writes {@code event} to the audit log and counts it by phase.
+     */
+    private void audit(ResetAuditLogger.Event event) {
+        auditLogger.log(event);
+        plugin.getMetrics().counter("betterreset_reset_events_total", "Audited reset events by phase", "phase",
+                event.phase()).inc();
+    }
+
+    private void observePhase(String phaseName, long startedAt) {
+        plugin.getMetrics().histogram("betterreset_reset_phase_seconds", "Duration of reset phases",
+                MetricsRegistry.DURATION_BUCKETS, "phase", phaseName)
+                .observeMillis(System.currentTimeMillis() - startedAt);
+    }
+
+    public ResetAuditLogger getAuditLogger() {
+        return auditLogger;
+    }
+
+    public OfflineResetEpochs getOfflineEpochs() {
+        return offlineEpochs;
+    }
+
+    public List<String> templateCacheStatusLines() {
+        return worldTemplates.cacheStatusLines();
+    }
+
     public long getTotalResets() {
         return totalResets;
     }
@@ -575,8 +792,17 @@ public class ResetService {
     }
 
     public void trimChunksAsync(CommandSender initiator, String baseWorld, EnumSet<Dimension> dims) {
-        if (resetInProgress) {
-            Messages.send(initiator, "&cA reset/trim operation is already in progress. Please wait.");
+        planTrimAsync(initiator, baseWorld, dims, plan -> executeTrimPlanAsync(initiator, plan));
+    }
+
+    /**
+     * Evaluates the active chunk-trim rules without deleting anything. The
+     * resulting plan is cached per base so {@link #executeTrimPlanAsync} can
+     * run exactly that plan later; {@code onPlanned} runs on the main thread.
+     */
+    public void planTrimAsync(CommandSender initiator, String baseWorld, EnumSet<Dimension> dims,
+            Consumer<TrimPlan> onPlanned) {
+        if (!checkTrimAllowed(initiator)) {
             return;
         }
         if (dims == null || dims.isEmpty()) {
@@ -584,36 +810,113 @@ public class ResetService {
             return;
         }
 
-        boolean trimEnabled = plugin.getConfig().getBoolean("chunkReset.enabled", false);
-        if (!trimEnabled) {
-            Messages.send(initiator,
-                    "&cChunk reset is disabled in config (&echunkReset.enabled: false&c). Enable it first.");
-            return;
+        final List<String> worldNames = dimensionNames(baseWorld, dims);
+        final EnumSet<Dimension> planDims = EnumSet.copyOf(dims);
+
+        // Offline respawn points are read once per plan, before the protected regions are collected
+        CompletableFuture<Void> respawnsRead = BuiltinRegionProviders.respawnPointsEnabled(plugin)
+                ? offlineRespawns.refresh()
+                : CompletableFuture.completedFuture(null);
+        respawnsRead.thenRun(() -> Bukkit.getScheduler().runTask(plugin, () -> {
+            final RegionTrimmer.Rules rules = RegionTrimmer.Rules.fromConfig(plugin.getConfig());
+            final Map<String, Path> regionFolders = new LinkedHashMap<>();
+            final Map<String, ProtectedRegionIndex> protectedByWorld = new HashMap<>();
+            final Map<String, RegionVisitTracker.Snapshot> visitsByWorld = new HashMap<>();
+            for (String worldName : worldNames) {
+                World world = Bukkit.getWorld(worldName);
+                if (world == null) {
+                    continue;
+                }
+                protectedByWorld.put(worldName, buildProtectedIndex(world));
+                RegionVisitTracker.Snapshot visits = visitSnapshot(world, rules);
+                if (visits != null) {
+                    visitsByWorld.put(worldName, visits);
+                }
+                regionFolders.put(worldName, world.getWorldFolder().toPath().resolve("region"));
+            }
+
+            if (regionFolders.isEmpty()) {
+                Messages.send(initiator, "&cNo matching loaded worlds found for base '&e" + baseWorld + "&c'.");
+                return;
+            }
+
+            Messages.send(initiator, "&7Planning chunk trim for '&e" + baseWorld + "&7'...");
+            plugin.getBackgroundExecutor().submit(() -> {
+                try {
+                    TrimPlan plan = regionTrimmer.plan(baseWorld, planDims, regionFolders, protectedByWorld,
+                            visitsByWorld, rules);
+                    trimPlans.put(baseWorld.toLowerCase(Locale.ROOT), plan);
+                    Bukkit.getScheduler().runTask(plugin, () -> onPlanned.accept(plan));
+                } catch (Exception ex) {
+                    Bukkit.getScheduler().runTask(plugin,
+                            () -> Messages.send(initiator, "&cChunk trim planning failed: " + ex.getMessage()));
+                }
+            });
+        }));
+    }
+
+    /**
+     * Returns the cached trim plan for {@code base} if it has not expired.
+     */
+    public Optional<TrimPlan> getTrimPlan(String base) {
+        TrimPlan plan = trimPlans.get(base.toLowerCase(Locale.ROOT));
+        if (plan == null) {
+            return Optional.empty();
         }
+        long ttlSeconds = Math.max(1L, plugin.getConfig().getLong("chunkReset.plan.ttlSeconds", 600L));
+        if (plan.isExpired(ttlSeconds * 1000L)) {
+            trimPlans.remove(base.toLowerCase(Locale.ROOT), plan);
+            return Optional.empty();
+        }
+        return Optional.of(plan);
+    }
 
-        boolean inactiveEnabled = plugin.getConfig().getBoolean("chunkReset.inactive.enabled", true);
-        boolean endDistanceEnabled = plugin.getConfig().getBoolean("chunkReset.endDistance.enabled", true);
-        if (!inactiveEnabled && !endDistanceEnabled) {
-            Messages.send(initiator, "&cNo chunk-reset rules are enabled. Enable inactive and/or end-distance rules.");
+    public void executeTrimPlanAsync(CommandSender initiator, String base) {
+        Optional<TrimPlan> plan = getTrimPlan(base);
+        if (plan.isEmpty()) {
+            Messages.send(initiator, "&cNo current trim plan for '&e" + base + "&c'. Plan one first with &e/"
+                    + "betterreset trimplan " + base + "&c.");
             return;
         }
+        executeTrimPlanAsync(initiator, plan.get());
+    }
 
-        final List<String> worldNames = dimensionNames(baseWorld, dims);
-        final Map<String, Set<Long>> loadedRegionKeysByWorld = new HashMap<>();
-        final Map<String, Path> regionFolders = new HashMap<>();
+    /**
+     * Deletes exactly the regions selected by {@code plan}. Protection is
+     * re-collected first so regions that became active since planning survive.
+     */
+    public void executeTrimPlanAsync(CommandSender initiator, TrimPlan plan) {
+        if (!checkTrimAllowed(initiator)) {
+            return;
+        }
+        final String baseWorld = plan.getBase();
 
         Bukkit.getScheduler().runTask(plugin, () -> {
-            for (String worldName : worldNames) {
-                World world = Bukkit.getWorld(worldName);
+            if (resetInProgress) {
+                Messages.send(initiator, "&cA reset/trim operation is already in progress. Please wait.");
+                return;
+            }
+            trimPlans.remove(baseWorld.toLowerCase(Locale.ROOT), plan);
+
+            final Map<String, ProtectedRegionIndex> protectedNow = new HashMap<>();
+            final Map<String, RegionVisitTracker.Snapshot> visitsNow = new HashMap<>();
+            final Map<String, Path> snapshotFolders = new HashMap<>();
+            RegionVisitTracker tracker = plugin.getVisitTracker();
+            for (TrimPlan.WorldPlan worldPlan : plan.getWorlds()) {
+                World world = Bukkit.getWorld(worldPlan.worldName());
                 if (world == null) {
                     continue;
                 }
-                loadedRegionKeysByWorld.put(worldName, loadedRegionKeys(world));
-                Path regionFolder = world.getWorldFolder().toPath().resolve("region");
-                regionFolders.put(worldName, regionFolder);
+                protectedNow.put(worldPlan.worldName(), buildProtectedIndex(world));
+                RegionVisitTracker.Snapshot visits = worldPlan.visitData() && tracker != null
+                        ? tracker.snapshot(world)
+                        : null;
+                if (visits != null) {
+                    visitsNow.put(worldPlan.worldName(), visits);
+                }
+                snapshotFolders.put(worldPlan.worldName(), world.getWorldFolder().toPath());
             }
-
-            if (regionFolders.isEmpty()) {
+            if (protectedNow.isEmpty()) {
                 Messages.send(initiator, "&cNo matching loaded worlds found for base '&e" + baseWorld + "&c'.");
                 return;
             }
@@ -628,38 +931,32 @@ public class ResetService {
 
             plugin.getBackgroundExecutor().submit(() -> {
                 try {
-                    if (backupBeforeTrim) {
-                        Map<String, Path> snapshotFolders = new HashMap<>();
-                        for (String worldName : regionFolders.keySet()) {
-                            World world = Bukkit.getWorld(worldName);
-                            if (world != null) {
-                                snapshotFolders.put(worldName, world.getWorldFolder().toPath());
-                            }
-                        }
-                        if (!snapshotFolders.isEmpty()) {
-                            backupManager.snapshot(baseWorld, snapshotFolders);
-                        }
+                    if (backupBeforeTrim && !snapshotFolders.isEmpty()) {
+                        backupManager.snapshot(baseWorld, snapshotFolders);
                     }
 
-                    List<ChunkTrimResult> results = new ArrayList<>();
+                    List<ChunkTrimResult> results = regionTrimmer.execute(plan, protectedNow, visitsNow);
                     int deletedTotal = 0;
                     int scannedTotal = 0;
-
-                    for (String worldName : regionFolders.keySet()) {
-                        Path regionFolder = regionFolders.get(worldName);
-                        Set<Long> loaded = loadedRegionKeysByWorld.getOrDefault(worldName, Collections.emptySet());
-                        ChunkTrimResult result = trimWorldRegionFolder(worldName, regionFolder, loaded);
-                        results.add(result);
+                    long bytesTotal = 0L;
+                    for (ChunkTrimResult result : results) {
                         deletedTotal += result.deleted();
                         scannedTotal += result.scanned();
+                        bytesTotal += result.bytesDeleted();
                     }
 
                     final int deletedCount = deletedTotal;
                     final int scannedCount = scannedTotal;
+                    final long bytesCount = bytesTotal;
+                    plugin.getMetrics().counter("betterreset_trim_regions_deleted_total",
+                            "Region files deleted by chunk trims").add(deletedCount);
+                    plugin.getMetrics().counter("betterreset_trim_bytes_deleted_total",
+                            "Bytes freed by chunk trims").add(bytesCount);
                     Bukkit.getScheduler().runTask(plugin, () -> {
                         if (deletedCount > 0) {
                             Messages.send(initiator, "&aChunk trim complete. Deleted &e" + deletedCount
-                                    + "&a region files (&e" + scannedCount + "&a scanned).");
+                                    + "&a region files (&e" + scannedCount + "&a scanned, &e"
+                                    + ByteFormat.human(bytesCount) + "&a freed).");
                         } else {
                             Messages.send(initiator,
                                     "&7Chunk trim complete. No region files matched the active rules.");
@@ -667,14 +964,15 @@ public class ResetService {
                         for (ChunkTrimResult result : results) {
                             Messages.send(initiator,
                                     "&7- &e" + result.worldName() + "&7: deleted &e" + result.deleted()
-                                            + "&7 / scanned &e" + result.scanned() + "&7 (loaded-protected: &e"
-                                            + result.skippedLoaded() + "&7, rule-skip: &e" + result.skippedRules()
-                                            + "&7)");
+                                            + "&7 / scanned &e" + result.scanned() + "&7 (protected: &e"
+                                            + result.skippedProtected() + "&7, rule-skip: &e" + result.skippedRules()
+                                            + "&7, entities/poi: &e" + result.companionsDeleted() + "&7, freed: &e"
+                                            + ByteFormat.human(result.bytesDeleted()) + "&7)");
                         }
                         totalResets++;
                         lastResetTimestamp.put(baseWorld, System.currentTimeMillis());
-                        auditLogger.log(plugin,
-                                "Chunk trim completed for '" + baseWorld + "'; deleted " + deletedCount + " regions.");
+                        audit(ResetAuditLogger.Event.of("trim", baseWorld,
+                                "Chunk trim deleted " + deletedCount + " regions").by(initiator).bytes(bytesCount));
                         resetInProgress = false;
                         currentTarget = null;
                         phase = "IDLE";
@@ -682,8 +980,8 @@ public class ResetService {
                 } catch (Exception ex) {
                     Bukkit.getScheduler().runTask(plugin, () -> {
                         Messages.send(initiator, "&cChunk trim failed: " + ex.getMessage());
-                        auditLogger.log(plugin,
-                                "Chunk trim failed for '" + baseWorld + "' (exception): " + ex.getMessage());
+                        audit(ResetAuditLogger.Event.of("failed", baseWorld,
+                                "Chunk trim exception: " + ex.getMessage()).by(initiator));
                         resetInProgress = false;
                         currentTarget = null;
                         phase = "IDLE";
@@ -693,87 +991,76 @@ public class ResetService {
         });
     }
 
-    private ChunkTrimResult trimWorldRegionFolder(String worldName, Path regionFolder, Set<Long> loadedRegionKeys)
-            throws IOException {
-        if (regionFolder == null || !Files.isDirectory(regionFolder)) {
-            return new ChunkTrimResult(worldName, 0, 0, 0, 0);
+    private boolean checkTrimAllowed(CommandSender initiator) {
+        if (resetInProgress) {
+            Messages.send(initiator, "&cA reset/trim operation is already in progress. Please wait.");
+            return false;
+        }
+        if (!plugin.getConfig().getBoolean("chunkReset.enabled", false)) {
+            Messages.send(initiator,
+                    "&cChunk reset is disabled in config (&echunkReset.enabled: false&c). Enable it first.");
+            return false;
         }
-
-        int scanned = 0;
-        int deleted = 0;
-        int skippedLoaded = 0;
-        int skippedRules = 0;
-
         boolean inactiveEnabled = plugin.getConfig().getBoolean("chunkReset.inactive.enabled", true);
-        long inactiveDays = Math.max(1L, plugin.getConfig().getLong("chunkReset.inactive.days", 30L));
-        long cutoffMillis = System.currentTimeMillis() - Duration.ofDays(inactiveDays).toMillis();
-
         boolean endDistanceEnabled = plugin.getConfig().getBoolean("chunkReset.endDistance.enabled", true);
-        int minDistanceBlocks = Math.max(0,
-                plugin.getConfig().getInt("chunkReset.endDistance.minDistanceBlocks", 5000));
-        boolean isEndWorld = worldName.endsWith("_the_end");
-
-        try (DirectoryStream<Path> stream = Files.newDirectoryStream(regionFolder, "*.mca")) {
-            for (Path file : stream) {
-                scanned++;
-                String name = file.getFileName().toString();
-                Matcher matcher = REGION_FILE_PATTERN.matcher(name);
-                if (!matcher.matches()) {
-                    skippedRules++;
-                    continue;
-                }
+        if (!inactiveEnabled && !endDistanceEnabled) {
+            Messages.send(initiator, "&cNo chunk-reset rules are enabled. Enable inactive and/or end-distance rules.");
+            return false;
+        }
+        return true;
+    }
 
-                int rx = Integer.parseInt(matcher.group(1));
-                int rz = Integer.parseInt(matcher.group(2));
-                long key = regionKey(rx, rz);
-                if (loadedRegionKeys.contains(key)) {
-                    skippedLoaded++;
-                    continue;
-                }
+    /**
+     * Registers an additional source of regions that chunk trimming must keep.
+     * Providers registered through Bukkit's services manager are picked up
+     * automatically and do not need to call this.
+     */
+    public void registerProtectedRegionProvider(ProtectedRegionProvider provider) {
+        protectedRegionProviders.add(provider);
+    }
 
-                boolean deleteByInactive = false;
-                if (inactiveEnabled) {
-                    long lastModified = Files.getLastModifiedTime(file).toMillis();
-                    deleteByInactive = lastModified < cutoffMillis;
-                }
+    public void unregisterProtectedRegionProvider(ProtectedRegionProvider provider) {
+        protectedRegionProviders.remove(provider);
+    }
 
-                boolean deleteByEndDistance = false;
-                if (endDistanceEnabled && isEndWorld) {
-                    deleteByEndDistance = isRegionOutsideDistance(rx, rz, minDistanceBlocks);
-                }
+    /**
+     * Collects the protected regions of {@code world}; must run on the main thread.
+     */
+    OfflineRespawnPoints getOfflineRespawns() {
+        return offlineRespawns;
+    }
 
-                if (!deleteByInactive && !deleteByEndDistance) {
-                    skippedRules++;
-                    continue;
-                }
+    ProtectedRegionIndex buildProtectedIndex(World world) {
+        return ProtectedRegionIndex.build(world, protectedRegionProviders(), plugin.getLogger());
+    }
 
-                try {
-                    Files.deleteIfExists(file);
-                    deleted++;
-                } catch (IOException ex) {
-                    plugin.getLogger().warning("Failed to delete region file '" + file + "': " + ex.getMessage());
-                }
-            }
+    /**
+     * Visit data for {@code world} when it covers the whole inactivity window,
+     * otherwise null so the trim falls back to file modification times. Must
+     * run on the main thread.
+     */
+    RegionVisitTracker.Snapshot visitSnapshot(World world, RegionTrimmer.Rules rules) {
+        if (!plugin.getConfig().getBoolean("chunkReset.inactive.useVisitData", true)) {
+            return null;
         }
-
-        return new ChunkTrimResult(worldName, scanned, deleted, skippedLoaded, skippedRules);
+        RegionVisitTracker tracker = plugin.getVisitTracker();
+        RegionVisitTracker.Snapshot snapshot = tracker != null ? tracker.snapshot(world) : null;
+        return snapshot != null && snapshot.trackedSinceMillis() <= rules.cutoffMillis() ? snapshot : null;
     }
 
-    private Set<Long> loadedRegionKeys(World world) {
-        Set<Long> keys = new HashSet<>();
-        for (org.bukkit.Chunk chunk : world.getLoadedChunks()) {
-            int rx = Math.floorDiv(chunk.getX(), 32);
-            int rz = Math.floorDiv(chunk.getZ(), 32);
-            keys.add(regionKey(rx, rz));
-        }
-        return keys;
+    private List<ProtectedRegionProvider> protectedRegionProviders() {
+        List<ProtectedRegionProvider> providers = new ArrayList<>(protectedRegionProviders);
+        for (RegisteredServiceProvider<ProtectedRegionProvider> reg : Bukkit.getServicesManager()
+                .getRegistrations(ProtectedRegionProvider.class))
+            providers.add(reg.getProvider());
+        return providers;
     }
 
-    private static long regionKey(int rx, int rz) {
+    static long regionKey(int rx, int rz) {
         return ((long) rx << 32) ^ (rz & 0xffffffffL);
     }
 
-    private static boolean isRegionOutsideDistance(int rx, int rz, int minDistanceBlocks) {
+    static boolean isRegionOutsideDistance(int rx, int rz, int minDistanceBlocks) {
         if (minDistanceBlocks <= 0) {
             return true;
         }
@@ -834,14 +1121,9 @@ public class ResetService {
                     Bukkit.unloadWorld(w, true);
                 }
             }
-            // Apply fresh-start immediately to affected players prior to restore
-            if (plugin.getConfig().getBoolean("players.freshStartOnReset", true)) {
-                for (UUID id : affected) {
-                    Player p = Bukkit.getPlayer(id);
-                    if (p != null && p.isOnline())
-                        applyFreshStartIfEnabled(p);
-                }
-            }
+            // Apply fresh-start to affected players prior to restore
+            freshStart.process(affected, freshStart.snapshot(), p -> {
+            });
             CompletableFuture.runAsync(() -> {
                 try {
                     backupManager.restore(base, timestamp);
@@ -867,40 +1149,16 @@ public class ResetService {
                                     safeTeleport(p, spawn);
                             }
                         }
-                        if (plugin.getConfig().getBoolean("players.freshStartOnReset", true)) {
-                            Set<UUID> already = new HashSet<>();
-                            for (UUID id : affected) {
-                                Player p = Bukkit.getPlayer(id);
-                                if (p != null && p.isOnline()) {
-                                    applyFreshStartIfEnabled(p);
-                                    already.add(id);
-                                    try {
-                                        showShortTitle(p, "Fresh start applied");
-                                        p.sendActionBar(net.kyori.adventure.text.Component.text("Done"));
-                                    } catch (Throwable ignored) {
-                                    }
-                                }
-                            }
-                            if (plugin.getConfig().getBoolean("players.resetAllOnlineAfterReset", true)) {
-                                for (Player op : Bukkit.getOnlinePlayers())
-                                    if (!already.contains(op.getUniqueId())) {
-                                        applyFreshStartIfEnabled(op);
-                                        try {
-                                            showShortTitle(op, "Fresh start applied");
-                                            op.sendActionBar(net.kyori.adventure.text.Component.text("Done"));
-                                        } catch (Throwable ignored) {
-                                        }
-                                    }
+                        freshStartPlayers(initiator, affected).whenComplete((result, err) -> {
+                            Messages.send(initiator, "&aRestored backup '&e" + base + " @ " + timestamp + "&a'.");
+                            if (initiator instanceof Player ip) {
+                                World w = Bukkit.getWorld(base);
+                                if (w != null)
+                                    safeTeleport(ip, w.getSpawnLocation());
                             }
-                        }
-                        Messages.send(initiator, "&aRestored backup '&e" + base + " @ " + timestamp + "&a'.");
-                        if (initiator instanceof Player ip) {
-                            World w = Bukkit.getWorld(base);
-                            if (w != null)
-                                safeTeleport(ip, w.getSpawnLocation());
-                        }
-                        resetInProgress = false;
-                        phase = "IDLE";
+                            resetInProgress = false;
+                            phase = "IDLE";
+                        });
                     });
                 } catch (Exception ex) {
                     Bukkit.getScheduler().runTask(plugin, () -> {
@@ -974,41 +1232,17 @@ public class ResetService {
                                     safeTeleport(p, spawn);
                             }
                         }
-                        if (plugin.getConfig().getBoolean("players.freshStartOnReset", true)) {
-                            Set<UUID> already = new HashSet<>();
-                            for (UUID id : affected) {
-                                Player p = Bukkit.getPlayer(id);
-                                if (p != null && p.isOnline()) {
-                                    applyFreshStartIfEnabled(p);
-                                    already.add(id);
-                                    try {
-                                        showShortTitle(p, "Fresh start applied");
-                                        p.sendActionBar(net.kyori.adventure.text.Component.text("Done"));
-                                    } catch (Throwable ignored) {
-                                    }
-                                }
-                            }
-                            if (plugin.getConfig().getBoolean("players.resetAllOnlineAfterReset", true)) {
-                                for (Player op : Bukkit.getOnlinePlayers())
-                                    if (!already.contains(op.getUniqueId())) {
-                                        applyFreshStartIfEnabled(op);
-                                        try {
-                                            showShortTitle(op, "Fresh start applied");
-                                            op.sendActionBar(net.kyori.adventure.text.Component.text("Done"));
-                                        } catch (Throwable ignored) {
-                                        }
-                                    }
+                        freshStartPlayers(initiator, affected).whenComplete((result, err) -> {
+                            Messages.send(initiator,
+                                    "&aRestored backup '&e" + base + " @ " + timestamp + "&a' for " + dims + ".");
+                            if (initiator instanceof Player ip) {
+                                World w = Bukkit.getWorld(base);
+                                if (w != null)
+                                    safeTeleport(ip, w.getSpawnLocation());
                             }
-                        }
-                        Messages.send(initiator,
-                                "&aRestored backup '&e" + base + " @ " + timestamp + "&a' for " + dims + ".");
-                        if (initiator instanceof Player ip) {
-                            World w = Bukkit.getWorld(base);
-                            if (w != null)
-                                safeTeleport(ip, w.getSpawnLocation());
-                        }
-                        resetInProgress = false;
-                        phase = "IDLE";
+                            resetInProgress = false;
+                            phase = "IDLE";
+                        });
                     });
                 } catch (Exception ex) {
                     Bukkit.getScheduler().runTask(plugin, () -> {
@@ -1103,7 +1337,7 @@ public class ResetService {
     public void testResetAsync(CommandSender initiator, String base, Optional<Long> seedOpt, EnumSet<Dimension> dims,
             boolean dryRun) {
         String testBase = ("brtest_" + base + "_" + System.currentTimeMillis());
-        long seed = seedOpt.orElseGet(() -> rng.nextLong());
+        long seed = seedOpt.orElseGet(this::nextSeed);
         Messages.send(initiator, "&7Starting test reset for '&e" + base + "&7' → temp '&e" + testBase + "&7'.");
         long t0 = System.nanoTime();
         Bukkit.getScheduler().runTask(plugin, () -> {
@@ -1173,89 +1407,29 @@ public class ResetService {
         }
     }
 
-    private void applyFreshStartIfEnabled(Player p) {
-        if (!plugin.getConfig().getBoolean("players.freshStartOnReset", true))
-            return;
-        try {
-            // Clear inventory and ender chest
-            p.getInventory().clear();
-            p.getEnderChest().clear();
-
-            // Reset health and status effects
-            p.setFireTicks(0);
-            double maxHealth = 20.0;
-            try {
-                // Try new attribute name first (1.21.3+): MAX_HEALTH
-                org.bukkit.attribute.Attribute maxHealthAttr = null;
-                try {
-                    maxHealthAttr = org.bukkit.attribute.Attribute.valueOf("MAX_HEALTH");
-                } catch (IllegalArgumentException e1) {
-                    // Fall back to old name (pre-1.21.3): GENERIC_MAX_HEALTH
-                    try {
-                        maxHealthAttr = org.bukkit.attribute.Attribute.valueOf("GENERIC_MAX_HEALTH");
-                    } catch (IllegalArgumentException e2) {
-                        // Neither exists, use default
-                    }
-                }
-                if (maxHealthAttr != null) {
-                    var attr = p.getAttribute(maxHealthAttr);
-                    if (attr != null) {
-                        maxHealth = attr.getValue();
-                    }
-                }
-            } catch (Exception e) {
-                // Fall back to default max health
-            }
-            p.setHealth(Math.min(maxHealth, 20.0));
-
-            // Reset hunger and saturation
-            p.setFoodLevel(20);
-            p.setSaturation(5f);
-            p.setExhaustion(0f);
-
-            // Reset XP more thoroughly
-            try {
-                p.setLevel(0);
-                p.setExp(0f);
-                p.setTotalExperience(0);
-            } catch (Exception xpEx) {
-                // Log XP reset failure for debugging
-                plugin.getLogger().warning("Failed to reset XP for player " + p.getName() + ": " + xpEx.getMessage());
-            }
-
-            // Reset other player state
-            p.setFallDistance(0f);
-            p.setRemainingAir(p.getMaximumAir());
-
-            // Clear potion effects
-            try {
-                p.getActivePotionEffects().forEach(effect -> p.removePotionEffect(effect.getType()));
-            } catch (Exception effectEx) {
-                plugin.getLogger().warning(
-                        "Failed to clear potion effects for player " + p.getName() + ": " + effectEx.getMessage());
-            }
-
-        } catch (Exception ignored) {
-            plugin.getLogger().warning("Failed to apply fresh start for player " + p.getName());
-        }
-    }
 
     private void deletePath(Path path) throws IOException {
         if (!Files.exists(path))
             return;
-        Files.walkFileTree(path, new SimpleFileVisitor<>() {
-            @Override
-            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
-                Files.deleteIfExists(file);
-                return FileVisitResult.CONTINUE;
-            }
+        final long[] size = {0};
+        try {
+            Files.walkFileTree(path, new SimpleFileVisitor<>() {
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                    if (Files.deleteIfExists(file))
+                        size[0] += attrs.size();
+                    return FileVisitResult.CONTINUE;
+                }
 
-            @Override
-            public FileVisitResult postVisitDirectory(Path dir, IOException exc) throws IOException {
-                Files.deleteIfExists(dir);
-                return FileVisitResult.CONTINUE;
-            }
-        });
+                @Override
+                public FileVisitResult postVisitDirectory(Path dir, IOException exc) throws IOException {
+                    Files.deleteIfExists(dir);
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+        } finally {
+            BackupManager.countBytes(plugin, "deleted", size[0]);
+        }
     }
 
     /**
@@ -1391,9 +1565,13 @@ public class ResetService {
         plugin.getLogger().info("Force reset completed for " + worldName + ". Chunks will regenerate on demand.");
     }
 
-    private void swapPreloadedIfAny(String base, EnumSet<Dimension> dims) {
+    private void swapPreloadedIfAny(String base, EnumSet<Dimension> dims, Optional<Long> seedOpt) {
+        OptionalLong seed = seedOpt.map(OptionalLong::of).orElseGet(OptionalLong::empty);
         for (String target : dimensionNames(base, dims)) {
-            String prep = "brprep_" + target;
+            // Only a READY prep world generated from this reset's seed may be swapped in
+            if (!preloadManager.claim(target, seed))
+                continue;
+            String prep = preloadManager.prepName(target);
             World prepWorld = Bukkit.getWorld(prep);
             if (prepWorld != null)
                 Bukkit.unloadWorld(prepWorld, true);
@@ -1429,6 +1607,12 @@ public class ResetService {
                 } catch (Throwable ignored) {
                 }
             }
+            // Template-backed worlds are copied, never generated
+            EnumSet<Dimension> generated = EnumSet.noneOf(Dimension.class);
+            for (Dimension dim : dims)
+                if (worldTemplates.templateFor(baseWorld, dim).isEmpty())
+                    generated.add(dim);
+            dims = generated;
             EnumSet<PreloadManager.Dimension> pdims = EnumSet.noneOf(PreloadManager.Dimension.class);
             if (dims.contains(Dimension.OVERWORLD))
                 pdims.add(PreloadManager.Dimension.OVERWORLD);
@@ -1509,12 +1693,14 @@ public class ResetService {
 
         // We'll teleport in overworld and optionally reset Nether/End
         List<World> affectedWorlds = dims.stream().flatMap(dim -> getAffectedWorld(baseWorld, dim).stream()).toList();
-        Optional<Long> effectiveSeed = seedOpt.isPresent() ? seedOpt : Optional.of(rng.nextLong());
+        Optional<Long> effectiveSeed = seedOpt.isPresent() ? seedOpt : Optional.of(nextSeed());
+        countdownSeed = seedOpt.isPresent() ? null : effectiveSeed.get();
         ResetTask task = new ResetTask(baseWorld, dims, player, effectiveSeed.orElse(null), affectedWorlds);
         activeTasks.put(player.getUniqueId(), task);
         int seconds = plugin.getConfig().getInt("countdown.seconds", 10);
         Messages.send(player, "&eStarting teleport-mode countdown for &6" + baseWorld + "&e...");
         countdownManager.startCountdown(task.getInitiator(), task.getAffectedWorlds(), seconds, () -> {
+            countdownSeed = null;
             if (!task.isCancelled()) {
                 // Do the teleport + fresh start immediately on main thread
                 Bukkit.getScheduler().runTask(plugin, () -> doTeleportMode(task.getInitiator(), baseWorld));
@@ -1544,7 +1730,6 @@ public class ResetService {
 
         // Use same distance for everyone (15000 blocks by default)
         int teleportDistance = plugin.getConfig().getInt("teleportMode.playerDistance", 15000);
-        boolean fresh = plugin.getConfig().getBoolean("players.freshStartOnReset", true);
         boolean setWorldSpawn = plugin.getConfig().getBoolean("teleportMode.setWorldSpawn", true);
 
         // Find ONE safe location that everyone will teleport to
@@ -1562,8 +1747,6 @@ public class ResetService {
         for (Player p : Bukkit.getOnlinePlayers()) {
             p.teleport(sharedTeleportLocation);
             affected.add(p.getUniqueId());
-            if (fresh)
-                applyFreshStartIfEnabled(p);
             try {
                 showShortTitle(p, "Teleported to new location");
                 p.sendActionBar(net.kyori.adventure.text.Component.text("Done"));
@@ -1593,6 +1776,9 @@ public class ResetService {
             }
         }
 
+        freshStart.process(affected, freshStart.snapshot(), p -> {
+        });
+
         Messages.send(initiator, "&aTeleport-mode complete. All players moved to the same location &e"
                 + teleportDistance + " blocks away in '&6" + baseWorld + "&a'.");
     }
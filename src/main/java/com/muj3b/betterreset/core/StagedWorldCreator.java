@@ -0,0 +1,120 @@
+package com.muj3b.betterreset.core;
+
+import com.muj3b.betterreset.FullResetPlugin;
+import com.muj3b.betterreset.util.MultiverseCompat;
+import org.bukkit.Bukkit;
+import org.bukkit.World;
+import org.bukkit.WorldCreator;
+import org.bukkit.WorldType;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Creates a reset's worlds one per tick instead of all inside one scheduler
+ * task. Spawn chunks are requested through the async chunk API, and each
+ * dimension's future completes on the main thread once its world exists and
+ * its spawn chunk is loaded. If a world cannot be created, its future and
+ * those of all later stages fail, with the exception thrown while creating it
+ * or a {@link StageFailedException} when Bukkit returned no world.
+ */
+final class StagedWorldCreator {
+
+    record Stage(ResetService.Dimension dimension, String worldName, World.Environment environment, long seed) {
+        String label() {
+            return switch (dimension) {
+                case OVERWORLD -> "overworld";
+                case NETHER -> "nether";
+                case END -> "the_end";
+            };
+        }
+    }
+
+    /**
+     * {@link WorldCreator#createWorld()} returned null for {@code stage}.
+     */
+    static final class StageFailedException extends IllegalStateException {
+        private final transient Stage stage;
+
+        StageFailedException(Stage stage) {
+            super("Failed to create " + stage.label() + ": " + stage.worldName());
+            this.stage = stage;
+        }
+
+        Stage stage() {
+            return stage;
+        }
+    }
+
+    private final FullResetPlugin plugin;
+    private final MultiverseCompat multiverseCompat;
+    private final List<Stage> stages;
+    private final Map<ResetService.Dimension, CompletableFuture<World>> ready =
+            new EnumMap<>(ResetService.Dimension.class);
+    private final CompletableFuture<Void> all;
+
+    StagedWorldCreator(FullResetPlugin plugin, MultiverseCompat multiverseCompat, List<Stage> stages) {
+        this.plugin = plugin;
+        this.multiverseCompat = multiverseCompat;
+        this.stages = List.copyOf(stages);
+        for (Stage stage : this.stages)
+            ready.put(stage.dimension(), new CompletableFuture<>());
+        this.all = CompletableFuture.allOf(ready.values().toArray(new CompletableFuture[0]));
+    }
+
+    /**
+     * Future for one dimension, or null if it is not part of this pipeline.
+     */
+    CompletableFuture<World> ready(ResetService.Dimension dimension) {
+        return ready.get(dimension);
+    }
+
+    CompletableFuture<Void> all() {
+        return all;
+    }
+
+    /**
+     * Runs the first stage now and each following stage one tick after the
+     * previous one. Must be called on the main thread.
+     */
+    StagedWorldCreator start() {
+        runStage(0);
+        return this;
+    }
+
+    private void runStage(int index) {
+        if (index >= stages.size())
+            return;
+        Stage stage = stages.get(index);
+        World world;
+        try {
+            world = new WorldCreator(stage.worldName()).seed(stage.seed()).environment(stage.environment())
+                    .type(WorldType.NORMAL).createWorld();
+        } catch (Exception ex) {
+            failFrom(index, ex);
+            return;
+        }
+        if (world == null) {
+            failFrom(index, new StageFailedException(stage));
+            return;
+        }
+        multiverseCompat.ensureRegistered(stage.worldName(), stage.environment(), stage.seed());
+
+        CompletableFuture<World> future = ready.get(stage.dimension());
+        world.getChunkAtAsync(world.getSpawnLocation()).whenComplete((chunk, err) -> {
+            // Not fatal: the spawn chunk will simply load on first access
+            if (err != null)
+                plugin.getLogger().warning("Failed to preload spawn chunk of '" + stage.worldName() + "': "
+                        + err.getMessage());
+            future.complete(world);
+        });
+        Bukkit.getScheduler().runTaskLater(plugin, () -> runStage(index + 1), 1L);
+    }
+
+    private void failFrom(int index, Throwable cause) {
+        for (int i = index; i < stages.size(); i++)
+            ready.get(stages.get(i).dimension()).completeExceptionally(cause);
+    }
+}
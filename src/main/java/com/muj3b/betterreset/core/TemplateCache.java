@@ -0,0 +1,153 @@
+package com.muj3b.betterreset.core;
+
+import com.muj3b.betterreset.util.ByteFormat;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Keeps whole template folders in direct buffers so small arenas can be
+ * restored without reading the template from disk. Entries are keyed by
+ * template path, validated against a fingerprint of file sizes and
+ * modification times before each use, and evicted least recently used first
+ * to stay within the byte budget. Evicted buffers are released by the GC, so
+ * {@code -XX:MaxDirectMemorySize} must leave room for the budget.
+ */
+final class TemplateCache {
+
+    record CachedFile(String relativePath, ByteBuffer data) {
+    }
+
+    record Entry(long fingerprint, long bytes, List<CachedFile> files) {
+    }
+
+    // Access-ordered: the first entry is the least recently used
+    private final Map<Path, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long cachedBytes;
+    private long hits;
+    private long misses;
+
+    /**
+     * Cached contents of {@code template}, loading them if absent or stale.
+     * Returns null when the template does not fit in {@code budgetBytes}.
+     */
+    synchronized Entry get(Path template, Set<String> skipped, long budgetBytes) throws IOException {
+        Scan scan = scan(template, skipped);
+        Entry entry = entries.get(template);
+        if (entry != null && entry.fingerprint() == scan.fingerprint) {
+            hits++;
+            return entry;
+        }
+        misses++;
+        if (entry != null) {
+            entries.remove(template);
+            cachedBytes -= entry.bytes();
+        }
+        if (scan.bytes > budgetBytes)
+            return null;
+        evictUntil(budgetBytes - scan.bytes);
+
+        List<CachedFile> files = new ArrayList<>(scan.files.size());
+        long bytes = 0L;
+        for (Path file : scan.files) {
+            try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+                long size = ch.size();
+                if (size > Integer.MAX_VALUE)
+                    return null;
+                ByteBuffer buf = ByteBuffer.allocateDirect((int) size);
+                while (buf.hasRemaining() && ch.read(buf) >= 0) {
+                }
+                buf.flip();
+                files.add(new CachedFile(template.relativize(file).toString(), buf.asReadOnlyBuffer()));
+                bytes += buf.limit();
+            }
+        }
+        entry = new Entry(scan.fingerprint, bytes, List.copyOf(files));
+        entries.put(template, entry);
+        cachedBytes += bytes;
+        return entry;
+    }
+
+    /**
+     * Drops entries until at most {@code budgetBytes} are cached, e.g. after
+     * the budget was lowered.
+     */
+    synchronized void trimTo(long budgetBytes) {
+        evictUntil(budgetBytes);
+    }
+
+    synchronized void clear() {
+        entries.clear();
+        cachedBytes = 0L;
+    }
+
+    synchronized List<String> statusLines() {
+        List<String> lines = new ArrayList<>();
+        lines.add("&7Template cache: &e" + entries.size() + "&7 template(s), &e"
+                + ByteFormat.human(cachedBytes) + "&7 (hits &e" + hits + "&7, misses &e" + misses + "&7)");
+        return lines;
+    }
+
+    /**
+     * Writes one cached file below {@code target}. Safe to call from several
+     * threads; every call works on its own view of the buffer.
+     */
+    static long write(CachedFile file, Path target) throws IOException {
+        Path dst = target.resolve(file.relativePath());
+        Files.createDirectories(dst.getParent());
+        ByteBuffer view = file.data().duplicate();
+        try (FileChannel ch = FileChannel.open(dst, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (view.hasRemaining())
+                ch.write(view);
+        }
+        return file.data().limit();
+    }
+
+    private void evictUntil(long budgetBytes) {
+        Iterator<Entry> it = entries.values().iterator();
+        while (cachedBytes > Math.max(0L, budgetBytes) && it.hasNext()) {
+            cachedBytes -= it.next().bytes();
+            it.remove();
+        }
+    }
+
+    private static final class Scan {
+        final List<Path> files = new ArrayList<>();
+        long bytes;
+        long fingerprint = 1L;
+    }
+
+    private static Scan scan(Path template, Set<String> skipped) throws IOException {
+        Scan scan = new Scan();
+        Files.walkFileTree(template, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                if (file.getParent().equals(template) && skipped.contains(file.getFileName().toString()))
+                    return FileVisitResult.CONTINUE;
+                scan.files.add(file);
+                scan.bytes += attrs.size();
+                long h = template.relativize(file).toString().hashCode();
+                h = h * 31 + attrs.size();
+                h = h * 31 + attrs.lastModifiedTime().toMillis();
+                // Order-independent so walk order does not matter
+                scan.fingerprint += h * 0x9E3779B97F4A7C15L;
+                return FileVisitResult.CONTINUE;
+            }
+        });
+        return scan;
+    }
+}
@@ -0,0 +1,182 @@
+package com.muj3b.betterreset.core;
+
+import com.muj3b.betterreset.FullResetPlugin;
+import com.muj3b.betterreset.util.ByteFormat;
+import com.muj3b.betterreset.util.RegionVisitTracker;
+import com.muj3b.betterreset.util.SeedScout;
+import org.bukkit.Bukkit;
+import org.bukkit.World;
+import org.bukkit.configuration.file.FileConfiguration;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Low-priority background trimmer. Every interval it trims a handful of
+ * regions in one world, rotating through the eligible worlds, so large worlds
+ * shrink steadily without a full scan or backup. Each world's position is
+ * kept in a cursor file inside its region folder and survives restarts.
+ * Passes are skipped while a reset or trim runs, or when player count or
+ * MSPT are above the configured limits.
+ */
+public final class TrimDaemon {
+
+    private static final long RESPAWN_POINTS_MAX_AGE_MS = 10 * 60_000L;
+
+    private final FullResetPlugin plugin;
+    private final ResetService resetService;
+    private final RegionTrimmer regionTrimmer;
+
+    private final AtomicBoolean passRunning = new AtomicBoolean();
+    private final AtomicLong passes = new AtomicLong();
+    private final AtomicLong regionsDeleted = new AtomicLong();
+    private final AtomicLong bytesFreed = new AtomicLong();
+    private volatile String lastOutcome = "no pass yet";
+    private BukkitTask task;
+    private int worldIndex;
+
+    TrimDaemon(FullResetPlugin plugin, ResetService resetService, RegionTrimmer regionTrimmer) {
+        this.plugin = plugin;
+        this.resetService = resetService;
+        this.regionTrimmer = regionTrimmer;
+    }
+
+    /**
+     * Schedules the daemon timer; the enabled flag is checked on every pass so
+     * it can be toggled without restarting the timer.
+     */
+    public void start() {
+        stop();
+        long intervalTicks = Math.max(1L, plugin.getConfig().getLong("chunkReset.daemon.intervalSeconds", 60L)) * 20L;
+        task = Bukkit.getScheduler().runTaskTimer(plugin, this::tick, intervalTicks, intervalTicks);
+    }
+
+    public void stop() {
+        if (task != null) {
+            task.cancel();
+            task = null;
+        }
+    }
+
+    public boolean isEnabled() {
+        return plugin.getConfig().getBoolean("chunkReset.daemon.enabled", false);
+    }
+
+    public void setEnabled(boolean enabled) {
+        plugin.getConfig().set("chunkReset.daemon.enabled", enabled);
+        plugin.saveConfig();
+    }
+
+    public List<String> statusLines() {
+        List<String> lines = new ArrayList<>();
+        lines.add("&7Trim daemon: " + (isEnabled() ? "&aON" : "&cOFF") + "&7, passes: &e" + passes.get()
+                + "&7, regions deleted: &e" + regionsDeleted.get() + "&7, freed: &e"
+                + ByteFormat.human(bytesFreed.get()));
+        lines.add("&7Last: &e" + lastOutcome);
+        return lines;
+    }
+
+    private void tick() {
+        String skip = skipReason();
+        if (skip != null) {
+            lastOutcome = "skipped (" + skip + ")";
+            return;
+        }
+        List<World> worlds = eligibleWorlds();
+        if (worlds.isEmpty()) {
+            lastOutcome = "skipped (no eligible worlds)";
+            return;
+        }
+        // Offline respawn points are re-read in the background every few minutes; passes wait for the first read
+        OfflineRespawnPoints respawns = resetService.getOfflineRespawns();
+        if (BuiltinRegionProviders.respawnPointsEnabled(plugin) && !respawns.isFresh(RESPAWN_POINTS_MAX_AGE_MS)) {
+            respawns.refresh();
+            lastOutcome = "skipped (reading player respawn points)";
+            return;
+        }
+        if (!passRunning.compareAndSet(false, true)) {
+            lastOutcome = "skipped (previous pass still running)";
+            return;
+        }
+
+        World world = worlds.get(Math.floorMod(worldIndex++, worlds.size()));
+        final String worldName = world.getName();
+        final Path regionFolder = world.getWorldFolder().toPath().resolve("region");
+        final ProtectedRegionIndex protectedRegions = resetService.buildProtectedIndex(world);
+        final RegionTrimmer.Rules rules = RegionTrimmer.Rules.fromConfig(plugin.getConfig());
+        final RegionVisitTracker.Snapshot visits = resetService.visitSnapshot(world, rules);
+        final int perPass = plugin.getConfig().getInt("chunkReset.daemon.regionsPerPass", 8);
+
+        try {
+            plugin.getBackgroundExecutor().submit(() -> {
+                try {
+                    RegionTrimmer.IncrementResult result = regionTrimmer.trimIncrement(worldName, regionFolder,
+                            protectedRegions, visits, rules, perPass);
+                    passes.incrementAndGet();
+                    regionsDeleted.addAndGet(result.deleted());
+                    bytesFreed.addAndGet(result.bytesDeleted());
+                    plugin.getMetrics().counter("betterreset_trim_regions_deleted_total",
+                            "Region files deleted by chunk trims").add(result.deleted());
+                    plugin.getMetrics().counter("betterreset_trim_bytes_deleted_total",
+                            "Bytes freed by chunk trims").add(result.bytesDeleted());
+                    plugin.getMetrics().counter("betterreset_trim_daemon_passes_total",
+                            "Background trim daemon passes completed").inc();
+                    lastOutcome = worldName + ": deleted " + result.deleted() + " of " + result.examined()
+                            + " (" + ByteFormat.human(result.bytesDeleted()) + ")"
+                            + (result.wrapped() ? ", cursor wrapped" : "");
+                    if (plugin.getConfig().getBoolean("debug.trim", false))
+                        plugin.getLogger().info("[TrimDaemon] " + lastOutcome);
+                } catch (Exception ex) {
+                    lastOutcome = worldName + ": failed (" + ex.getMessage() + ")";
+                    plugin.getLogger().warning("Trim daemon pass failed for '" + worldName + "': " + ex.getMessage());
+                } finally {
+                    passRunning.set(false);
+                }
+            });
+        } catch (RejectedExecutionException ex) {
+            passRunning.set(false);
+        }
+    }
+
+    private String skipReason() {
+        FileConfiguration config = plugin.getConfig();
+        if (!isEnabled())
+            return "disabled";
+        if (!config.getBoolean("chunkReset.enabled", false))
+            return "chunk reset disabled";
+        if (!config.getBoolean("chunkReset.inactive.enabled", true)
+                && !config.getBoolean("chunkReset.endDistance.enabled", true))
+            return "no trim rules enabled";
+        if (resetService.isResetInProgress())
+            return "reset in progress";
+        int online = Bukkit.getOnlinePlayers().size();
+        int maxPlayers = config.getInt("chunkReset.daemon.maxPlayers", 5);
+        if (maxPlayers >= 0 && online > maxPlayers)
+            return online + " players online";
+        double mspt = Bukkit.getAverageTickTime();
+        double maxMspt = config.getDouble("chunkReset.daemon.maxMspt", 40.0);
+        if (mspt > maxMspt)
+            return String.format(Locale.ROOT, "MSPT %.1f", mspt);
+        return null;
+    }
+
+    private List<World> eligibleWorlds() {
+        List<String> configured = plugin.getConfig().getStringList("chunkReset.daemon.worlds");
+        List<World> out = new ArrayList<>();
+        for (World world : Bukkit.getWorlds()) {
+            String name = world.getName();
+            if (name.startsWith("brprep_") || name.startsWith(SeedScout.WORLD_PREFIX))
+                continue;
+            if (!configured.isEmpty() && configured.stream().noneMatch(name::equalsIgnoreCase))
+                continue;
+            out.add(world);
+        }
+        return out;
+    }
+}
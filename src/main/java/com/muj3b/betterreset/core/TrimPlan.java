@@ -0,0 +1,98 @@
+package com.muj3b.betterreset.core;
+
+import java.nio.file.Path;
+import java.util.EnumSet;
+import java.util.List;
+
+/**
+ * Result of evaluating the chunk-trim rules without deleting anything. A plan
+ * lists the exact region files a trim would remove, so confirming it deletes
+ * those files instead of rescanning the world.
+ */
+public final class TrimPlan {
+
+    public static final String[] AGE_BUCKET_LABELS = { "<7d", "7-30d", "30-90d", "90-180d", "180-365d", ">1y" };
+    private static final long[] AGE_BUCKET_DAYS = { 7, 30, 90, 180, 365 };
+    private static final long DAY_MILLIS = 24L * 60L * 60L * 1000L;
+
+    /**
+     * A region file selected for deletion; {@code bytes} includes its
+     * entities/ and poi/ counterparts. {@code lastModified} and
+     * {@code lastVisit} (-1 without visit data) are as seen when planning, so
+     * a region written to or visited before confirmation can be left alone.
+     */
+    public record Candidate(Path file, int rx, int rz, long bytes, long lastModified, long lastVisit) {
+    }
+
+    /**
+     * Per-world plan. {@code ageHistogram} counts every scanned region file by
+     * age of last activity, bucketed as in {@link #AGE_BUCKET_LABELS}; activity
+     * is the last player visit when {@code visitData} is set, otherwise the
+     * file modification time.
+     */
+    public record WorldPlan(String worldName, Path regionFolder, int scanned, int skippedProtected,
+            int skippedRules, int protectedRegions, List<Candidate> candidates, long reclaimBytes,
+            long[] ageHistogram, boolean visitData) {
+    }
+
+    private final String base;
+    private final EnumSet<ResetService.Dimension> dims;
+    private final long createdAt;
+    private final List<WorldPlan> worlds;
+
+    TrimPlan(String base, EnumSet<ResetService.Dimension> dims, long createdAt, List<WorldPlan> worlds) {
+        this.base = base;
+        this.dims = EnumSet.copyOf(dims);
+        this.createdAt = createdAt;
+        this.worlds = List.copyOf(worlds);
+    }
+
+    public String getBase() {
+        return base;
+    }
+
+    public EnumSet<ResetService.Dimension> getDimensions() {
+        return EnumSet.copyOf(dims);
+    }
+
+    public long getCreatedAt() {
+        return createdAt;
+    }
+
+    public List<WorldPlan> getWorlds() {
+        return worlds;
+    }
+
+    public int regionCount() {
+        int total = 0;
+        for (WorldPlan w : worlds)
+            total += w.candidates().size();
+        return total;
+    }
+
+    public long reclaimBytes() {
+        long total = 0L;
+        for (WorldPlan w : worlds)
+            total += w.reclaimBytes();
+        return total;
+    }
+
+    public int protectedCount() {
+        int total = 0;
+        for (WorldPlan w : worlds)
+            total += w.skippedProtected();
+        return total;
+    }
+
+    public boolean isExpired(long ttlMillis) {
+        return System.currentTimeMillis() - createdAt > ttlMillis;
+    }
+
+    static int ageBucket(long ageMillis) {
+        long days = Math.max(0L, ageMillis) / DAY_MILLIS;
+        for (int i = 0; i < AGE_BUCKET_DAYS.length; i++)
+            if (days < AGE_BUCKET_DAYS[i])
+                return i;
+        return AGE_BUCKET_DAYS.length;
+    }
+}
@@ -0,0 +1,197 @@
+package com.muj3b.betterreset.core;
+
+import com.muj3b.betterreset.FullResetPlugin;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Restores worlds from fixed template folders instead of generating them from
+ * a seed. {@code templates.worlds} maps a base world to a folder under
+ * {@code plugins/BetterReset/templates/}; {@code <template>_nether} and
+ * {@code <template>_the_end} serve the other dimensions when present. Files
+ * are copied on a dedicated pool, without the template's {@code uid.dat} and
+ * {@code session.lock}, so the server loads the copy as a new world. With
+ * {@code templates.cache.enabled} the files come from a {@link TemplateCache}.
+ */
+final class WorldTemplates {
+
+    /** Files that must not be carried over from a template. */
+    private static final Set<String> SKIPPED = Set.of("uid.dat", "session.lock");
+    private static final int SPLIT_THRESHOLD = 16;
+
+    record CopyResult(Path template, int files, long bytes, long millis, boolean fromCache) {
+    }
+
+    private final FullResetPlugin plugin;
+    private final TemplateCache cache = new TemplateCache();
+
+    WorldTemplates(FullResetPlugin plugin) {
+        this.plugin = plugin;
+    }
+
+    /**
+     * Template folder for one world of a base, if the base is template-backed
+     * and that dimension's folder exists.
+     */
+    Optional<Path> templateFor(String base, ResetService.Dimension dimension) {
+        String name = plugin.getConfig().getString("templates.worlds." + base);
+        if (name == null || name.isBlank())
+            return Optional.empty();
+        String folder = switch (dimension) {
+            case OVERWORLD -> name;
+            case NETHER -> name + "_nether";
+            case END -> name + "_the_end";
+        };
+        Path path = Path.of(folder);
+        if (!path.isAbsolute())
+            path = plugin.getDataFolder().toPath().resolve("templates").resolve(folder);
+        return Files.isRegularFile(path.resolve("level.dat")) ? Optional.of(path) : Optional.empty();
+    }
+
+    /**
+     * Copies {@code template} into {@code target}, replacing whatever is
+     * there. Served from the template cache when enabled and the template
+     * fits its budget. Blocks until done; call off the main thread.
+     */
+    CopyResult restore(Path template, Path target) throws IOException {
+        long start = System.currentTimeMillis();
+        if (Files.exists(target))
+            deleteTree(target);
+        Files.createDirectories(target);
+
+        TemplateCache.Entry cached = null;
+        if (plugin.getConfig().getBoolean("templates.cache.enabled", false)) {
+            long budget = Math.max(0L, plugin.getConfig().getLong("templates.cache.budgetMb", 256L)) * 1024L * 1024L;
+            cache.trimTo(budget);
+            cached = cache.get(template, SKIPPED, budget);
+        }
+        if (cached != null) {
+            List<TemplateCache.CachedFile> files = cached.files();
+            long bytes = runParallel(files.size(), i -> TemplateCache.write(files.get(i), target));
+            return new CopyResult(template, files.size(), bytes, System.currentTimeMillis() - start, true);
+        }
+
+        List<Path> files = new ArrayList<>();
+        Files.walkFileTree(template, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+                Files.createDirectories(target.resolve(template.relativize(dir).toString()));
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                if (!(file.getParent().equals(template) && SKIPPED.contains(file.getFileName().toString())))
+                    files.add(file);
+                return FileVisitResult.CONTINUE;
+            }
+        });
+        long bytes = runParallel(files.size(), i -> {
+            Path dst = target.resolve(template.relativize(files.get(i)).toString());
+            Files.copy(files.get(i), dst, StandardCopyOption.REPLACE_EXISTING);
+            return Files.size(dst);
+        });
+        return new CopyResult(template, files.size(), bytes, System.currentTimeMillis() - start, false);
+    }
+
+    List<String> cacheStatusLines() {
+        return cache.statusLines();
+    }
+
+    void clearCache() {
+        cache.clear();
+    }
+
+    private long runParallel(int count, FileOp op) throws IOException {
+        ForkJoinPool pool = newPool();
+        try {
+            return pool.invoke(new RangeTask(op, 0, count));
+        } catch (UncheckedIOException ex) {
+            throw ex.getCause();
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private ForkJoinPool newPool() {
+        int parallelism = plugin.getConfig().getInt("templates.copyThreads", 0);
+        if (parallelism <= 0)
+            parallelism = Runtime.getRuntime().availableProcessors();
+        return new ForkJoinPool(parallelism, WorldTemplates::newWorker, null, false);
+    }
+
+    private static ForkJoinWorkerThread newWorker(ForkJoinPool pool) {
+        ForkJoinWorkerThread t = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+        t.setName("betterreset-template-" + t.getPoolIndex());
+        t.setDaemon(true);
+        return t;
+    }
+
+    private static void deleteTree(Path path) throws IOException {
+        Files.walkFileTree(path, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                Files.deleteIfExists(file);
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult postVisitDirectory(Path dir, IOException exc) throws IOException {
+                Files.deleteIfExists(dir);
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    @FunctionalInterface
+    private interface FileOp {
+        long apply(int index) throws IOException;
+    }
+
+    /** Applies {@code op} to indices {@code [from, to)} and sums the bytes written. */
+    private static final class RangeTask extends RecursiveTask<Long> {
+        private final FileOp op;
+        private final int from;
+        private final int to;
+
+        RangeTask(FileOp op, int from, int to) {
+            this.op = op;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Long compute() {
+            if (to - from > SPLIT_THRESHOLD) {
+                int mid = (from + to) >>> 1;
+                RangeTask left = new RangeTask(op, from, mid);
+                left.fork();
+                long right = new RangeTask(op, mid, to).compute();
+                return right + left.join();
+            }
+            long bytes = 0L;
+            for (int i = from; i < to; i++) {
+                try {
+                    bytes += op.apply(i);
+                } catch (IOException ex) {
+                    throw new UncheckedIOException(ex);
+                }
+            }
+            return bytes;
+        }
+    }
+}
@@ -3,6 +3,7 @@ package com.muj3b.betterreset.ui;
 import com.muj3b.betterreset.FullResetPlugin;
 import com.muj3b.betterreset.core.ResetService;
 import com.muj3b.betterreset.util.BackupManager;
+import com.muj3b.betterreset.util.ByteFormat;
 import com.muj3b.betterreset.util.Messages;
 import com.muj3b.betterreset.util.TextComponents;
 import com.muj3b.betterreset.util.VersionCompat;
@@ -523,7 +524,7 @@ public class GuiManager implements Listener {
                         Material.BARREL,
                         TextComponents.white("Base: " + b),
                         TextComponents.gray("Count: ").append(TextComponents.white(String.valueOf(arr[0]))),
-                        TextComponents.gray("Size: ").append(TextComponents.white(human(arr[1]))));
+                        TextComponents.gray("Size: ").append(TextComponents.white(ByteFormat.human(arr[1]))));
                 ItemMeta im = info.getItemMeta();
                 if (im != null) {
                     im.getPersistentDataContainer().set(new NamespacedKey(plugin, "header_base"),
@@ -561,7 +562,7 @@ public class GuiManager implements Listener {
             List<Component> lore = new ArrayList<>();
             lore.add(TextComponents.gray("Click to restore"));
             if (ref.sizeBytes() >= 0)
-                lore.add(TextComponents.gray("Size: ").append(TextComponents.white(human(ref.sizeBytes()))));
+                lore.add(TextComponents.gray("Size: ").append(TextComponents.white(ByteFormat.human(ref.sizeBytes()))));
             if (ref.playtimeSeconds() >= 0)
                 lore.add(TextComponents.gray("Playtime: ")
                         .append(TextComponents.white(formatDuration(ref.playtimeSeconds()))));
@@ -592,7 +593,7 @@ public class GuiManager implements Listener {
         // Totals info
         inv.setItem(45, namedComponent(Material.PAPER, TextComponents.white("Archives Info"),
                 TextComponents.gray("Total: ").append(TextComponents.white(String.valueOf(totalCount))),
-                TextComponents.gray("Size: ").append(TextComponents.white(human(totalBytes)))));
+                TextComponents.gray("Size: ").append(TextComponents.white(ByteFormat.human(totalBytes)))));
         // Pagination controls
         if (pageCount > 1) {
             inv.setItem(46, namedComponent(Material.ARROW, TextComponents.yellow("Prev Page")));
@@ -1101,16 +1102,6 @@ public class GuiManager implements Listener {
         }
     }
 
-    private String human(long bytes) {
-        String[] u = { "B", "KB", "MB", "GB", "TB" };
-        double b = Math.max(0, bytes);
-        int i = 0;
-        while (b >= 1024 && i < u.length - 1) {
-            b /= 1024;
-            i++;
-        }
-        return String.format(java.util.Locale.US, "%.1f %s", b, u[i]);
-    }
 
     private String formatDuration(long seconds) {
         if (seconds < 0)
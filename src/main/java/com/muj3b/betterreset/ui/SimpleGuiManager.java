@@ -2,7 +2,9 @@ package com.muj3b.betterreset.ui;
 
 import com.muj3b.betterreset.FullResetPlugin;
 import com.muj3b.betterreset.core.ResetService;
+import com.muj3b.betterreset.core.TrimPlan;
 import com.muj3b.betterreset.util.BackupManager;
+import com.muj3b.betterreset.util.ByteFormat;
 import com.muj3b.betterreset.util.Messages;
 import com.muj3b.betterreset.util.TextComponents;
 
@@ -42,7 +44,7 @@ public class SimpleGuiManager implements Listener {
     // Track pending trim confirmations
     private final Map<UUID, PendingTrim> pendingTrim = new HashMap<>();
 
-    private record PendingTrim(String base, EnumSet<ResetService.Dimension> dims) {
+    private record PendingTrim(TrimPlan plan) {
     }
 
     public SimpleGuiManager(FullResetPlugin plugin, ResetService resetService) {
@@ -323,7 +325,11 @@ public class SimpleGuiManager implements Listener {
                     openResetMenu(p);
                     return;
                 }
-                openTrimConfirmMenu(p, base, EnumSet.copyOf(dims));
+                p.closeInventory();
+                resetService.planTrimAsync(p, base, EnumSet.copyOf(dims), plan -> {
+                    if (p.isOnline())
+                        openTrimConfirmMenu(p, plan);
+                });
             }
             case "Teleport Now!" -> {
                 if (dims.isEmpty()) {
@@ -337,25 +343,34 @@ public class SimpleGuiManager implements Listener {
         }
     }
 
-    private void openTrimConfirmMenu(Player p, String base, EnumSet<ResetService.Dimension> dims) {
-        pendingTrim.put(p.getUniqueId(), new PendingTrim(base, EnumSet.copyOf(dims)));
+    private void openTrimConfirmMenu(Player p, TrimPlan plan) {
+        pendingTrim.put(p.getUniqueId(), new PendingTrim(plan));
         GuiHolder holder = new GuiHolder(GuiHolder.Type.TRIM_CONFIRM,
                 TextComponents.darkRed("Confirm Chunk Trim"));
         Inventory inv = Bukkit.createInventory(holder, 27, holder.getTitle());
         holder.setInventory(inv);
 
-        boolean inactiveEnabled = plugin.getConfig().getBoolean("chunkReset.inactive.enabled", true);
-        boolean endDistanceEnabled = plugin.getConfig().getBoolean("chunkReset.endDistance.enabled", true);
-        int inactiveDays = plugin.getConfig().getInt("chunkReset.inactive.days", 30);
-        int endDistanceBlocks = plugin.getConfig().getInt("chunkReset.endDistance.minDistanceBlocks", 5000);
-
+        List<String> lore = new ArrayList<>();
+        lore.add("Base: " + plan.getBase());
+        lore.add("Dimensions: " + getSelectedDimsText(plan.getDimensions()));
+        lore.add("Regions to delete: " + plan.regionCount());
+        lore.add("Reclaims: " + ByteFormat.human(plan.reclaimBytes()));
+        lore.add("Protected: " + plan.protectedCount());
+        long[] ages = new long[TrimPlan.AGE_BUCKET_LABELS.length];
+        for (TrimPlan.WorldPlan world : plan.getWorlds())
+            for (int i = 0; i < ages.length; i++)
+                ages[i] += world.ageHistogram()[i];
+        boolean visitData = plan.getWorlds().stream().anyMatch(TrimPlan.WorldPlan::visitData);
+        lore.add("Age by: " + (visitData ? "last player visit" : "file modified time"));
+        for (int i = 0; i < ages.length; i++)
+            lore.add("  " + TrimPlan.AGE_BUCKET_LABELS[i] + ": " + ages[i]);
+
+        // An empty plan gets an inert item: confirming it would only take a backup for nothing
+        boolean hasWork = plan.regionCount() > 0;
         inv.setItem(11, createItem(
-                Material.RED_CONCRETE,
-                "Confirm Chunk Trim",
-                "Base: " + base,
-                "Dimensions: " + getSelectedDimsText(dims),
-                "Inactive: " + (inactiveEnabled ? ("ON (" + inactiveDays + "d)") : "OFF"),
-                "End distance: " + (endDistanceEnabled ? ("ON (" + endDistanceBlocks + " blocks)") : "OFF")));
+                hasWork ? Material.RED_CONCRETE : Material.BARRIER,
+                hasWork ? "Confirm Chunk Trim" : "Nothing to Trim",
+                lore.toArray(new String[0])));
         inv.setItem(15, createItem(Material.ARROW, "Cancel"));
         p.openInventory(inv);
     }
@@ -374,7 +389,7 @@ public class SimpleGuiManager implements Listener {
             case "Confirm Chunk Trim" -> {
                 pendingTrim.remove(p.getUniqueId());
                 p.closeInventory();
-                resetService.trimChunksAsync(p, pending.base(), EnumSet.copyOf(pending.dims()));
+                resetService.executeTrimPlanAsync(p, pending.plan());
             }
             default -> {
             }
@@ -33,8 +33,7 @@ public class BackupManager {
             Path src = e.getValue();
             if (src == null || !Files.exists(src)) continue;
             Path dest = destBase.resolve(src.getFileName());
-            moveTree(src, dest);
-            totalBytes += folderSize(dest);
+            totalBytes += moveTree(src, dest);
         }
         // Write metadata
         try {
@@ -53,7 +52,7 @@ public class BackupManager {
         try {
             Files.createFile(destBase.resolve(".complete"));
         } catch (Exception ignored) {}
-        plugin.getLogger().info("Snapshot saved: " + destBase + " (" + human(totalBytes) + ")");
+        plugin.getLogger().info("Snapshot saved: " + destBase + " (" + ByteFormat.human(totalBytes) + ")");
         prune(base);
         return stamp;
     }
@@ -140,12 +139,25 @@ if (hasComplete && hasMeta) {
 
     public record BackupRef(String base, String timestamp, Path path, long sizeBytes, long playtimeSeconds) {}
 
-    private void moveTree(Path src, Path dest) throws IOException {
+    /**
+     * Adds {@code bytes} to {@code betterreset_disk_bytes_total} for the given
+     * operation ({@code moved}, {@code copied} or {@code deleted}).
+     */
+    public static void countBytes(FullResetPlugin plugin, String op, long bytes) {
+        plugin.getMetrics().counter("betterreset_disk_bytes_total",
+                "Bytes of world and backup folders moved, copied or deleted", "op", op).add(bytes);
+    }
+
+    /** Moves a folder tree and returns the bytes moved. */
+    private long moveTree(Path src, Path dest) throws IOException {
         try {
             Files.move(src, dest, StandardCopyOption.ATOMIC_MOVE);
-            return;
+            long size = folderSize(dest);
+            countBytes(plugin, "moved", size);
+            return size;
         } catch (Exception ignored) {}
         // Fallback to manual tree move
+        final long[] size = {0};
         Files.createDirectories(dest);
         Files.walkFileTree(src, new SimpleFileVisitor<>() {
             @Override
@@ -159,6 +171,7 @@ if (hasComplete && hasMeta) {
             public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
                 Path rel = src.relativize(file);
                 Files.move(file, dest.resolve(rel), StandardCopyOption.REPLACE_EXISTING);
+                size[0] += attrs.size();
                 return FileVisitResult.CONTINUE;
             }
 
@@ -168,6 +181,8 @@ if (hasComplete && hasMeta) {
                 return FileVisitResult.CONTINUE;
             }
         });
+        countBytes(plugin, "moved", size[0]);
+        return size[0];
     }
 
     private long folderSize(Path path) throws IOException {
@@ -179,11 +194,6 @@ if (hasComplete && hasMeta) {
         return size[0];
     }
 
-    private String human(long bytes) {
-        String[] u = {"B","KB","MB","GB","TB"};
-        double b = bytes; int i=0; while (b>=1024 && i<u.length-1){ b/=1024; i++; }
-        return String.format(java.util.Locale.US, "%.1f %s", b, u[i]);
-    }
 
     public void pruneKeepPerBase(String base, int keep) throws IOException {
         Path baseDir = backupsRoot.resolve(base);
@@ -203,6 +213,7 @@ if (hasComplete && hasMeta) {
     }
 
     private void copyTree(Path src, Path dest) throws IOException {
+        final long[] size = {0};
         Files.createDirectories(dest);
         Files.walkFileTree(src, new SimpleFileVisitor<>() {
             @Override
@@ -216,9 +227,11 @@ if (hasComplete && hasMeta) {
             public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
                 Path rel = src.relativize(file);
                 Files.copy(file, dest.resolve(rel), StandardCopyOption.REPLACE_EXISTING);
+                size[0] += attrs.size();
                 return FileVisitResult.CONTINUE;
             }
         });
+        countBytes(plugin, "copied", size[0]);
     }
 
     public void deleteBackup(String base, String timestamp) throws IOException {
@@ -311,18 +324,23 @@ if (hasComplete && hasMeta) {
 
     private void deleteTree(Path path) throws IOException {
         if (!Files.exists(path)) return;
-        Files.walkFileTree(path, new SimpleFileVisitor<>() {
-            @Override
-            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
-                Files.deleteIfExists(file);
-                return FileVisitResult.CONTINUE;
-            }
+        final long[] size = {0};
+        try {
+            Files.walkFileTree(path, new SimpleFileVisitor<>() {
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                    if (Files.deleteIfExists(file)) size[0] += attrs.size();
+                    return FileVisitResult.CONTINUE;
+                }
 
-            @Override
-            public FileVisitResult postVisitDirectory(Path dir, IOException exc) throws IOException {
-                Files.deleteIfExists(dir);
-                return FileVisitResult.CONTINUE;
-            }
-        });
+                @Override
+                public FileVisitResult postVisitDirectory(Path dir, IOException exc) throws IOException {
+                    Files.deleteIfExists(dir);
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+        } finally {
+            countBytes(plugin, "deleted", size[0]);
+        }
     }
 }
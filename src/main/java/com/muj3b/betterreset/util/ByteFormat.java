@@ -0,0 +1,24 @@
+package com.muj3b.betterreset.util;
+
+import java.util.Locale;
+
+/**
+ * Human-readable byte sizes ("1.5 MB") for messages, logs and GUI lore.
+ */
+public final class ByteFormat {
+
+    private static final String[] UNITS = { "B", "KB", "MB", "GB", "TB" };
+
+    private ByteFormat() {
+    }
+
+    public static String human(long bytes) {
+        double b = Math.max(0, bytes);
+        int i = 0;
+        while (b >= 1024 && i < UNITS.length - 1) {
+            b /= 1024;
+            i++;
+        }
+        return String.format(Locale.US, "%.1f %s", b, UNITS[i]);
+    }
+}
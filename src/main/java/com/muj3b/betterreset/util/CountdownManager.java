@@ -1,67 +1,99 @@
 package com.muj3b.betterreset.util;
 
 import com.muj3b.betterreset.FullResetPlugin;
+import net.kyori.adventure.audience.Audience;
+import net.kyori.adventure.bossbar.BossBar;
 import net.kyori.adventure.text.Component;
 import net.kyori.adventure.title.Title;
 import net.kyori.adventure.text.serializer.legacy.LegacyComponentSerializer;
 import org.bukkit.Bukkit;
+import org.bukkit.World;
 import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerChangedWorldEvent;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
 import org.bukkit.scheduler.BukkitRunnable;
 
 import java.time.Duration;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.Set;
+import java.util.UUID;
 
-public class CountdownManager {
+/**
+ * Shows the reset countdown. All frames (title, optional action bar and boss
+ * bar) are built once when the countdown starts; each second one frame goes
+ * to the audience as a single {@link Audience}. The audience follows joins,
+ * quits and world changes while the countdown runs.
+ */
+public class CountdownManager implements Listener {
+
+    private static final Title.Times TIMES = Title.Times.times(Duration.ofMillis(100), Duration.ofMillis(900),
+            Duration.ofMillis(100));
+
+    /** What players see with {@code remaining} seconds left. */
+    private record Frame(Title title, Component actionBar, Component bossBarName, float progress) {
+    }
 
     private final FullResetPlugin plugin;
     private volatile BukkitRunnable currentTask;
     private volatile String currentLabel = null;
     private volatile int totalSeconds = 0;
     private volatile int secondsLeft = 0;
+    // Main thread only
+    private final Set<Player> viewers = new LinkedHashSet<>();
+    private final Audience audience = Audience.audience(viewers);
+    private Set<String> affectedWorlds = Set.of();
+    private boolean broadcastToAll;
+    private UUID initiatorId;
+    private BossBar bossBar;
 
     public CountdownManager(FullResetPlugin plugin) {
         this.plugin = plugin;
+        Bukkit.getPluginManager().registerEvents(this, plugin);
     }
 
     public synchronized void startCountdown(Player initiator, java.util.List<org.bukkit.World> affectedWorlds, int seconds, Runnable onComplete) {
         cancel();
         String label = (affectedWorlds != null && !affectedWorlds.isEmpty()) ? affectedWorlds.get(0).getName() : "";
-        Set<Player> audience = new HashSet<>();
-        if (plugin.getConfig().getBoolean("countdown.broadcastToAll", true)) {
-            audience.addAll(Bukkit.getOnlinePlayers());
-        } else if (affectedWorlds != null) {
-            for (org.bukkit.World world : affectedWorlds) {
-                audience.addAll(world.getPlayers());
-            }
-        }
-        startCountdownInternal(label, seconds, audience, onComplete);
+        this.broadcastToAll = plugin.getConfig().getBoolean("countdown.broadcastToAll", true);
+        Set<String> names = new HashSet<>();
+        if (affectedWorlds != null)
+            for (World world : affectedWorlds)
+                names.add(world.getName());
+        this.affectedWorlds = names;
+        this.initiatorId = initiator != null ? initiator.getUniqueId() : null;
+        startCountdownInternal(label, seconds, onComplete);
     }
 
-    private synchronized void startCountdownInternal(String world, int seconds, Set<Player> audience, Runnable onFinish) {
-        cancel();
+    private synchronized void startCountdownInternal(String world, int seconds, Runnable onFinish) {
         this.currentLabel = world;
         this.totalSeconds = Math.max(1, seconds);
         this.secondsLeft = this.totalSeconds;
-        if (audience == null || audience.isEmpty()) {
-            audience = new HashSet<>(Bukkit.getOnlinePlayers());
-        }
+
+        Frame[] frames = buildFrames(totalSeconds);
+        if (plugin.getConfig().getBoolean("countdown.bossBar", false))
+            bossBar = BossBar.bossBar(frames[totalSeconds - 1].bossBarName(), 1f, BossBar.Color.RED,
+                    BossBar.Overlay.PROGRESS);
+        for (Player p : Bukkit.getOnlinePlayers())
+            if (belongs(p))
+                addViewer(p);
 
         this.currentTask = new BukkitRunnable() {
             @Override
             public void run() {
                 secondsLeft--;
-                String raw1 = plugin.getConfig().getString("messages.countdownTitle", "&cReset in %s...").replace("%s", String.valueOf(Math.max(0, secondsLeft)));
-                String raw2 = plugin.getConfig().getString("messages.countdownSubtitle", "&7plugin made by muj3b");
-                Component line1 = LegacyComponentSerializer.legacyAmpersand().deserialize(raw1);
-                Component line2 = LegacyComponentSerializer.legacyAmpersand().deserialize(raw2);
-                Title title = Title.title(line1, line2, Title.Times.times(Duration.ofMillis(100), Duration.ofMillis(900), Duration.ofMillis(100)));
-                for (Player p : Bukkit.getOnlinePlayers()) {
-                    p.showTitle(title);
-                }
+                Frame frame = frames[Math.max(0, secondsLeft)];
+                audience.showTitle(frame.title());
+                if (frame.actionBar() != null)
+                    audience.sendActionBar(frame.actionBar());
+                if (bossBar != null)
+                    bossBar.name(frame.bossBarName()).progress(frame.progress());
                 if (secondsLeft <= 0) {
-                    cancel();
-                    clearState();
+                    CountdownManager.this.cancel();
                     onFinish.run();
                 }
             }
@@ -69,6 +101,70 @@ public class CountdownManager {
         this.currentTask.runTaskTimer(plugin, 0L, 20L);
     }
 
+    /**
+     * Frames indexed by seconds remaining, {@code 0} to {@code total - 1}.
+     */
+    private Frame[] buildFrames(int total) {
+        LegacyComponentSerializer legacy = LegacyComponentSerializer.legacyAmpersand();
+        String titleRaw = plugin.getConfig().getString("messages.countdownTitle", "&cReset in %s...");
+        Component subtitle = legacy.deserialize(
+                plugin.getConfig().getString("messages.countdownSubtitle", "&7plugin made by muj3b"));
+        String actionBarRaw = plugin.getConfig().getBoolean("countdown.actionBar", false)
+                ? plugin.getConfig().getString("messages.countdownActionBar", "&eWorld reset in &c%s &eseconds")
+                : null;
+        String bossBarRaw = plugin.getConfig().getString("messages.countdownBossBar", "&cWorld reset in %s");
+        Frame[] frames = new Frame[total];
+        for (int remaining = 0; remaining < total; remaining++) {
+            String s = String.valueOf(remaining);
+            frames[remaining] = new Frame(
+                    Title.title(legacy.deserialize(titleRaw.replace("%s", s)), subtitle, TIMES),
+                    actionBarRaw != null ? legacy.deserialize(actionBarRaw.replace("%s", s)) : null,
+                    legacy.deserialize(bossBarRaw.replace("%s", s)),
+                    remaining / (float) total);
+        }
+        return frames;
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onJoin(PlayerJoinEvent e) {
+        if (isActive() && belongs(e.getPlayer()))
+            addViewer(e.getPlayer());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onQuit(PlayerQuitEvent e) {
+        removeViewer(e.getPlayer());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onWorldChange(PlayerChangedWorldEvent e) {
+        if (!isActive())
+            return;
+        if (belongs(e.getPlayer()))
+            addViewer(e.getPlayer());
+        else
+            removeViewer(e.getPlayer());
+    }
+
+    /**
+     * Everyone with {@code countdown.broadcastToAll}, otherwise players in an
+     * affected world plus whoever started the reset.
+     */
+    private boolean belongs(Player p) {
+        return broadcastToAll || p.getUniqueId().equals(initiatorId)
+                || affectedWorlds.contains(p.getWorld().getName());
+    }
+
+    private void addViewer(Player p) {
+        if (viewers.add(p) && bossBar != null)
+            p.showBossBar(bossBar);
+    }
+
+    private void removeViewer(Player p) {
+        if (viewers.remove(p) && bossBar != null)
+            p.hideBossBar(bossBar);
+    }
+
     public synchronized boolean cancel() {
         if (currentTask != null) {
             try { currentTask.cancel(); } catch (Exception ignored) {}
@@ -79,6 +175,10 @@ public class CountdownManager {
     }
 
     private void clearState() {
+        if (bossBar != null)
+            audience.hideBossBar(bossBar);
+        bossBar = null;
+        viewers.clear();
         currentTask = null;
         currentLabel = null;
         totalSeconds = 0;
@@ -0,0 +1,156 @@
+package com.muj3b.betterreset.util;
+
+import com.muj3b.betterreset.FullResetPlugin;
+import net.kyori.adventure.text.Component;
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.entity.Player;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+/**
+ * Moves players who join right after a reset into the new world in waves
+ * instead of all at once. Each wave prefetches the chunks around the target
+ * spawn asynchronously and then uses {@code teleportAsync}; the wave size
+ * grows while MSPT stays under {@code players.joinQueue.targetMspt} and is
+ * halved when it goes over. Waiting players see their position on the action
+ * bar. Main thread only.
+ */
+final class JoinAdmissionQueue {
+
+    private final FullResetPlugin plugin;
+    private final Function<World, CompletableFuture<Location>> spawnResolver;
+    // Player -> target world name, in join order
+    private final Map<UUID, String> waiting = new LinkedHashMap<>();
+    // World UID -> prefetch of the chunks around its spawn
+    private final Map<UUID, CompletableFuture<Location>> prefetched = new LinkedHashMap<>();
+    private BukkitTask task;
+    private int wave;
+    private int inFlight;
+    private int admitted;
+    private long startedMs;
+    // waiting.size() as of the last change, for metrics scrapes off the main thread
+    private volatile int waitingCount;
+
+    JoinAdmissionQueue(FullResetPlugin plugin, Function<World, CompletableFuture<Location>> spawnResolver) {
+        this.plugin = plugin;
+        this.spawnResolver = spawnResolver;
+    }
+
+    void enqueue(Player player, World target) {
+        if (waiting.isEmpty() && inFlight == 0) {
+            wave = clampWave(plugin.getConfig().getInt("players.joinQueue.initialWave", 5));
+            admitted = 0;
+            startedMs = System.currentTimeMillis();
+        }
+        waiting.put(player.getUniqueId(), target.getName());
+        waitingCount = waiting.size();
+        if (task == null) {
+            long interval = Math.max(1L, plugin.getConfig().getLong("players.joinQueue.intervalTicks", 20L));
+            task = Bukkit.getScheduler().runTaskTimer(plugin, this::pump, 1L, interval);
+        }
+    }
+
+    void remove(UUID id) {
+        waiting.remove(id);
+        waitingCount = waiting.size();
+    }
+
+    /** Safe to call from any thread. */
+    int size() {
+        return waitingCount;
+    }
+
+    private void pump() {
+        adaptWave();
+        Iterator<Map.Entry<UUID, String>> it = waiting.entrySet().iterator();
+        while (it.hasNext() && inFlight < wave) {
+            Map.Entry<UUID, String> e = it.next();
+            it.remove();
+            Player p = Bukkit.getPlayer(e.getKey());
+            World w = Bukkit.getWorld(e.getValue());
+            if (p == null || !p.isOnline() || w == null)
+                continue;
+            admit(p, w);
+        }
+
+        int position = 0;
+        int total = waiting.size();
+        for (UUID id : new ArrayList<>(waiting.keySet())) {
+            Player p = Bukkit.getPlayer(id);
+            if (p == null) {
+                waiting.remove(id);
+                continue;
+            }
+            p.sendActionBar(Component.text("Entering the new world... position " + (++position) + " of " + total));
+        }
+        waitingCount = waiting.size();
+
+        if (waiting.isEmpty() && inFlight == 0) {
+            task.cancel();
+            task = null;
+            prefetched.clear();
+            if (admitted > 0)
+                plugin.getLogger().info("Admitted " + admitted + " joining players into the new world in "
+                        + (System.currentTimeMillis() - startedMs) / 1000L + "s.");
+        }
+    }
+
+    private void admit(Player p, World w) {
+        inFlight++;
+        prefetch(w).thenCompose(spawn -> p.isOnline() ? p.teleportAsync(spawn)
+                : CompletableFuture.completedFuture(false))
+                .whenComplete((ok, ex) -> Bukkit.getScheduler().runTask(plugin, () -> {
+                    inFlight--;
+                    if (Boolean.TRUE.equals(ok)) {
+                        admitted++;
+                        plugin.getLogger().fine("Teleported joining player " + p.getName()
+                                + " to safe spawn (recent reset protection)");
+                    } else if (ex != null) {
+                        plugin.getLogger().warning("Failed to move " + p.getName() + " to the new spawn: "
+                                + ex.getMessage());
+                    }
+                }));
+    }
+
+    /**
+     * Resolves the safe spawn of {@code w} and loads the chunks around it
+     * asynchronously, once per drain of the queue.
+     */
+    private CompletableFuture<Location> prefetch(World w) {
+        return prefetched.computeIfAbsent(w.getUID(), uid -> spawnResolver.apply(w).thenCompose(spawn -> {
+            int radius = Math.max(0, plugin.getConfig().getInt("players.joinQueue.prefetchRadius", 2));
+            int cx = spawn.getBlockX() >> 4;
+            int cz = spawn.getBlockZ() >> 4;
+            List<CompletableFuture<?>> loads = new ArrayList<>();
+            for (int dx = -radius; dx <= radius; dx++)
+                for (int dz = -radius; dz <= radius; dz++)
+                    loads.add(w.getChunkAtAsync(cx + dx, cz + dz));
+            return CompletableFuture.allOf(loads.toArray(new CompletableFuture[0])).thenApply(v -> spawn);
+        }));
+    }
+
+    /** Additive increase while under the MSPT target, halving when over it. */
+    private void adaptWave() {
+        double target = plugin.getConfig().getDouble("players.joinQueue.targetMspt", 35.0);
+        double mspt = Bukkit.getAverageTickTime();
+        if (mspt > target)
+            wave = clampWave(wave / 2);
+        else if (mspt < target * 0.8)
+            wave = clampWave(wave + 1);
+    }
+
+    private int clampWave(int size) {
+        int max = Math.max(1, plugin.getConfig().getInt("players.joinQueue.maxWave", 20));
+        return Math.max(1, Math.min(max, size));
+    }
+}
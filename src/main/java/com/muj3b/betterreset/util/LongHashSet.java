@@ -0,0 +1,104 @@
+package com.muj3b.betterreset.util;
+
+/**
+ * Open-addressing hash set of primitive longs. Lookups never box or allocate,
+ * which keeps per-region membership checks cheap during large scans.
+ * Not thread-safe for writes; safe to read from many threads once published.
+ */
+public final class LongHashSet {
+    // Marks a free slot; the value itself is tracked separately via hasEmptyKey
+    private static final long EMPTY = Long.MIN_VALUE;
+    private static final float LOAD_FACTOR = 0.5f;
+
+    private long[] slots;
+    private int mask;
+    private int size;
+    private boolean hasEmptyKey;
+
+    public LongHashSet() {
+        this(16);
+    }
+
+    public LongHashSet(int expected) {
+        int capacity = Integer.highestOneBit(Math.max(16, (int) (expected / LOAD_FACTOR)) - 1) << 1;
+        allocate(capacity);
+    }
+
+    public boolean add(long value) {
+        if (value == EMPTY) {
+            if (hasEmptyKey)
+                return false;
+            hasEmptyKey = true;
+            size++;
+            return true;
+        }
+        int idx = mix(value) & mask;
+        while (slots[idx] != EMPTY) {
+            if (slots[idx] == value)
+                return false;
+            idx = (idx + 1) & mask;
+        }
+        slots[idx] = value;
+        size++;
+        if (size > slots.length * LOAD_FACTOR)
+            rehash(slots.length << 1);
+        return true;
+    }
+
+    public boolean contains(long value) {
+        if (value == EMPTY)
+            return hasEmptyKey;
+        int idx = mix(value) & mask;
+        long current;
+        while ((current = slots[idx]) != EMPTY) {
+            if (current == value)
+                return true;
+            idx = (idx + 1) & mask;
+        }
+        return false;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        java.util.Arrays.fill(slots, EMPTY);
+        size = 0;
+        hasEmptyKey = false;
+    }
+
+    private void allocate(int capacity) {
+        slots = new long[capacity];
+        java.util.Arrays.fill(slots, EMPTY);
+        mask = capacity - 1;
+    }
+
+    private void rehash(int capacity) {
+        long[] old = slots;
+        allocate(capacity);
+        for (long value : old) {
+            if (value == EMPTY)
+                continue;
+            int idx = mix(value) & mask;
+            while (slots[idx] != EMPTY)
+                idx = (idx + 1) & mask;
+            slots[idx] = value;
+        }
+    }
+
+    private static int mix(long value) {
+        // Murmur3 finalizer: spreads packed region coordinates across the table
+        long h = value;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return (int) h;
+    }
+}
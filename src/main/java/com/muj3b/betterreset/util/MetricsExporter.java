@@ -0,0 +1,126 @@
+package com.muj3b.betterreset.util;
+
+import com.muj3b.betterreset.FullResetPlugin;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.bukkit.Bukkit;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Publishes a {@link MetricsRegistry}: over HTTP at {@code /metrics} when
+ * {@code metrics.http.enabled} (bound to {@code metrics.http.bind}, localhost
+ * by default, served by one daemon thread), and/or as a text file rewritten
+ * every {@code metrics.file.intervalSeconds} for node-exporter's textfile
+ * collector or plain inspection.
+ */
+public final class MetricsExporter {
+
+    private static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+    private final FullResetPlugin plugin;
+    private final MetricsRegistry registry;
+    private HttpServer server;
+    private ExecutorService serverExecutor;
+    private BukkitTask fileTask;
+
+    public MetricsExporter(FullResetPlugin plugin, MetricsRegistry registry) {
+        this.plugin = plugin;
+        this.registry = registry;
+    }
+
+    public void start() {
+        if (plugin.getConfig().getBoolean("metrics.http.enabled", false))
+            startHttp();
+        if (plugin.getConfig().getBoolean("metrics.file.enabled", false)) {
+            long period = Math.max(5L, plugin.getConfig().getLong("metrics.file.intervalSeconds", 30L)) * 20L;
+            fileTask = Bukkit.getScheduler().runTaskTimerAsynchronously(plugin, this::writeFile, period, period);
+        }
+    }
+
+    public void stop() {
+        if (fileTask != null) {
+            fileTask.cancel();
+            fileTask = null;
+        }
+        if (server != null) {
+            server.stop(0);
+            server = null;
+        }
+        if (serverExecutor != null) {
+            serverExecutor.shutdownNow();
+            serverExecutor = null;
+        }
+    }
+
+    private void startHttp() {
+        String bind = plugin.getConfig().getString("metrics.http.bind", "127.0.0.1");
+        int port = plugin.getConfig().getInt("metrics.http.port", 9465);
+        try {
+            server = HttpServer.create(new InetSocketAddress(bind, port), 0);
+        } catch (IOException ex) {
+            plugin.getLogger().warning("Failed to start metrics endpoint on " + bind + ":" + port + ": "
+                    + ex.getMessage());
+            return;
+        }
+        server.createContext("/metrics", this::handle);
+        serverExecutor = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "betterreset-metrics");
+            t.setDaemon(true);
+            return t;
+        });
+        server.setExecutor(serverExecutor);
+        server.start();
+        plugin.getLogger().info("Serving metrics at http://" + bind + ":" + port + "/metrics");
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            if (!"GET".equals(exchange.getRequestMethod()) && !"HEAD".equals(exchange.getRequestMethod())) {
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+            byte[] body = registry.scrape().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", CONTENT_TYPE);
+            if ("HEAD".equals(exchange.getRequestMethod())) {
+                exchange.sendResponseHeaders(200, -1);
+                return;
+            }
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private void writeFile() {
+        String name = plugin.getConfig().getString("metrics.file.path", "metrics.prom");
+        Path file = Path.of(name);
+        if (!file.isAbsolute())
+            file = plugin.getDataFolder().toPath().resolve(name);
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try {
+            Files.createDirectories(file.toAbsolutePath().getParent());
+            Files.writeString(tmp, registry.scrape(), StandardCharsets.UTF_8);
+            try {
+                Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException ex) {
+                Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException ex) {
+            plugin.getLogger().warning("Failed to write metrics file: " + ex.getMessage());
+        }
+    }
+}
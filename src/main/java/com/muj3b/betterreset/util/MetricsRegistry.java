@@ -0,0 +1,226 @@
+package com.muj3b.betterreset.util;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.DoubleSupplier;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * In-process metrics: counters, gauges and histograms, optionally labelled,
+ * rendered in the Prometheus text format by {@link #scrape()}. Updates are
+ * lock-free adders, so recording from the main thread costs a few nanos; the
+ * callback metrics ({@link #counter(String, String, LongSupplier)} and
+ * {@link #gauge}) are evaluated only when scraped, off the main thread, and
+ * must tolerate that.
+ *
+ * Labels are given as alternating key/value strings. A metric name keeps the
+ * type and help text it was first registered with.
+ */
+public final class MetricsRegistry {
+
+    /** Default buckets for durations in seconds. */
+    public static final double[] DURATION_BUCKETS = {0.1, 0.5, 1, 5, 10, 30, 60, 120, 300, 600};
+
+    private enum Type {
+        COUNTER, GAUGE, HISTOGRAM;
+
+        String text() {
+            return name().toLowerCase(Locale.ROOT);
+        }
+    }
+
+    private static final class Family {
+        final Type type;
+        final String help;
+        // Rendered label set -> Counter, Histogram, LongSupplier or DoubleSupplier
+        final Map<String, Object> children = new ConcurrentSkipListMap<>();
+
+        Family(Type type, String help) {
+            this.type = type;
+            this.help = help;
+        }
+    }
+
+    public static final class Counter {
+        private final LongAdder value = new LongAdder();
+
+        public void inc() {
+            value.increment();
+        }
+
+        public void add(long amount) {
+            if (amount > 0)
+                value.add(amount);
+        }
+
+        public long get() {
+            return value.sum();
+        }
+    }
+
+    public static final class Histogram {
+        private final double[] bounds;
+        private final LongAdder[] buckets;
+        private final LongAdder count = new LongAdder();
+        private final DoubleAdder sum = new DoubleAdder();
+
+        Histogram(double[] bounds) {
+            this.bounds = bounds;
+            this.buckets = new LongAdder[bounds.length];
+            for (int i = 0; i < bounds.length; i++)
+                buckets[i] = new LongAdder();
+        }
+
+        public void observe(double value) {
+            int i = Arrays.binarySearch(bounds, value);
+            // First bucket whose upper bound is >= value; buckets are cumulated when rendered
+            int idx = i >= 0 ? i : -i - 1;
+            if (idx < buckets.length)
+                buckets[idx].increment();
+            count.increment();
+            sum.add(value);
+        }
+
+        public void observeMillis(long millis) {
+            observe(millis / 1000.0);
+        }
+    }
+
+    private final Map<String, Family> families = new ConcurrentSkipListMap<>();
+
+    /**
+     * Wraps an expensive source so scrapes reuse its value for {@code millis}.
+     */
+    public static <T> Supplier<T> cached(long millis, Supplier<T> source) {
+        return new Supplier<>() {
+            private T value;
+            private long loadedAt;
+
+            @Override
+            public synchronized T get() {
+                long now = System.currentTimeMillis();
+                if (value == null || now - loadedAt >= millis) {
+                    value = source.get();
+                    loadedAt = now;
+                }
+                return value;
+            }
+        };
+    }
+
+    public Counter counter(String name, String help, String... labels) {
+        return (Counter) family(name, Type.COUNTER, help).children.computeIfAbsent(labels(labels),
+                k -> new Counter());
+    }
+
+    /** A counter read from {@code source}, which must never decrease. */
+    public void counter(String name, String help, LongSupplier source, String... labels) {
+        family(name, Type.COUNTER, help).children.put(labels(labels), source);
+    }
+
+    public void gauge(String name, String help, DoubleSupplier source, String... labels) {
+        family(name, Type.GAUGE, help).children.put(labels(labels), source);
+    }
+
+    public Histogram histogram(String name, String help, double[] buckets, String... labels) {
+        return (Histogram) family(name, Type.HISTOGRAM, help).children.computeIfAbsent(labels(labels), k -> {
+            double[] bounds = buckets.clone();
+            Arrays.sort(bounds);
+            return new Histogram(bounds);
+        });
+    }
+
+    /**
+     * All metrics in the Prometheus text exposition format (version 0.0.4).
+     * A callback that throws is left out of that scrape.
+     */
+    public String scrape() {
+        StringBuilder sb = new StringBuilder(4096);
+        for (Map.Entry<String, Family> e : families.entrySet()) {
+            String name = e.getKey();
+            Family family = e.getValue();
+            sb.append("# HELP ").append(name).append(' ').append(family.help.replace("\\", "\\\\")
+                    .replace("\n", "\\n")).append('\n');
+            sb.append("# TYPE ").append(name).append(' ').append(family.type.text()).append('\n');
+            for (Map.Entry<String, Object> child : family.children.entrySet()) {
+                String labels = child.getKey();
+                Object metric = child.getValue();
+                try {
+                    if (metric instanceof Counter c)
+                        sample(sb, name, labels, c.get());
+                    else if (metric instanceof LongSupplier s)
+                        sample(sb, name, labels, s.getAsLong());
+                    else if (metric instanceof DoubleSupplier s)
+                        sample(sb, name, labels, s.getAsDouble());
+                    else if (metric instanceof Histogram h)
+                        histogram(sb, name, labels, h);
+                } catch (RuntimeException ignored) {
+                }
+            }
+        }
+        return sb.toString();
+    }
+
+    private static void histogram(StringBuilder sb, String name, String labels, Histogram h) {
+        long cumulative = 0;
+        for (int i = 0; i < h.bounds.length; i++) {
+            cumulative += h.buckets[i].sum();
+            sample(sb, name + "_bucket", withLe(labels, format(h.bounds[i])), cumulative);
+        }
+        long count = h.count.sum();
+        sample(sb, name + "_bucket", withLe(labels, "+Inf"), count);
+        sample(sb, name + "_sum", labels, h.sum.sum());
+        sample(sb, name + "_count", labels, count);
+    }
+
+    private static String withLe(String labels, String le) {
+        String pair = "le=\"" + le + "\"";
+        return labels.isEmpty() ? "{" + pair + "}" : labels.substring(0, labels.length() - 1) + "," + pair + "}";
+    }
+
+    private static void sample(StringBuilder sb, String name, String labels, long value) {
+        sb.append(name).append(labels).append(' ').append(value).append('\n');
+    }
+
+    private static void sample(StringBuilder sb, String name, String labels, double value) {
+        sb.append(name).append(labels).append(' ').append(format(value)).append('\n');
+    }
+
+    private static String format(double value) {
+        if (Double.isNaN(value))
+            return "NaN";
+        if (Double.isInfinite(value))
+            return value > 0 ? "+Inf" : "-Inf";
+        if (value == Math.rint(value) && Math.abs(value) < 1e15)
+            return Long.toString((long) value);
+        return Double.toString(value);
+    }
+
+    private Family family(String name, Type type, String help) {
+        Family family = families.computeIfAbsent(name, k -> new Family(type, help));
+        if (family.type != type)
+            throw new IllegalArgumentException("Metric " + name + " is a " + family.type.text());
+        return family;
+    }
+
+    private static String labels(String... kv) {
+        if (kv.length == 0)
+            return "";
+        if (kv.length % 2 != 0)
+            throw new IllegalArgumentException("Labels must be key/value pairs");
+        StringBuilder sb = new StringBuilder("{");
+        for (int i = 0; i < kv.length; i += 2) {
+            if (i > 0)
+                sb.append(',');
+            String value = kv[i + 1] == null ? "" : kv[i + 1];
+            sb.append(kv[i]).append("=\"")
+                    .append(value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n")).append('"');
+        }
+        return sb.append('}').toString();
+    }
+}
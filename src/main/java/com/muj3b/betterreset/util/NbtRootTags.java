@@ -0,0 +1,87 @@
+package com.muj3b.betterreset.util;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Reads a few root tags of a gzip-compressed NBT file (such as
+ * {@code playerdata/<uuid>.dat}) without building the rest of the tree.
+ * Ints come back as {@link Integer}, strings as {@link String}, int arrays
+ * as {@code int[]} and compounds as maps of those; other tags are skipped
+ * the way {@link NbtTagFilter} skips dropped ones.
+ */
+public final class NbtRootTags {
+
+    private static final int TAG_END = 0;
+    private static final int TAG_INT = 3;
+    private static final int TAG_STRING = 8;
+    private static final int TAG_COMPOUND = 10;
+    private static final int TAG_INT_ARRAY = 11;
+
+    private NbtRootTags() {
+    }
+
+    /**
+     * Values of the root tags named in {@code names} that are present.
+     */
+    public static Map<String, Object> read(Path file, Set<String> names) throws IOException {
+        try (InputStream raw = Files.newInputStream(file);
+                DataInputStream in = new DataInputStream(new BufferedInputStream(new GZIPInputStream(raw)))) {
+            int type = in.readUnsignedByte();
+            if (type != TAG_COMPOUND)
+                throw new IOException("root tag is not a compound (" + type + ")");
+            NbtTagFilter.readName(in);
+            Map<String, Object> out = new HashMap<>();
+            while (true) {
+                int child = in.readUnsignedByte();
+                if (child == TAG_END)
+                    return out;
+                String name = new String(NbtTagFilter.readName(in), StandardCharsets.UTF_8);
+                if (names.contains(name))
+                    readValue(child, in, out, name, 0);
+                else
+                    NbtTagFilter.transfer(child, in, null, 0);
+            }
+        }
+    }
+
+    private static void readValue(int type, DataInputStream in, Map<String, Object> out, String name, int depth)
+            throws IOException {
+        switch (type) {
+            case TAG_INT -> out.put(name, in.readInt());
+            case TAG_STRING -> out.put(name, in.readUTF());
+            case TAG_INT_ARRAY -> {
+                int len = in.readInt();
+                if (len < 0 || len > 4096)
+                    throw new IOException("bad NBT int array length " + len);
+                int[] values = new int[len];
+                for (int i = 0; i < len; i++)
+                    values[i] = in.readInt();
+                out.put(name, values);
+            }
+            case TAG_COMPOUND -> {
+                if (depth > 16)
+                    throw new IOException("NBT nested too deeply");
+                Map<String, Object> compound = new HashMap<>();
+                while (true) {
+                    int child = in.readUnsignedByte();
+                    if (child == TAG_END)
+                        break;
+                    readValue(child, in, compound, new String(NbtTagFilter.readName(in), StandardCharsets.UTF_8),
+                            depth + 1);
+                }
+                out.put(name, compound);
+            }
+            default -> NbtTagFilter.transfer(type, in, null, depth);
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package com.muj3b.betterreset.util;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Set;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Streams a gzip-compressed NBT file (such as {@code playerdata/<uuid>.dat})
+ * into a copy without some of its root compound's tags. Everything else is
+ * copied byte for byte without building a tag tree. The copy replaces the
+ * original through a temp file and an atomic move.
+ */
+final class NbtTagFilter {
+
+    private static final int TAG_END = 0;
+    private static final int TAG_COMPOUND = 10;
+    private static final int MAX_DEPTH = 512;
+
+    private NbtTagFilter() {
+    }
+
+    /**
+     * Removes the root tags named in {@code drop} from {@code file}.
+     *
+     * @return number of tags removed; the file is left untouched when zero
+     */
+    static int rewrite(Path file, Set<String> drop) throws IOException {
+        Path tmp = file.resolveSibling(file.getFileName() + ".betterreset.tmp");
+        int dropped;
+        try (InputStream raw = Files.newInputStream(file);
+                DataInputStream in = new DataInputStream(new BufferedInputStream(new GZIPInputStream(raw)));
+                OutputStream rawOut = Files.newOutputStream(tmp);
+                DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new GZIPOutputStream(rawOut)))) {
+            int type = in.readUnsignedByte();
+            if (type != TAG_COMPOUND)
+                throw new IOException("root tag is not a compound (" + type + ")");
+            out.writeByte(type);
+            copyName(in, out);
+            dropped = 0;
+            while (true) {
+                int child = in.readUnsignedByte();
+                if (child == TAG_END) {
+                    out.writeByte(TAG_END);
+                    break;
+                }
+                byte[] name = readName(in);
+                if (drop.contains(new String(name, StandardCharsets.UTF_8))) {
+                    transfer(child, in, null, 0);
+                    dropped++;
+                    continue;
+                }
+                out.writeByte(child);
+                out.writeShort(name.length);
+                out.write(name);
+                transfer(child, in, out, 0);
+            }
+        } catch (IOException | RuntimeException ex) {
+            Files.deleteIfExists(tmp);
+            throw ex;
+        }
+        if (dropped == 0) {
+            Files.deleteIfExists(tmp);
+            return 0;
+        }
+        try {
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException ex) {
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+        }
+        return dropped;
+    }
+
+    /**
+     * Copies (or skips, when {@code out} is null) one payload of the given tag type.
+     */
+    static void transfer(int type, DataInputStream in, DataOutputStream out, int depth) throws IOException {
+        if (depth > MAX_DEPTH)
+            throw new IOException("NBT nested too deeply");
+        switch (type) {
+            case 1 -> bytes(in, out, 1);
+            case 2 -> bytes(in, out, 2);
+            case 3, 5 -> bytes(in, out, 4);
+            case 4, 6 -> bytes(in, out, 8);
+            case 7 -> bytes(in, out, length(in, out));
+            case 8 -> {
+                int len = in.readUnsignedShort();
+                if (out != null)
+                    out.writeShort(len);
+                bytes(in, out, len);
+            }
+            case 9 -> {
+                int elementType = in.readUnsignedByte();
+                if (out != null)
+                    out.writeByte(elementType);
+                int len = length(in, out);
+                for (int i = 0; i < len; i++)
+                    transfer(elementType, in, out, depth + 1);
+            }
+            case 10 -> {
+                while (true) {
+                    int child = in.readUnsignedByte();
+                    if (out != null)
+                        out.writeByte(child);
+                    if (child == TAG_END)
+                        break;
+                    copyName(in, out);
+                    transfer(child, in, out, depth + 1);
+                }
+            }
+            case 11 -> bytes(in, out, (long) length(in, out) * 4L);
+            case 12 -> bytes(in, out, (long) length(in, out) * 8L);
+            default -> throw new IOException("unknown NBT tag type " + type);
+        }
+    }
+
+    private static int length(DataInputStream in, DataOutputStream out) throws IOException {
+        int len = in.readInt();
+        if (len < 0)
+            throw new IOException("negative NBT length");
+        if (out != null)
+            out.writeInt(len);
+        return len;
+    }
+
+    static byte[] readName(DataInputStream in) throws IOException {
+        byte[] name = new byte[in.readUnsignedShort()];
+        in.readFully(name);
+        return name;
+    }
+
+    private static void copyName(DataInputStream in, DataOutputStream out) throws IOException {
+        int len = in.readUnsignedShort();
+        if (out != null)
+            out.writeShort(len);
+        bytes(in, out, len);
+    }
+
+    private static void bytes(DataInputStream in, DataOutputStream out, long count) throws IOException {
+        byte[] buf = new byte[(int) Math.min(count, 8192L)];
+        while (count > 0) {
+            int n = (int) Math.min(count, buf.length);
+            in.readFully(buf, 0, n);
+            if (out != null)
+                out.write(buf, 0, n);
+            count -= n;
+        }
+    }
+}
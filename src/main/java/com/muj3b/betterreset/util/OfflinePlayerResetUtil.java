@@ -1,29 +1,97 @@
 package com.muj3b.betterreset.util;
 
+import com.muj3b.betterreset.FullResetPlugin;
 import org.bukkit.Bukkit;
 import org.bukkit.World;
 import org.bukkit.entity.Player;
 
 import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
 import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.Executor;
-import java.util.logging.Logger;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 
 /**
  * Utility class for resetting offline player data.
  * Deletes offline player .dat files so they start fresh when rejoining.
+ *
+ * The playerdata, stats and advancements folders are streamed with a
+ * DirectoryStream and the files of offline players are deleted in parallel
+ * batches. A reset logs one summary line; the per-player list optionally
+ * goes to a detail file under offline-resets/. Swap mode instead renames the
+ * folders aside and lets a background reaper delete them; selective mode
+ * rewrites each .dat without the configured NBT tags (see NbtTagFilter).
  */
 public class OfflinePlayerResetUtil {
 
-    private final Logger logger;
-    private final Executor executor;
+    /** Folder, and file suffixes that belong to one player, e.g. {@code <uuid>.dat}. */
+    private enum Kind {
+        PLAYERDATA("playerdata", ".dat", ".dat_old"),
+        STATS("stats", ".json"),
+        ADVANCEMENTS("advancements", ".json");
 
-    public OfflinePlayerResetUtil(Logger logger, Executor executor) {
-        this.logger = logger;
-        this.executor = executor;
+        final String folder;
+        final String[] suffixes;
+
+        Kind(String folder, String... suffixes) {
+            this.folder = folder;
+            this.suffixes = suffixes;
+        }
+    }
+
+    /**
+     * Outcome of one offline reset. {@code players} counts players whose
+     * playerdata was removed.
+     */
+    public record Summary(int players, int statsDeleted, int advancementsDeleted, int failed, long millis) {
+    }
+
+    /** Progress of a running reset, in deleted-or-failed files out of all matched files. */
+    public record Progress(int done, int total) {
+    }
+
+    private record Target(Kind kind, UUID player, Path file) {
+    }
+
+    /**
+     * Root tags always dropped by a selective reset: the player's position and
+     * spawn point refer to the old world, so they restart at the new spawn.
+     */
+    private static final Set<String> LOCATION_TAGS = Set.of("Pos", "Motion", "Rotation", "Dimension",
+            "FallDistance", "OnGround", "RootVehicle", "SpawnX", "SpawnY", "SpawnZ", "SpawnAngle", "SpawnDimension",
+            "SpawnForced", "respawn", "enteredNetherPosition", "ender_pearls", "warden_spawn_tracker");
+
+    /** Suffix of folders moved aside by a swap reset and awaiting deletion. */
+    private static final String REAP_MARKER = ".betterreset-reap-";
+
+    private final FullResetPlugin plugin;
+
+    public OfflinePlayerResetUtil(FullResetPlugin plugin) {
+        this.plugin = plugin;
+        // Next tick, once the background executor exists
+        Bukkit.getScheduler().runTask(plugin, this::reapLeftovers);
     }
 
     /**
@@ -32,25 +100,37 @@ public class OfflinePlayerResetUtil {
      * Online players are excluded from deletion.
      *
      * @param baseWorld The base world name (e.g., "world")
-     * @return CompletableFuture containing the count of reset players
+     * @param progress  Called from worker threads roughly every 10% of files
+     * @return CompletableFuture containing the summary of the reset
+     */
+    public CompletableFuture<Summary> resetOfflinePlayers(String baseWorld, Consumer<Progress> progress) {
+        return resetOfflinePlayers(baseWorld, false, progress);
+    }
+
+    /**
+     * Like {@link #resetOfflinePlayers(String, Consumer)}; when
+     * {@code selective} is set, playerdata files are rewritten without the
+     * tags under {@code players.offlineReset.selective} instead of deleted,
+     * and stats/advancements are only deleted if configured.
      */
-    public CompletableFuture<Integer> resetOfflinePlayers(String baseWorld) {
+    public CompletableFuture<Summary> resetOfflinePlayers(String baseWorld, boolean selective,
+            Consumer<Progress> progress) {
         File worldFolder = resolveWorldFolder(baseWorld);
         if (worldFolder == null) {
-            logger.warning("World folder not found for: " + baseWorld);
-            return CompletableFuture.completedFuture(0);
+            plugin.getLogger().warning("World folder not found for: " + baseWorld);
+            return CompletableFuture.completedFuture(new Summary(0, 0, 0, 0, 0L));
         }
 
         Set<UUID> onlineSnapshot = captureOnlinePlayers();
-
+        ExecutorService bg = plugin.getBackgroundExecutor();
         return CompletableFuture.supplyAsync(() -> {
             try {
-                return performOfflineReset(worldFolder, onlineSnapshot);
+                return performOfflineReset(baseWorld, worldFolder.toPath(), onlineSnapshot, selective, progress);
             } catch (Exception e) {
-                logger.severe("Error resetting offline players: " + e.getMessage());
-                return 0;
+                plugin.getLogger().severe("Error resetting offline players: " + e.getMessage());
+                return new Summary(0, 0, 0, 0, 0L);
             }
-        }, executor);
+        }, bg != null ? bg : Runnable::run);
     }
 
     /**
@@ -64,72 +144,203 @@ public class OfflinePlayerResetUtil {
         if (worldFolder == null) {
             return 0;
         }
-
-        Set<UUID> onlineUUIDs = captureOnlinePlayers();
-        File playerDataDir = new File(worldFolder, "playerdata");
-        if (!playerDataDir.exists()) {
-            return 0;
-        }
-
-        File[] datFiles = playerDataDir.listFiles((dir, name) -> name.endsWith(".dat"));
-        if (datFiles == null) {
+        try {
+            Set<UUID> players = new HashSet<>();
+            for (Target t : collect(worldFolder.toPath(), Kind.PLAYERDATA, captureOnlinePlayers()))
+                players.add(t.player());
+            return players.size();
+        } catch (IOException e) {
             return 0;
         }
+    }
 
-        int count = 0;
-        for (File datFile : datFiles) {
+    /**
+     * Resets offline players by renaming the playerdata, stats and
+     * advancements folders aside, creating empty ones and copying back only
+     * the files of {@code online} players. Cost depends on the number of
+     * online players, not on the folder sizes. The old folders are deleted by
+     * the background reaper. Must run on the main thread so the server does
+     * not save player data in between.
+     *
+     * @return number of online players whose files were carried over
+     */
+    public int swapReset(String baseWorld, Collection<UUID> online) throws IOException {
+        long start = System.currentTimeMillis();
+        Path worldFolder = new File(Bukkit.getWorldContainer(), baseWorld).toPath();
+        String stamp = REAP_MARKER + System.currentTimeMillis();
+        Set<UUID> kept = new HashSet<>();
+        for (Kind kind : Kind.values()) {
+            Path dir = worldFolder.resolve(kind.folder);
+            if (!Files.isDirectory(dir))
+                continue;
+            Path aside = worldFolder.resolve(kind.folder + stamp);
             try {
-                String fileName = datFile.getName();
-                String uuidStr = fileName.substring(0, fileName.length() - 4);
-                UUID playerUUID = UUID.fromString(uuidStr);
-                if (!onlineUUIDs.contains(playerUUID)) {
-                    count++;
+                Files.move(dir, aside, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(dir, aside);
+            }
+            Files.createDirectories(dir);
+            for (UUID id : online) {
+                for (String suffix : kind.suffixes) {
+                    Path src = aside.resolve(id + suffix);
+                    if (Files.exists(src)) {
+                        Files.copy(src, dir.resolve(id + suffix), StandardCopyOption.COPY_ATTRIBUTES);
+                        kept.add(id);
+                    }
                 }
-            } catch (IllegalArgumentException e) {
-                // Not a valid UUID filename, skip
             }
+            reapAsync(aside);
         }
-        return count;
+        plugin.getLogger().info("Offline reset (swap) for '" + baseWorld + "': folders moved aside, " + kept.size()
+                + " online players carried over in " + (System.currentTimeMillis() - start) + "ms.");
+        return kept.size();
     }
 
-    private int performOfflineReset(File worldFolder, Set<UUID> onlineUUIDs) {
-        File playerDataDir = new File(worldFolder, "playerdata");
-        if (!playerDataDir.exists()) {
-            logger.warning("Player data directory not found for world: " + worldFolder.getName());
-            return 0;
-        }
+    /**
+     * Deletes one player's playerdata, stats and advancements below the base
+     * world folder. The player must not be online; safe to call off the main
+     * thread.
+     *
+     * @return number of files deleted
+     */
+    public int resetPlayer(String baseWorld, UUID player) throws IOException {
+        Path worldFolder = new File(Bukkit.getWorldContainer(), baseWorld).toPath();
+        int deleted = 0;
+        for (Kind kind : Kind.values())
+            for (String suffix : kind.suffixes)
+                if (Files.deleteIfExists(worldFolder.resolve(kind.folder).resolve(player + suffix)))
+                    deleted++;
+        return deleted;
+    }
 
-        int resetCount = 0;
-        File[] datFiles = playerDataDir.listFiles((dir, name) -> name.endsWith(".dat"));
-        if (datFiles == null) {
-            return 0;
+    private Summary performOfflineReset(String baseWorld, Path worldFolder, Set<UUID> onlineUUIDs,
+            boolean selective, Consumer<Progress> progress) throws IOException {
+        long start = System.currentTimeMillis();
+        Set<String> dropTags = new HashSet<>();
+        if (selective) {
+            dropTags.addAll(LOCATION_TAGS);
+            dropTags.addAll(plugin.getConfig().getStringList("players.offlineReset.selective.dropTags"));
         }
+        List<Target> targets = new ArrayList<>();
+        for (Kind kind : Kind.values()) {
+            if (selective && kind == Kind.STATS
+                    && !plugin.getConfig().getBoolean("players.offlineReset.selective.resetStats", true))
+                continue;
+            if (selective && kind == Kind.ADVANCEMENTS
+                    && !plugin.getConfig().getBoolean("players.offlineReset.selective.resetAdvancements", false))
+                continue;
+            targets.addAll(collect(worldFolder, kind, onlineUUIDs));
+        }
+        if (targets.isEmpty())
+            return new Summary(0, 0, 0, 0, System.currentTimeMillis() - start);
 
-        for (File datFile : datFiles) {
-            try {
-                String fileName = datFile.getName();
-                String uuidStr = fileName.substring(0, fileName.length() - 4);
-                UUID playerUUID = UUID.fromString(uuidStr);
+        int batchSize = Math.max(1, plugin.getConfig().getInt("players.offlineReset.batchSize", 256));
+        int threads = Math.max(1, plugin.getConfig().getInt("players.offlineReset.threads", 4));
+        int total = targets.size();
+        int reportEvery = Math.max(1, total / 10);
+        AtomicInteger done = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+        Set<UUID> players = ConcurrentHashMap.newKeySet();
+        AtomicInteger stats = new AtomicInteger();
+        AtomicInteger advancements = new AtomicInteger();
+        boolean wantDetails = plugin.getConfig().getBoolean("players.offlineReset.detailFile", false);
+        ConcurrentLinkedQueue<String> details = new ConcurrentLinkedQueue<>();
 
-                if (onlineUUIDs.contains(playerUUID)) {
-                    continue;
-                }
+        // A private pool: the background executor may be the thread running this
+        ExecutorService pool = Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "betterreset-offline-reset");
+            t.setDaemon(true);
+            return t;
+        });
+        try {
+            List<CompletableFuture<Void>> batches = new ArrayList<>();
+            for (int from = 0; from < total; from += batchSize) {
+                List<Target> batch = targets.subList(from, Math.min(total, from + batchSize));
+                batches.add(CompletableFuture.runAsync(() -> {
+                    for (Target t : batch) {
+                        try {
+                            if (selective && t.kind() == Kind.PLAYERDATA)
+                                NbtTagFilter.rewrite(t.file(), dropTags);
+                            else
+                                Files.deleteIfExists(t.file());
+                            switch (t.kind()) {
+                                case PLAYERDATA -> players.add(t.player());
+                                case STATS -> stats.incrementAndGet();
+                                case ADVANCEMENTS -> advancements.incrementAndGet();
+                            }
+                            if (wantDetails)
+                                details.add((selective && t.kind() == Kind.PLAYERDATA ? "rewrote " : "deleted ")
+                                        + t.kind().folder + "/" + t.file().getFileName());
+                        } catch (IOException e) {
+                            failed.incrementAndGet();
+                            details.add("FAILED " + t.kind().folder + "/" + t.file().getFileName() + ": "
+                                    + e.getMessage());
+                        }
+                        int n = done.incrementAndGet();
+                        if (progress != null && (n % reportEvery == 0 || n == total))
+                            progress.accept(new Progress(n, total));
+                    }
+                }, pool));
+            }
+            CompletableFuture.allOf(batches.toArray(new CompletableFuture[0])).join();
+        } finally {
+            pool.shutdown();
+        }
+
+        Summary summary = new Summary(players.size(), stats.get(), advancements.get(), failed.get(),
+                System.currentTimeMillis() - start);
+        plugin.getLogger().info("Offline reset for '" + baseWorld + "': " + summary.players() + " players, "
+                + summary.statsDeleted() + " stats and " + summary.advancementsDeleted() + " advancement files deleted"
+                + (summary.failed() > 0 ? ", " + summary.failed() + " failed" : "") + " in " + summary.millis() + "ms.");
+        if (wantDetails)
+            writeDetails(baseWorld, details);
+        return summary;
+    }
 
-                if (datFile.delete()) {
-                    resetCount++;
-                    logger.info("Reset offline player data: " + uuidStr);
-                } else {
-                    logger.warning("Failed to delete player data file: " + datFile.getAbsolutePath());
+    /**
+     * Files of offline players in one folder, streamed rather than listed.
+     */
+    private static List<Target> collect(Path worldFolder, Kind kind, Set<UUID> onlineUUIDs) throws IOException {
+        List<Target> out = new ArrayList<>();
+        Path dir = worldFolder.resolve(kind.folder);
+        if (!Files.isDirectory(dir))
+            return out;
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir)) {
+            for (Path file : stream) {
+                String name = file.getFileName().toString();
+                for (String suffix : kind.suffixes) {
+                    if (!name.endsWith(suffix))
+                        continue;
+                    UUID id = parseUuid(name.substring(0, name.length() - suffix.length()));
+                    if (id != null && !onlineUUIDs.contains(id))
+                        out.add(new Target(kind, id, file));
+                    break;
                 }
-            } catch (IllegalArgumentException e) {
-                logger.fine("Skipping non-UUID file: " + datFile.getName());
             }
+        } catch (NoSuchFileException e) {
+            // Folder removed meanwhile
         }
+        return out;
+    }
 
-        resetPlayerStats(worldFolder, onlineUUIDs);
-        resetPlayerAdvancements(worldFolder, onlineUUIDs);
+    private static UUID parseUuid(String s) {
+        try {
+            return UUID.fromString(s);
+        } catch (IllegalArgumentException e) {
+            // Not a valid UUID filename, skip
+            return null;
+        }
+    }
 
-        return resetCount;
+    private void writeDetails(String baseWorld, ConcurrentLinkedQueue<String> details) {
+        try {
+            Path dir = plugin.getDataFolder().toPath().resolve("offline-resets");
+            Files.createDirectories(dir);
+            String stamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss", Locale.ROOT));
+            Files.write(dir.resolve(baseWorld + "-" + stamp + ".log"), details, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            plugin.getLogger().warning("Failed to write offline reset details: " + e.getMessage());
+        }
     }
 
     private Set<UUID> captureOnlinePlayers() {
@@ -141,78 +352,56 @@ public class OfflinePlayerResetUtil {
     }
 
     /**
-     * Resolve the world folder containing player data.
+     * Deletes folders left aside by {@link #swapReset} in every world folder,
+     * e.g. after a crash before the reaper finished.
      */
-    private File resolveWorldFolder(String baseWorld) {
-        World world = Bukkit.getWorld(baseWorld);
-        if (world != null) {
-            return world.getWorldFolder();
-        }
-        File folder = new File(Bukkit.getWorldContainer(), baseWorld);
-        return folder.exists() ? folder : null;
-    }
-
-    /**
-     * Resets player statistics files for offline players.
-     */
-    private void resetPlayerStats(File worldFolder, Set<UUID> onlineUUIDs) {
-        File statsDir = new File(worldFolder, "stats");
-
-        if (!statsDir.exists()) {
+    private void reapLeftovers() {
+        File[] worlds = Bukkit.getWorldContainer().listFiles(File::isDirectory);
+        if (worlds == null)
             return;
+        for (File world : worlds) {
+            File[] leftovers = world.listFiles(f -> f.isDirectory() && f.getName().contains(REAP_MARKER));
+            if (leftovers == null)
+                continue;
+            for (File f : leftovers)
+                reapAsync(f.toPath());
         }
+    }
 
-        File[] statsFiles = statsDir.listFiles((dir, name) -> name.endsWith(".json"));
-        if (statsFiles == null) {
-            return;
-        }
-
-        for (File statsFile : statsFiles) {
-            try {
-                String fileName = statsFile.getName();
-                String uuidStr = fileName.substring(0, fileName.length() - 5); // Remove .json
-                UUID playerUUID = UUID.fromString(uuidStr);
-
-                if (!onlineUUIDs.contains(playerUUID)) {
-                    if (statsFile.delete()) {
-                        logger.fine("Reset offline player stats: " + uuidStr);
+    private void reapAsync(Path folder) {
+        Runnable reap = () -> {
+            try (var walk = Files.walk(folder)) {
+                // Children before parents
+                walk.sorted(Comparator.reverseOrder()).forEach(p -> {
+                    try {
+                        Files.deleteIfExists(p);
+                    } catch (IOException ignored) {
                     }
-                }
-            } catch (IllegalArgumentException e) {
-                // Not a valid UUID filename, skip
+                });
+            } catch (IOException e) {
+                plugin.getLogger().warning("Failed to remove old player data '" + folder + "': " + e.getMessage());
             }
+        };
+        ExecutorService bg = plugin.getBackgroundExecutor();
+        try {
+            if (bg != null) {
+                bg.submit(reap);
+                return;
+            }
+        } catch (RejectedExecutionException ignored) {
         }
+        reap.run();
     }
 
     /**
-     * Resets player advancements files for offline players.
+     * Resolve the world folder containing player data.
      */
-    private void resetPlayerAdvancements(File worldFolder, Set<UUID> onlineUUIDs) {
-        File advancementsDir = new File(worldFolder, "advancements");
-
-        if (!advancementsDir.exists()) {
-            return;
-        }
-
-        File[] advFiles = advancementsDir.listFiles((dir, name) -> name.endsWith(".json"));
-        if (advFiles == null) {
-            return;
-        }
-
-        for (File advFile : advFiles) {
-            try {
-                String fileName = advFile.getName();
-                String uuidStr = fileName.substring(0, fileName.length() - 5); // Remove .json
-                UUID playerUUID = UUID.fromString(uuidStr);
-
-                if (!onlineUUIDs.contains(playerUUID)) {
-                    if (advFile.delete()) {
-                        logger.fine("Reset offline player advancements: " + uuidStr);
-                    }
-                }
-            } catch (IllegalArgumentException e) {
-                // Not a valid UUID filename, skip
-            }
+    private File resolveWorldFolder(String baseWorld) {
+        World world = Bukkit.getWorld(baseWorld);
+        if (world != null) {
+            return world.getWorldFolder();
         }
+        File folder = new File(Bukkit.getWorldContainer(), baseWorld);
+        return folder.exists() ? folder : null;
     }
 }
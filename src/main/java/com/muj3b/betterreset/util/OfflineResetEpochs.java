@@ -0,0 +1,249 @@
+package com.muj3b.betterreset.util;
+
+import com.muj3b.betterreset.FullResetPlugin;
+import org.bukkit.Bukkit;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.AsyncPlayerPreLoginEvent;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lazy offline-player reset ({@code players.offlineReset.mode: lazy}). A
+ * reset only bumps the base's epoch and stamps the players online at that
+ * moment; everyone else has their data reset when they next log in, in
+ * {@link AsyncPlayerPreLoginEvent}, if a lazy reset happened after the epoch
+ * they were last seen in. The cost of a reset is then independent of how many
+ * players ever joined.
+ *
+ * Every mode advances the epoch, but only lazy resets leave work for the
+ * login check. A full reset (eager or swap) already handled every offline
+ * player, so it also settles any lazy reset before it. A selective reset
+ * settles nothing: players it rewrote are not reset again on login unless
+ * an earlier lazy reset is still pending for them.
+ *
+ * Base epochs live in {@code epochs/epochs.yml}; per-player epochs are an
+ * append-only journal per base ({@code epochs/<base>.bin}, 20-byte records,
+ * last record wins) compacted on load and shutdown.
+ */
+public class OfflineResetEpochs implements Listener {
+
+    private final FullResetPlugin plugin;
+    private final OfflinePlayerResetUtil resetUtil;
+    private final File dir;
+    // Keyed by lower-case base name
+    private final Map<String, Integer> baseEpochs = new ConcurrentHashMap<>();
+    // Latest lazy epoch, and latest epoch in which every offline player was reset
+    private final Map<String, Integer> lazyEpochs = new ConcurrentHashMap<>();
+    private final Map<String, Integer> fullEpochs = new ConcurrentHashMap<>();
+    private final Map<String, String> baseNames = new ConcurrentHashMap<>();
+    private final Map<String, Map<UUID, Integer>> seen = new ConcurrentHashMap<>();
+    // Guarded by this
+    private final Map<String, DataOutputStream> journals = new HashMap<>();
+    private final AtomicLong playersReset = new AtomicLong();
+
+    /** What a reset did with the data of players who were offline. */
+    public enum Handling {
+        /** Nothing yet; reset on next login. */
+        LAZY,
+        /** Selected parts rewritten; nothing left to do on login. */
+        SELECTIVE,
+        /** Reset completely (eager or swap). */
+        FULL
+    }
+
+    public OfflineResetEpochs(FullResetPlugin plugin, OfflinePlayerResetUtil resetUtil) {
+        this.plugin = plugin;
+        this.resetUtil = resetUtil;
+        this.dir = new File(plugin.getDataFolder(), "epochs");
+        load();
+        Bukkit.getPluginManager().registerEvents(this, plugin);
+    }
+
+    /** Players reset on login since startup. */
+    public long getPlayersReset() {
+        return playersReset.get();
+    }
+
+    /**
+     * Starts a new epoch for {@code base}. {@code current} players already got
+     * a fresh start and are stamped with the new epoch; {@code handling} says
+     * whether offline players still need resetting on login.
+     */
+    public void advance(String base, Collection<UUID> current, Handling handling) {
+        String k = key(base);
+        baseNames.put(k, base);
+        int epoch = baseEpochs.merge(k, 1, Integer::sum);
+        if (handling == Handling.LAZY)
+            lazyEpochs.put(k, epoch);
+        else if (handling == Handling.FULL)
+            fullEpochs.put(k, epoch);
+        saveEpochs();
+        for (UUID id : current)
+            stamp(k, id, epoch);
+        plugin.getLogger().info("Reset epoch of '" + base + "' is now " + epoch + ".");
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPreLogin(AsyncPlayerPreLoginEvent event) {
+        if (event.getLoginResult() != AsyncPlayerPreLoginEvent.Result.ALLOWED)
+            return;
+        UUID id = event.getUniqueId();
+        for (Map.Entry<String, Integer> e : baseEpochs.entrySet()) {
+            String k = e.getKey();
+            int current = e.getValue();
+            int lazy = lazyEpochs.getOrDefault(k, 0);
+            Integer last = seen.computeIfAbsent(k, x -> new ConcurrentHashMap<>()).get(id);
+            // Not seen since tracking started means the data predates every lazy reset
+            int settled = Math.max(last != null ? last : 0, fullEpochs.getOrDefault(k, 0));
+            if (lazy <= settled)
+                continue;
+            try {
+                if (resetUtil.resetPlayer(baseNames.getOrDefault(k, k), id) > 0) {
+                    playersReset.incrementAndGet();
+                    plugin.getLogger().fine("Reset data of " + event.getName() + " for '" + k + "' (epoch " + last
+                            + " -> " + current + ").");
+                }
+                stamp(k, id, current);
+            } catch (IOException ex) {
+                // Not stamped, so the next login tries again
+                plugin.getLogger().warning("Failed to reset data of " + event.getName() + ": " + ex.getMessage());
+            }
+        }
+    }
+
+    public synchronized void shutdown() {
+        for (DataOutputStream out : journals.values()) {
+            try {
+                out.close();
+            } catch (IOException ignored) {
+            }
+        }
+        journals.clear();
+        for (String k : seen.keySet())
+            compact(k);
+    }
+
+    private synchronized void stamp(String k, UUID id, int epoch) {
+        seen.computeIfAbsent(k, x -> new ConcurrentHashMap<>()).put(id, epoch);
+        try {
+            DataOutputStream out = journals.get(k);
+            if (out == null) {
+                dir.mkdirs();
+                OutputStream os = Files.newOutputStream(journal(k), StandardOpenOption.CREATE,
+                        StandardOpenOption.APPEND);
+                out = new DataOutputStream(new BufferedOutputStream(os));
+                journals.put(k, out);
+            }
+            out.writeLong(id.getMostSignificantBits());
+            out.writeLong(id.getLeastSignificantBits());
+            out.writeInt(epoch);
+            out.flush();
+        } catch (IOException ex) {
+            plugin.getLogger().warning("Failed to record player epoch: " + ex.getMessage());
+        }
+    }
+
+    private void load() {
+        File epochsFile = new File(dir, "epochs.yml");
+        if (!epochsFile.exists())
+            return;
+        YamlConfiguration yaml = YamlConfiguration.loadConfiguration(epochsFile);
+        for (String k : yaml.getKeys(false)) {
+            baseEpochs.put(k, yaml.getInt(k + ".epoch"));
+            lazyEpochs.put(k, yaml.getInt(k + ".lazyEpoch"));
+            fullEpochs.put(k, yaml.getInt(k + ".fullEpoch"));
+            baseNames.put(k, yaml.getString(k + ".base", k));
+            Map<UUID, Integer> players = new ConcurrentHashMap<>();
+            Path file = journal(k);
+            if (Files.exists(file)) {
+                try (InputStream is = Files.newInputStream(file);
+                        DataInputStream in = new DataInputStream(new BufferedInputStream(is))) {
+                    while (true)
+                        players.put(new UUID(in.readLong(), in.readLong()), in.readInt());
+                } catch (EOFException ignored) {
+                    // End of journal, or a torn last record
+                } catch (IOException ex) {
+                    plugin.getLogger().warning("Failed to read player epochs for '" + k + "': " + ex.getMessage());
+                }
+            }
+            seen.put(k, players);
+            compact(k);
+        }
+    }
+
+    private void saveEpochs() {
+        try {
+            YamlConfiguration yaml = new YamlConfiguration();
+            for (Map.Entry<String, Integer> e : baseEpochs.entrySet()) {
+                yaml.set(e.getKey() + ".base", baseNames.getOrDefault(e.getKey(), e.getKey()));
+                yaml.set(e.getKey() + ".epoch", e.getValue());
+                yaml.set(e.getKey() + ".lazyEpoch", lazyEpochs.getOrDefault(e.getKey(), 0));
+                yaml.set(e.getKey() + ".fullEpoch", fullEpochs.getOrDefault(e.getKey(), 0));
+            }
+            dir.mkdirs();
+            yaml.save(new File(dir, "epochs.yml"));
+        } catch (IOException ex) {
+            plugin.getLogger().warning("Failed to save reset epochs: " + ex.getMessage());
+        }
+    }
+
+    /**
+     * Rewrites a journal with one record per player. Callers make sure no
+     * journal stream is open for {@code k}.
+     */
+    private void compact(String k) {
+        Map<UUID, Integer> players = seen.get(k);
+        if (players == null)
+            return;
+        Path file = journal(k);
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try {
+            dir.mkdirs();
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+                for (Map.Entry<UUID, Integer> e : players.entrySet()) {
+                    out.writeLong(e.getKey().getMostSignificantBits());
+                    out.writeLong(e.getKey().getLeastSignificantBits());
+                    out.writeInt(e.getValue());
+                }
+            }
+            try {
+                Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException ex) {
+                Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException ex) {
+            plugin.getLogger().warning("Failed to compact player epochs for '" + k + "': " + ex.getMessage());
+        }
+    }
+
+    private Path journal(String k) {
+        return new File(dir, k + ".bin").toPath();
+    }
+
+    private static String key(String base) {
+        return base.toLowerCase(Locale.ROOT);
+    }
+}
@@ -9,30 +9,64 @@ import org.bukkit.event.Listener;
 import org.bukkit.event.player.PlayerChangedWorldEvent;
 import org.bukkit.event.player.PlayerJoinEvent;
 import org.bukkit.event.player.PlayerQuitEvent;
+import org.bukkit.scheduler.BukkitTask;
 
+import java.io.BufferedReader;
 import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileOutputStream;
-import java.util.*;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * Tracks rough playtime per base world to surface in backup tooltips.
  * Granularity is session-based and not perfect but good enough.
+ *
+ * Totals are {@link LongAdder}s, so quits never contend or touch the disk.
+ * Seconds added since the last flush, including the elapsed part of sessions
+ * still open, are appended to {@code playtime.journal} ({@code base<TAB>seconds}
+ * lines) by a periodic async task, so a crash loses at most one flush
+ * interval. On load the journal is replayed over the
+ * {@code playtime.properties} snapshot, and shutdown folds it back into the
+ * snapshot.
  */
 public class PlaytimeTracker implements Listener {
 
     private final FullResetPlugin plugin;
-    private final Map<UUID, Session> sessions = new HashMap<>();
-    private final Map<String, Long> accumulatedSeconds = new HashMap<>(); // base -> seconds
+    private final Map<UUID, Session> sessions = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> accumulatedSeconds = new ConcurrentHashMap<>(); // base -> seconds
+    // Seconds not yet in the journal
+    private final Map<String, LongAdder> unflushed = new ConcurrentHashMap<>();
+    private final Path snapshotFile;
+    private final Path journalFile;
+    private BukkitTask flushTask;
 
     public PlaytimeTracker(FullResetPlugin plugin) {
         this.plugin = plugin;
-        Bukkit.getPluginManager().registerEvents(this, plugin);
+        this.snapshotFile = new File(plugin.getDataFolder(), "playtime.properties").toPath();
+        this.journalFile = new File(plugin.getDataFolder(), "playtime.journal").toPath();
         load();
+        Bukkit.getPluginManager().registerEvents(this, plugin);
+        long period = Math.max(1L, plugin.getConfig().getLong("playtime.flushSeconds", 30L)) * 20L;
+        this.flushTask = Bukkit.getScheduler().runTaskTimerAsynchronously(plugin, this::flush, period, period);
     }
 
     public long getSecondsForBase(String base) {
-        return accumulatedSeconds.getOrDefault(base.toLowerCase(), 0L);
+        LongAdder total = accumulatedSeconds.get(key(base));
+        return total == null ? 0L : total.sum();
     }
 
     private static String baseName(World w) {
@@ -51,7 +85,6 @@ public class PlaytimeTracker implements Listener {
     @EventHandler
     public void onQuit(PlayerQuitEvent e) {
         endSession(e.getPlayer());
-        save();
     }
 
     @EventHandler
@@ -64,30 +97,129 @@ public class PlaytimeTracker implements Listener {
         Session s = sessions.remove(p.getUniqueId());
         if (s == null) return;
         long seconds = Math.max(0, (System.currentTimeMillis() - s.startedMs) / 1000);
-        String key = s.base.toLowerCase();
-        accumulatedSeconds.put(key, accumulatedSeconds.getOrDefault(key, 0L) + seconds);
+        if (seconds == 0) return;
+        credit(s.base, seconds);
+    }
+
+    private void credit(String base, long seconds) {
+        String key = key(base);
+        accumulatedSeconds.computeIfAbsent(key, k -> new LongAdder()).add(seconds);
+        unflushed.computeIfAbsent(key, k -> new LongAdder()).add(seconds);
+    }
+
+    /**
+     * Credits the whole seconds open sessions have run so far (moving their
+     * start forward), appends the seconds gathered since the last flush to
+     * the journal and forces it to disk. Safe to call from any thread.
+     */
+    public synchronized void flush() {
+        long now = System.currentTimeMillis();
+        for (Map.Entry<UUID, Session> e : sessions.entrySet()) {
+            Session s = e.getValue();
+            long seconds = (now - s.startedMs()) / 1000;
+            if (seconds <= 0)
+                continue;
+            // Fails if the main thread ended or replaced the session meanwhile; it credited the time then
+            if (sessions.replace(e.getKey(), s, new Session(s.startedMs() + seconds * 1000, s.base())))
+                credit(s.base(), seconds);
+        }
+        StringBuilder sb = new StringBuilder();
+        for (Map.Entry<String, LongAdder> e : unflushed.entrySet()) {
+            long seconds = e.getValue().sumThenReset();
+            if (seconds != 0)
+                sb.append(e.getKey()).append('\t').append(seconds).append('\n');
+        }
+        if (sb.length() == 0)
+            return;
+        try {
+            Files.createDirectories(journalFile.getParent());
+            try (FileChannel ch = FileChannel.open(journalFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.APPEND)) {
+                ByteBuffer buf = ByteBuffer.wrap(sb.toString().getBytes(StandardCharsets.UTF_8));
+                while (buf.hasRemaining())
+                    ch.write(buf);
+                ch.force(false);
+            }
+        } catch (IOException ex) {
+            // Put the seconds back so the next flush retries them
+            for (String line : sb.toString().split("\n")) {
+                int tab = line.indexOf('\t');
+                unflushed.computeIfAbsent(line.substring(0, tab), k -> new LongAdder())
+                        .add(Long.parseLong(line.substring(tab + 1)));
+            }
+            plugin.getLogger().warning("Failed to write playtime journal: " + ex.getMessage());
+        }
     }
 
-    public void save() {
+    /**
+     * Credits online players' current sessions, then folds everything into
+     * the snapshot and drops the journal. Called from onDisable.
+     */
+    public synchronized void shutdown() {
+        if (flushTask != null) {
+            flushTask.cancel();
+            flushTask = null;
+        }
+        for (Player p : Bukkit.getOnlinePlayers())
+            endSession(p);
+        flush();
         try {
             Properties props = new Properties();
-            for (Map.Entry<String, Long> e : accumulatedSeconds.entrySet()) props.put(e.getKey(), String.valueOf(e.getValue()));
-            File f = new File(plugin.getDataFolder(), "playtime.properties");
-            f.getParentFile().mkdirs();
-            try (FileOutputStream fos = new FileOutputStream(f)) { props.store(fos, "BetterReset playtime per base (seconds)"); }
-        } catch (Exception ignored) {}
+            for (Map.Entry<String, LongAdder> e : accumulatedSeconds.entrySet())
+                props.put(e.getKey(), String.valueOf(e.getValue().sum()));
+            Files.createDirectories(snapshotFile.getParent());
+            Path tmp = snapshotFile.resolveSibling(snapshotFile.getFileName() + ".tmp");
+            try (OutputStream out = Files.newOutputStream(tmp)) {
+                props.store(out, "BetterReset playtime per base (seconds)");
+            }
+            try {
+                Files.move(tmp, snapshotFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException ex) {
+                Files.move(tmp, snapshotFile, StandardCopyOption.REPLACE_EXISTING);
+            }
+            // The snapshot now holds every journaled second
+            Files.deleteIfExists(journalFile);
+        } catch (IOException ex) {
+            plugin.getLogger().warning("Failed to compact playtime journal: " + ex.getMessage());
+        }
     }
 
     private void load() {
+        if (Files.exists(snapshotFile)) {
+            try (InputStream in = Files.newInputStream(snapshotFile)) {
+                Properties props = new Properties();
+                props.load(in);
+                for (String k : props.stringPropertyNames())
+                    add(k, props.getProperty(k, "0"));
+            } catch (IOException ex) {
+                plugin.getLogger().warning("Failed to read playtime: " + ex.getMessage());
+            }
+        }
+        if (Files.exists(journalFile)) {
+            try (BufferedReader reader = Files.newBufferedReader(journalFile, StandardCharsets.UTF_8)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    int tab = line.indexOf('\t');
+                    // A torn last line from a crash is skipped
+                    if (tab > 0)
+                        add(line.substring(0, tab), line.substring(tab + 1));
+                }
+            } catch (IOException ex) {
+                plugin.getLogger().warning("Failed to replay playtime journal: " + ex.getMessage());
+            }
+        }
+    }
+
+    private void add(String base, String seconds) {
         try {
-            File f = new File(plugin.getDataFolder(), "playtime.properties");
-            if (!f.exists()) return;
-            Properties props = new Properties();
-            try (FileInputStream fis = new FileInputStream(f)) { props.load(fis); }
-            for (String k : props.stringPropertyNames()) accumulatedSeconds.put(k, Long.parseLong(props.getProperty(k, "0")));
-        } catch (Exception ignored) {}
+            accumulatedSeconds.computeIfAbsent(key(base), k -> new LongAdder()).add(Long.parseLong(seconds.trim()));
+        } catch (NumberFormatException ignored) {
+        }
+    }
+
+    private static String key(String base) {
+        return base.toLowerCase(Locale.ROOT);
     }
 
     private record Session(long startedMs, String base) {}
 }
-
@@ -5,77 +5,326 @@ import org.bukkit.Bukkit;
 import org.bukkit.World;
 import org.bukkit.WorldCreator;
 import org.bukkit.WorldType;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.file.YamlConfiguration;
 
 import java.io.File;
+import java.io.IOException;
 import java.nio.file.Path;
 import java.util.*;
+import java.util.concurrent.RejectedExecutionException;
 
 /**
  * Pre-creates temporary worlds during countdown so the actual swap feels instant.
  * Worlds are created with names like brprep_<base>[_nether|_the_end] and later renamed.
+ *
+ * Each prep world moves through PREPARING, READY and then CONSUMED (swapped in)
+ * or EXPIRED (cancelled, seed mismatch or older than preload.ttlSeconds). Expired
+ * worlds are unloaded and deleted. State is kept in preload_state.yml so READY
+ * worlds survive a restart and anything else left on disk is discarded at startup.
  */
 public class PreloadManager {
 
+    private static final String PREFIX = "brprep_";
+    private static final String TRASH_PREFIX = PREFIX + "trash_";
+
     private final FullResetPlugin plugin;
-    private final Map<String, EnumSet<Dimension>> prepared = new HashMap<>();
+    private final File stateFile;
+    // Keyed by lower-case prep world name; main thread only
+    private final Map<String, Entry> entries = new LinkedHashMap<>();
+    // Copy of the per-state counts taken on every save, for readers off the main thread
+    private volatile int[] stateCounts = new int[State.values().length];
 
     public enum Dimension { OVERWORLD, NETHER, END }
 
+    public enum State { PREPARING, READY, CONSUMED, EXPIRED }
+
+    private static final class Entry {
+        final String base;
+        final Dimension dimension;
+        final String targetName;
+        final long seed;
+        final long createdAt;
+        State state;
+        long changedAt;
+
+        Entry(String base, Dimension dimension, String targetName, long seed, long createdAt, State state) {
+            this.base = base;
+            this.dimension = dimension;
+            this.targetName = targetName;
+            this.seed = seed;
+            this.createdAt = createdAt;
+            this.state = state;
+            this.changedAt = createdAt;
+        }
+
+        void moveTo(State next) {
+            state = next;
+            changedAt = System.currentTimeMillis();
+        }
+    }
+
     public PreloadManager(FullResetPlugin plugin) {
         this.plugin = plugin;
+        this.stateFile = new File(plugin.getDataFolder(), "preload_state.yml");
+        recover();
+        Bukkit.getScheduler().runTaskTimer(plugin, this::evictExpired, 1200L, 1200L);
     }
 
     public void preload(String base, long seed, EnumSet<Dimension> dims) {
         if (!plugin.getConfig().getBoolean("preload.enabled", true)) return;
-        EnumSet<Dimension> done = prepared.computeIfAbsent(base.toLowerCase(), k -> EnumSet.noneOf(Dimension.class));
-        // Create one per tick to avoid spikes
-        List<Runnable> tasks = new ArrayList<>();
-
-        if (dims.contains(Dimension.OVERWORLD) && !done.contains(Dimension.OVERWORLD)) {
-            tasks.add(() -> createPrepWorld(base, seed, World.Environment.NORMAL));
-            done.add(Dimension.OVERWORLD);
-        }
-        if (dims.contains(Dimension.NETHER) && !done.contains(Dimension.NETHER)) {
-            tasks.add(() -> createPrepWorld(base + "_nether", seed, World.Environment.NETHER));
-            done.add(Dimension.NETHER);
-        }
-        if (dims.contains(Dimension.END) && !done.contains(Dimension.END)) {
-            tasks.add(() -> createPrepWorld(base + "_the_end", seed, World.Environment.THE_END));
-            done.add(Dimension.END);
+        // Create one per second to avoid spikes
+        List<Entry> toCreate = new ArrayList<>();
+        for (Dimension d : dims) {
+            String target = targetName(base, d);
+            Entry existing = entries.get(key(prepName(target)));
+            if (existing != null && existing.seed == seed
+                    && (existing.state == State.PREPARING || existing.state == State.READY))
+                continue;
+            if (existing != null)
+                expire(existing, "replaced by a new preload");
+            Entry entry = new Entry(base, d, target, seed, System.currentTimeMillis(), State.PREPARING);
+            entries.put(key(prepName(target)), entry);
+            toCreate.add(entry);
         }
+        if (toCreate.isEmpty()) return;
+        save();
 
-        if (tasks.isEmpty()) return;
         final int[] idx = {0};
         Bukkit.getScheduler().runTaskTimer(plugin, task -> {
-            if (idx[0] >= tasks.size()) { task.cancel(); return; }
-            try { tasks.get(idx[0]++).run(); } catch (Exception ignored) {}
+            if (idx[0] >= toCreate.size()) { task.cancel(); return; }
+            try { createPrepWorld(toCreate.get(idx[0]++)); } catch (Exception ignored) {}
         }, 0L, 20L);
     }
 
-    private void createPrepWorld(String targetName, long seed, World.Environment env) {
-        String name = prepName(targetName);
+    private void createPrepWorld(Entry entry) {
+        String name = prepName(entry.targetName);
+        // Cancelled or replaced before its turn came
+        if (entries.get(key(name)) != entry || entry.state != State.PREPARING) return;
         // Clean stale prep world
         World old = Bukkit.getWorld(name);
-        if (old != null) Bukkit.unloadWorld(old, true);
+        if (old != null) Bukkit.unloadWorld(old, false);
         File worldFolder = new File(Bukkit.getWorldContainer(), name);
         if (worldFolder.exists()) deleteFolder(worldFolder.toPath());
 
         World w = new WorldCreator(name)
-                .environment(env)
-                .seed(seed)
+                .environment(environment(entry.dimension))
+                .seed(entry.seed)
                 .type(WorldType.NORMAL)
                 .createWorld();
-        if (w != null) {
-            try { w.getChunkAt(w.getSpawnLocation()).load(true); } catch (Exception ignored) {}
+        if (w == null) {
+            expire(entry, "world could not be created");
+            save();
+            return;
         }
+        try { w.getChunkAt(w.getSpawnLocation()).load(true); } catch (Exception ignored) {}
+        entry.moveTo(State.READY);
+        save();
     }
 
     public boolean hasPrepared(String base, Dimension d) {
-        EnumSet<Dimension> set = prepared.get(base.toLowerCase());
-        return set != null && set.contains(d);
+        Entry entry = entries.get(key(prepName(targetName(base, d))));
+        return entry != null && entry.state == State.READY;
+    }
+
+    public State stateOf(String targetName) {
+        Entry entry = entries.get(key(prepName(targetName)));
+        return entry == null ? null : entry.state;
     }
 
-    public String prepName(String targetName) { return "brprep_" + targetName; }
+    /**
+     * Claims the READY prep world for {@code targetName} if it was generated
+     * from {@code seed}, marking it CONSUMED. The caller then moves it into
+     * place. Any other prep world for the target is discarded and false is
+     * returned.
+     */
+    public boolean claim(String targetName, OptionalLong seed) {
+        Entry entry = entries.get(key(prepName(targetName)));
+        if (entry == null) {
+            // Unknown to the lifecycle, never trust it
+            discardFolder(prepName(targetName));
+            return false;
+        }
+        if (entry.state == State.READY && seed.isPresent() && seed.getAsLong() == entry.seed) {
+            entry.moveTo(State.CONSUMED);
+            save();
+            return true;
+        }
+        expire(entry, entry.state == State.READY ? "seed mismatch" : "not ready (" + entry.state + ")");
+        save();
+        return false;
+    }
+
+    /**
+     * Discards every prep world of {@code base}, e.g. after a cancelled countdown.
+     */
+    public void discard(String base) {
+        if (base == null) return;
+        boolean changed = false;
+        for (Entry entry : new ArrayList<>(entries.values())) {
+            if (entry.base.equalsIgnoreCase(base)
+                    && (entry.state == State.PREPARING || entry.state == State.READY)) {
+                expire(entry, "discarded");
+                changed = true;
+            }
+        }
+        if (changed) save();
+    }
+
+    public List<String> statusLines() {
+        List<String> lines = new ArrayList<>();
+        if (entries.isEmpty()) {
+            lines.add("&7No prepared worlds.");
+            return lines;
+        }
+        long now = System.currentTimeMillis();
+        for (Entry entry : entries.values()) {
+            lines.add("&7- &e" + prepName(entry.targetName) + "&7: &e" + entry.state + "&7 (seed &e" + entry.seed
+                    + "&7, " + ((now - entry.createdAt) / 1000L) + "s old)");
+        }
+        return lines;
+    }
+
+    public String prepName(String targetName) { return PREFIX + targetName; }
+
+    private void evictExpired() {
+        if (entries.isEmpty()) return;
+        // Never pull a prep world away from a reset that is about to use it
+        if (plugin.getResetService() != null && plugin.getResetService().isResetInProgress()) return;
+        long ttl = Math.max(60L, plugin.getConfig().getLong("preload.ttlSeconds", 900L)) * 1000L;
+        long now = System.currentTimeMillis();
+        boolean changed = false;
+        for (Entry entry : new ArrayList<>(entries.values())) {
+            if ((entry.state == State.PREPARING || entry.state == State.READY) && now - entry.createdAt > ttl) {
+                expire(entry, "older than " + (ttl / 1000L) + "s");
+                changed = true;
+            } else if ((entry.state == State.CONSUMED || entry.state == State.EXPIRED) && now - entry.changedAt > ttl) {
+                // Finished entries only linger for status output
+                entries.remove(key(prepName(entry.targetName)));
+                changed = true;
+            }
+        }
+        if (changed) save();
+    }
+
+    private void expire(Entry entry, String reason) {
+        entry.moveTo(State.EXPIRED);
+        plugin.getLogger().info("Discarding prepared world '" + prepName(entry.targetName) + "': " + reason + ".");
+        discardFolder(prepName(entry.targetName));
+    }
+
+    /**
+     * Unloads the prep world and moves its folder aside before deleting it in
+     * the background, so a new prep world of the same name is never touched.
+     */
+    private void discardFolder(String name) {
+        World w = Bukkit.getWorld(name);
+        if (w != null && !Bukkit.unloadWorld(w, false)) {
+            plugin.getLogger().warning("Could not unload prepared world '" + name + "'; it will be removed on restart.");
+            return;
+        }
+        File folder = new File(Bukkit.getWorldContainer(), name);
+        if (!folder.exists()) return;
+        File trash = new File(Bukkit.getWorldContainer(), TRASH_PREFIX + name.substring(PREFIX.length()) + "_"
+                + System.currentTimeMillis());
+        deleteAsync(folder.renameTo(trash) ? trash.toPath() : folder.toPath());
+    }
+
+    /**
+     * Restores READY entries whose world is still on disk and within TTL;
+     * every other prep folder is a leftover and gets deleted.
+     */
+    private void recover() {
+        long ttl = Math.max(60L, plugin.getConfig().getLong("preload.ttlSeconds", 900L)) * 1000L;
+        long now = System.currentTimeMillis();
+        if (stateFile.exists()) {
+            try {
+                YamlConfiguration yaml = YamlConfiguration.loadConfiguration(stateFile);
+                for (String k : yaml.getKeys(false)) {
+                    ConfigurationSection sec = yaml.getConfigurationSection(k);
+                    if (sec == null) continue;
+                    Entry entry = new Entry(sec.getString("base", ""), Dimension.valueOf(sec.getString("dimension", "OVERWORLD")),
+                            sec.getString("target", ""), sec.getLong("seed"), sec.getLong("createdAt"),
+                            State.valueOf(sec.getString("state", "EXPIRED")));
+                    File folder = new File(Bukkit.getWorldContainer(), prepName(entry.targetName));
+                    if (entry.state == State.READY && now - entry.createdAt <= ttl && folder.isDirectory())
+                        entries.put(key(prepName(entry.targetName)), entry);
+                }
+            } catch (Exception e) {
+                plugin.getLogger().warning("Failed to load preload state: " + e.getMessage());
+            }
+        }
+        File[] folders = Bukkit.getWorldContainer().listFiles(f -> f.isDirectory() && f.getName().startsWith(PREFIX));
+        if (folders != null) {
+            for (File f : folders) {
+                if (!entries.containsKey(key(f.getName()))) {
+                    plugin.getLogger().info("Removing leftover prepared world '" + f.getName() + "'.");
+                    deleteAsync(f.toPath());
+                }
+            }
+        }
+        if (!entries.isEmpty())
+            plugin.getLogger().info("Recovered " + entries.size() + " prepared world(s).");
+        save();
+    }
+
+    /**
+     * Number of tracked prep worlds in {@code state}. Safe from any thread.
+     */
+    public int countInState(State state) {
+        return stateCounts[state.ordinal()];
+    }
+
+    private void save() {
+        int[] counts = new int[State.values().length];
+        for (Entry entry : entries.values())
+            counts[entry.state.ordinal()]++;
+        stateCounts = counts;
+        try {
+            YamlConfiguration yaml = new YamlConfiguration();
+            for (Map.Entry<String, Entry> e : entries.entrySet()) {
+                Entry entry = e.getValue();
+                String k = e.getKey();
+                yaml.set(k + ".base", entry.base);
+                yaml.set(k + ".dimension", entry.dimension.name());
+                yaml.set(k + ".target", entry.targetName);
+                yaml.set(k + ".seed", entry.seed);
+                yaml.set(k + ".createdAt", entry.createdAt);
+                yaml.set(k + ".state", entry.state.name());
+            }
+            yaml.save(stateFile);
+        } catch (IOException e) {
+            plugin.getLogger().warning("Failed to save preload state: " + e.getMessage());
+        }
+    }
+
+    private static String targetName(String base, Dimension d) {
+        return switch (d) {
+            case OVERWORLD -> base;
+            case NETHER -> base + "_nether";
+            case END -> base + "_the_end";
+        };
+    }
+
+    private static World.Environment environment(Dimension d) {
+        return switch (d) {
+            case OVERWORLD -> World.Environment.NORMAL;
+            case NETHER -> World.Environment.NETHER;
+            case END -> World.Environment.THE_END;
+        };
+    }
+
+    private static String key(String name) { return name.toLowerCase(Locale.ROOT); }
+
+    private void deleteAsync(Path path) {
+        try {
+            if (plugin.getBackgroundExecutor() != null) {
+                plugin.getBackgroundExecutor().submit(() -> deleteFolder(path));
+                return;
+            }
+        } catch (RejectedExecutionException ignored) {}
+        deleteFolder(path);
+    }
 
     private void deleteFolder(Path path) {
         try {
@@ -86,4 +335,3 @@ public class PreloadManager {
         } catch (Exception ignored) {}
     }
 }
-
@@ -0,0 +1,288 @@
+package com.muj3b.betterreset.util;
+
+import com.muj3b.betterreset.FullResetPlugin;
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerMoveEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+import org.bukkit.event.world.ChunkLoadEvent;
+import org.bukkit.event.world.WorldUnloadEvent;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Records when players were last present in each region, so chunk trims can
+ * tell real activity apart from autosave touching a file. Visits come from
+ * region changes in {@link PlayerMoveEvent}, a periodic sample of online
+ * players, and chunk loads next to recently visited regions. Each world has
+ * its own memory-mapped table under {@code visits/}, flushed asynchronously.
+ * All recording happens on the main thread and does not allocate.
+ */
+public class RegionVisitTracker implements Listener {
+
+    private final FullResetPlugin plugin;
+    private final Path folder;
+    // Keyed by world name; main thread only
+    private final Map<String, VisitTable> tables = new HashMap<>();
+    // Worlds whose table could not be opened, so we stop retrying every event
+    private final Set<String> failed = new HashSet<>();
+    // chunkReset.visits.chunkLoadWindowSeconds, read on enable and reload rather than per chunk load
+    private long chunkLoadWindowSeconds;
+
+    public RegionVisitTracker(FullResetPlugin plugin) {
+        this.plugin = plugin;
+        this.folder = plugin.getDataFolder().toPath().resolve("visits");
+        reloadSettings();
+        if (!isEnabled())
+            return;
+        Bukkit.getPluginManager().registerEvents(this, plugin);
+        long sampleTicks = Math.max(1L, plugin.getConfig().getLong("chunkReset.visits.sampleSeconds", 60L)) * 20L;
+        Bukkit.getScheduler().runTaskTimer(plugin, this::sampleOnlinePlayers, sampleTicks, sampleTicks);
+        long flushTicks = Math.max(1L, plugin.getConfig().getLong("chunkReset.visits.flushSeconds", 300L)) * 20L;
+        Bukkit.getScheduler().runTaskTimer(plugin, this::flushAsync, flushTicks, flushTicks);
+    }
+
+    /**
+     * Re-reads the settings used on hot paths; call after a config reload.
+     */
+    public void reloadSettings() {
+        chunkLoadWindowSeconds = Math.max(1L,
+                plugin.getConfig().getLong("chunkReset.visits.chunkLoadWindowSeconds", 30L));
+    }
+
+    public boolean isEnabled() {
+        return plugin.getConfig().getBoolean("chunkReset.visits.enabled", true);
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onMove(PlayerMoveEvent event) {
+        Location from = event.getFrom();
+        Location to = event.getTo();
+        // Only region boundary crossings are interesting; 512 blocks per region
+        if (from.getWorld() == to.getWorld() && (from.getBlockX() >> 9) == (to.getBlockX() >> 9)
+                && (from.getBlockZ() >> 9) == (to.getBlockZ() >> 9))
+            return;
+        record(to.getWorld(), to.getBlockX() >> 9, to.getBlockZ() >> 9);
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onQuit(PlayerQuitEvent event) {
+        Location loc = event.getPlayer().getLocation();
+        record(loc.getWorld(), loc.getBlockX() >> 9, loc.getBlockZ() >> 9);
+    }
+
+    /**
+     * Chunk loads count as presence only next to a region a player was in
+     * moments ago, which keeps spawn-chunk and plugin loads out of the data.
+     */
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onChunkLoad(ChunkLoadEvent event) {
+        VisitTable table = table(event.getWorld());
+        if (table == null)
+            return;
+        int rx = event.getChunk().getX() >> 5;
+        int rz = event.getChunk().getZ() >> 5;
+        long now = System.currentTimeMillis() / 1000L;
+        long recent = now - chunkLoadWindowSeconds;
+        for (int dx = -1; dx <= 1; dx++) {
+            for (int dz = -1; dz <= 1; dz++) {
+                if (table.get(regionKey(rx + dx, rz + dz)) >= recent) {
+                    write(table, event.getWorld().getName(), rx, rz, now);
+                    return;
+                }
+            }
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onWorldUnload(WorldUnloadEvent event) {
+        close(event.getWorld().getName());
+    }
+
+    /**
+     * Records a visit for region {@code rx, rz} of {@code world} now.
+     */
+    public void record(World world, int rx, int rz) {
+        if (world == null)
+            return;
+        VisitTable table = table(world);
+        if (table != null)
+            write(table, world.getName(), rx, rz, System.currentTimeMillis() / 1000L);
+    }
+
+    /**
+     * Returns an immutable copy of the visits for {@code world}, or null when
+     * tracking is disabled or no table exists. Must run on the main thread;
+     * the copy may then be read from any thread.
+     */
+    public Snapshot snapshot(World world) {
+        VisitTable table = table(world);
+        if (table == null)
+            return null;
+        long[] keys = new long[table.size()];
+        long[] stamps = new long[table.size()];
+        int n = table.copyTo(keys, stamps);
+        return new Snapshot(table.createdAt() * 1000L, keys, stamps, n);
+    }
+
+    /**
+     * Forgets all visits of {@code worldName}; used when the world is reset so
+     * the new terrain starts with fresh coverage. Must run on the main thread.
+     */
+    public void discard(String worldName) {
+        failed.remove(worldName);
+        VisitTable table = tables.remove(worldName);
+        try {
+            if (table == null) {
+                Path file = fileFor(worldName);
+                if (!Files.exists(file))
+                    return;
+                table = VisitTable.open(file, initialCapacity(), System.currentTimeMillis() / 1000L);
+            }
+            // Cleared in place: a mapped file cannot be deleted on every platform
+            table.reset(System.currentTimeMillis() / 1000L);
+            table.close();
+        } catch (IOException ex) {
+            plugin.getLogger().warning("Failed to discard visit data for '" + worldName + "': " + ex.getMessage());
+        }
+    }
+
+    public void shutdown() {
+        for (String name : new ArrayList<>(tables.keySet()))
+            close(name);
+    }
+
+    private void sampleOnlinePlayers() {
+        for (Player p : Bukkit.getOnlinePlayers()) {
+            Location loc = p.getLocation();
+            record(loc.getWorld(), loc.getBlockX() >> 9, loc.getBlockZ() >> 9);
+        }
+    }
+
+    private void flushAsync() {
+        if (tables.isEmpty())
+            return;
+        List<VisitTable> open = new ArrayList<>(tables.values());
+        try {
+            plugin.getBackgroundExecutor().submit(() -> {
+                for (VisitTable table : open) {
+                    try {
+                        table.force();
+                    } catch (Exception ex) {
+                        plugin.getLogger().warning("Failed to flush visit data: " + ex.getMessage());
+                    }
+                }
+            });
+        } catch (RejectedExecutionException ignored) {
+        }
+    }
+
+    private void write(VisitTable table, String worldName, int rx, int rz, long nowSeconds) {
+        try {
+            table.record(regionKey(rx, rz), nowSeconds);
+        } catch (IOException ex) {
+            plugin.getLogger().warning("Visit tracking disabled for '" + worldName + "': " + ex.getMessage());
+            tables.remove(worldName);
+            failed.add(worldName);
+        }
+    }
+
+    private VisitTable table(World world) {
+        String name = world.getName();
+        VisitTable table = tables.get(name);
+        if (table != null || !isEnabled() || failed.contains(name) || name.startsWith("brprep_")
+                || name.startsWith(SeedScout.WORLD_PREFIX))
+            return table;
+        try {
+            table = VisitTable.open(fileFor(name), initialCapacity(), System.currentTimeMillis() / 1000L);
+            tables.put(name, table);
+        } catch (IOException ex) {
+            plugin.getLogger().warning("Failed to open visit data for '" + name + "': " + ex.getMessage());
+            failed.add(name);
+        }
+        return table;
+    }
+
+    private void close(String worldName) {
+        VisitTable table = tables.remove(worldName);
+        if (table == null)
+            return;
+        try {
+            table.close();
+        } catch (IOException ex) {
+            plugin.getLogger().warning("Failed to close visit data for '" + worldName + "': " + ex.getMessage());
+        }
+    }
+
+    private Path fileFor(String worldName) {
+        return folder.resolve(worldName + ".dat");
+    }
+
+    private int initialCapacity() {
+        return Math.max(64, plugin.getConfig().getInt("chunkReset.visits.initialCapacity", 4096));
+    }
+
+    private static long regionKey(int rx, int rz) {
+        return ((long) rx << 32) ^ (rz & 0xffffffffL);
+    }
+
+    /**
+     * Point-in-time copy of one world's visits. {@code trackedSinceMillis} is
+     * when tracking began; regions without an entry were not visited since.
+     */
+    public static final class Snapshot {
+        private final long trackedSinceMillis;
+        private final long[] keys;
+        private final long[] stamps;
+        private final int mask;
+
+        private Snapshot(long trackedSinceMillis, long[] srcKeys, long[] srcStamps, int count) {
+            this.trackedSinceMillis = trackedSinceMillis;
+            int cap = Integer.highestOneBit(Math.max(16, count * 2) - 1) << 1;
+            this.keys = new long[cap];
+            this.stamps = new long[cap];
+            this.mask = cap - 1;
+            for (int i = 0; i < count; i++) {
+                int idx = VisitTable.mix(srcKeys[i]) & mask;
+                while (stamps[idx] != 0L)
+                    idx = (idx + 1) & mask;
+                keys[idx] = srcKeys[i];
+                stamps[idx] = srcStamps[i];
+            }
+        }
+
+        public long trackedSinceMillis() {
+            return trackedSinceMillis;
+        }
+
+        /**
+         * Last presence in region {@code rx, rz} in epoch millis, or
+         * {@link #trackedSinceMillis()} if nobody has been there since tracking began.
+         */
+        public long lastVisitMillis(int rx, int rz) {
+            long key = regionKey(rx, rz);
+            int idx = VisitTable.mix(key) & mask;
+            long stamp;
+            while ((stamp = stamps[idx]) != 0L) {
+                if (keys[idx] == key)
+                    return Math.max(trackedSinceMillis, stamp * 1000L);
+                idx = (idx + 1) & mask;
+            }
+            return trackedSinceMillis;
+        }
+    }
+}
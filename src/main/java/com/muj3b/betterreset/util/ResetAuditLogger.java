@@ -1,24 +1,365 @@
 package com.muj3b.betterreset.util;
 
 import com.muj3b.betterreset.FullResetPlugin;
+import org.bukkit.command.CommandSender;
 
 import java.io.BufferedWriter;
 import java.io.File;
-import java.io.FileWriter;
 import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
+/**
+ * Audit trail of resets as JSON Lines in {@code logs/audit.jsonl}. Callers
+ * only offer an {@link Event} to a bounded queue; a single daemon thread
+ * writes batches and rotates the file by size ({@code audit.maxFileMb}) and
+ * day into {@code audit-<date>.<n>.jsonl}, keeping {@code audit.maxFiles}
+ * rotated files. When the queue is full events are dropped and counted, and
+ * the count is written once there is room again. {@link #tail} reads files
+ * backwards from the end, so a query costs the size of its result rather
+ * than of the log.
+ */
 public class ResetAuditLogger {
 
-    public void log(FullResetPlugin plugin, String line) {
+    private static final String CURRENT = "audit.jsonl";
+    private static final int READ_BLOCK = 8192;
+
+    /**
+     * One audit record. {@code millis} and {@code bytes} are -1 when unknown.
+     */
+    public record Event(long time, String phase, String base, String initiator, long millis, long bytes,
+            String message) {
+
+        public static Event of(String phase, String base, String message) {
+            return new Event(System.currentTimeMillis(), phase, base, null, -1L, -1L, message);
+        }
+
+        public Event by(CommandSender sender) {
+            return new Event(time, phase, base, sender != null ? sender.getName() : null, millis, bytes, message);
+        }
+
+        public Event millis(long value) {
+            return new Event(time, phase, base, initiator, value, bytes, message);
+        }
+
+        public Event bytes(long value) {
+            return new Event(time, phase, base, initiator, millis, value, message);
+        }
+
+        String toJson() {
+            StringBuilder sb = new StringBuilder(128).append('{');
+            field(sb, "time", Instant.ofEpochMilli(time).toString());
+            field(sb, "phase", phase);
+            field(sb, "base", base);
+            field(sb, "initiator", initiator);
+            if (millis >= 0)
+                sb.append(",\"millis\":").append(millis);
+            if (bytes >= 0)
+                sb.append(",\"bytes\":").append(bytes);
+            field(sb, "message", message);
+            return sb.append('}').toString();
+        }
+
+        private static void field(StringBuilder sb, String name, String value) {
+            if (value == null)
+                return;
+            if (sb.length() > 1)
+                sb.append(',');
+            sb.append('"').append(name).append("\":\"");
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                switch (c) {
+                    case '"' -> sb.append("\\\"");
+                    case '\\' -> sb.append("\\\\");
+                    case '\n' -> sb.append("\\n");
+                    case '\r' -> sb.append("\\r");
+                    case '\t' -> sb.append("\\t");
+                    default -> {
+                        if (c < 0x20)
+                            sb.append(String.format("\\u%04x", (int) c));
+                        else
+                            sb.append(c);
+                    }
+                }
+            }
+            sb.append('"');
+        }
+    }
+
+    private final FullResetPlugin plugin;
+    private final File dir;
+    private final BlockingQueue<Event> queue;
+    private final AtomicLong dropped = new AtomicLong();
+    private final Thread writer;
+    private volatile boolean running = true;
+    // Writer thread only
+    private BufferedWriter out;
+    private long currentSize;
+    private LocalDate currentDay;
+
+    public ResetAuditLogger(FullResetPlugin plugin) {
+        this.plugin = plugin;
+        this.dir = new File(plugin.getDataFolder(), "logs");
+        this.queue = new ArrayBlockingQueue<>(Math.max(16, plugin.getConfig().getInt("audit.queueCapacity", 1024)));
+        this.writer = new Thread(this::drain, "betterreset-audit");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Queues an event without blocking.
+     */
+    public void log(Event event) {
+        if (!queue.offer(event))
+            dropped.incrementAndGet();
+    }
+
+    /** Events waiting for the writer. */
+    public int queueDepth() {
+        return queue.size();
+    }
+
+    /**
+     * Writes what is queued and stops the writer; waits up to a few seconds.
+     */
+    public void shutdown() {
+        // No interrupt: it would close the file channel mid-write
+        running = false;
         try {
-            File dir = new File(plugin.getDataFolder(), "logs");
-            if (!dir.exists()) dir.mkdirs();
-            File file = new File(dir, "resets.log");
-            try (BufferedWriter bw = new BufferedWriter(new FileWriter(file, true))) {
-                bw.write("[" + Instant.now() + "] " + line + System.lineSeparator());
+            writer.join(3000L);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void drain() {
+        List<Event> batch = new ArrayList<>();
+        while (running || !queue.isEmpty()) {
+            try {
+                Event first = queue.poll(1, TimeUnit.SECONDS);
+                if (first == null)
+                    continue;
+                batch.add(first);
+            } catch (InterruptedException ex) {
+                running = false;
+            }
+            queue.drainTo(batch);
+            long lost = dropped.getAndSet(0L);
+            if (lost > 0)
+                batch.add(Event.of("audit", null, lost + " audit events dropped (queue full)"));
+            try {
+                for (Event e : batch)
+                    write(e);
+                if (out != null)
+                    out.flush();
+            } catch (IOException ex) {
+                plugin.getLogger().warning("Failed to write audit log: " + ex.getMessage());
+                closeQuietly();
             }
-        } catch (IOException ignored) {}
+            batch.clear();
+        }
+        closeQuietly();
+    }
+
+    private void write(Event e) throws IOException {
+        String line = e.toJson() + "\n";
+        long size = line.getBytes(StandardCharsets.UTF_8).length;
+        LocalDate day = LocalDate.ofInstant(Instant.ofEpochMilli(e.time()), ZoneId.systemDefault());
+        long maxBytes = Math.max(1L, plugin.getConfig().getLong("audit.maxFileMb", 10L)) * 1024L * 1024L;
+        if (out == null)
+            open();
+        if (currentSize > 0 && (currentSize + size > maxBytes || !day.equals(currentDay))) {
+            closeQuietly();
+            rotate(currentDay);
+            open();
+        }
+        if (currentDay == null)
+            currentDay = day;
+        out.write(line);
+        currentSize += size;
+    }
+
+    private void open() throws IOException {
+        Files.createDirectories(dir.toPath());
+        Path file = dir.toPath().resolve(CURRENT);
+        currentSize = Files.exists(file) ? Files.size(file) : 0L;
+        currentDay = currentSize > 0
+                ? LocalDate.ofInstant(Files.getLastModifiedTime(file).toInstant(), ZoneId.systemDefault())
+                : null;
+        out = Files.newBufferedWriter(file, StandardCharsets.UTF_8, StandardOpenOption.CREATE,
+                StandardOpenOption.APPEND);
+    }
+
+    private void rotate(LocalDate day) throws IOException {
+        Path file = dir.toPath().resolve(CURRENT);
+        if (!Files.exists(file))
+            return;
+        String stamp = (day != null ? day : LocalDate.now()).toString();
+        int n = 0;
+        Path target;
+        do {
+            target = dir.toPath().resolve("audit-" + stamp + "." + (n++) + ".jsonl");
+        } while (Files.exists(target));
+        Files.move(file, target);
+        List<Path> rotated = rotatedFiles();
+        int keep = Math.max(0, plugin.getConfig().getInt("audit.maxFiles", 14));
+        for (int i = keep; i < rotated.size(); i++)
+            Files.deleteIfExists(rotated.get(i));
+    }
+
+    /** Rotated files, newest first. */
+    private List<Path> rotatedFiles() {
+        File[] files = dir.listFiles((d, name) -> name.startsWith("audit-") && name.endsWith(".jsonl"));
+        if (files == null)
+            return List.of();
+        return Arrays.stream(files).map(File::toPath)
+                .sorted(Comparator.comparing(ResetAuditLogger::rotationKey).reversed()).toList();
+    }
+
+    /** Sort key {@code <date>.<zero-padded n>} for {@code audit-<date>.<n>.jsonl}. */
+    private static String rotationKey(Path p) {
+        String name = p.getFileName().toString();
+        String core = name.substring("audit-".length(), name.length() - ".jsonl".length());
+        int dot = core.lastIndexOf('.');
+        if (dot < 0)
+            return core;
+        String n = core.substring(dot + 1);
+        return core.substring(0, dot) + "." + "0".repeat(Math.max(0, 6 - n.length())) + n;
+    }
+
+    private void closeQuietly() {
+        if (out != null) {
+            try {
+                out.close();
+            } catch (IOException ignored) {
+            }
+            out = null;
+        }
+    }
+
+    /**
+     * Up to {@code limit} most recent events, newest first, optionally only
+     * those for {@code base}. Reads the current file and then rotated files
+     * backwards in blocks and stops as soon as enough lines matched. Events
+     * still queued are not included.
+     */
+    public List<Map<String, String>> tail(String base, int limit) throws IOException {
+        List<Map<String, String>> result = new ArrayList<>();
+        List<Path> files = new ArrayList<>();
+        files.add(dir.toPath().resolve(CURRENT));
+        files.addAll(rotatedFiles());
+        for (Path file : files) {
+            if (result.size() >= limit)
+                break;
+            if (!Files.exists(file))
+                continue;
+            readBackwards(file, line -> {
+                Map<String, String> fields = parse(line);
+                if (base == null || base.equalsIgnoreCase(fields.get("base")))
+                    result.add(fields);
+                return result.size() < limit;
+            });
+        }
+        return result;
     }
-}
 
+    @FunctionalInterface
+    private interface LineVisitor {
+        /** Returns false to stop reading. */
+        boolean visit(String line);
+    }
+
+    private static void readBackwards(Path file, LineVisitor visitor) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "r")) {
+            long pos = raf.length();
+            byte[] block = new byte[READ_BLOCK];
+            // Bytes of a line cut at the block start, carried into the next (earlier) block
+            byte[] carry = new byte[0];
+            while (pos > 0) {
+                int len = (int) Math.min(READ_BLOCK, pos);
+                pos -= len;
+                raf.seek(pos);
+                raf.readFully(block, 0, len);
+                byte[] buf = new byte[len + carry.length];
+                System.arraycopy(block, 0, buf, 0, len);
+                System.arraycopy(carry, 0, buf, len, carry.length);
+                int end = buf.length;
+                for (int i = buf.length - 1; i >= 0; i--) {
+                    if (buf[i] != '\n')
+                        continue;
+                    if (end - i > 1 && !visitor.visit(new String(buf, i + 1, end - i - 1, StandardCharsets.UTF_8)))
+                        return;
+                    end = i;
+                }
+                carry = Arrays.copyOf(buf, end);
+            }
+            if (carry.length > 0)
+                visitor.visit(new String(carry, StandardCharsets.UTF_8));
+        }
+    }
+
+    /**
+     * Parses one flat JSON object as written by {@link Event#toJson()}.
+     */
+    private static Map<String, String> parse(String line) {
+        Map<String, String> fields = new LinkedHashMap<>();
+        int i = line.indexOf('{') + 1;
+        while (i > 0 && i < line.length()) {
+            int keyStart = line.indexOf('"', i);
+            if (keyStart < 0)
+                break;
+            int keyEnd = line.indexOf('"', keyStart + 1);
+            int colon = line.indexOf(':', keyEnd);
+            if (keyEnd < 0 || colon < 0)
+                break;
+            String key = line.substring(keyStart + 1, keyEnd);
+            int v = colon + 1;
+            StringBuilder value = new StringBuilder();
+            if (v < line.length() && line.charAt(v) == '"') {
+                for (v++; v < line.length() && line.charAt(v) != '"'; v++) {
+                    char c = line.charAt(v);
+                    if (c == '\\' && v + 1 < line.length()) {
+                        char n = line.charAt(++v);
+                        switch (n) {
+                            case 'n' -> value.append('\n');
+                            case 'r' -> value.append('\r');
+                            case 't' -> value.append('\t');
+                            case 'u' -> {
+                                if (v + 4 < line.length()) {
+                                    value.append((char) Integer.parseInt(line.substring(v + 1, v + 5), 16));
+                                    v += 4;
+                                }
+                            }
+                            default -> value.append(n);
+                        }
+                    } else {
+                        value.append(c);
+                    }
+                }
+                v++;
+            } else {
+                while (v < line.length() && line.charAt(v) != ',' && line.charAt(v) != '}')
+                    value.append(line.charAt(v++));
+            }
+            fields.put(key, value.toString());
+            i = v + 1;
+        }
+        return fields;
+    }
+}
@@ -10,28 +10,47 @@ import org.bukkit.event.EventHandler;
 import org.bukkit.event.EventPriority;
 import org.bukkit.event.Listener;
 import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
 import org.bukkit.event.player.PlayerRespawnEvent;
+import org.bukkit.event.world.SpawnChangeEvent;
+import org.bukkit.event.world.WorldUnloadEvent;
 
 import java.io.File;
 import java.io.IOException;
 import java.time.Instant;
 import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * Ensures players respawn in the new overworld after a reset.
  * Tracks recently reset bases and overrides respawn location when appropriate.
  * Data is persisted to disk to survive server restarts.
+ *
+ * The safe spawn of each world is resolved once and cached until the spawn
+ * moves or the world unloads. When a base is marked reset it is resolved with
+ * an async chunk load and its chunk is held by a plugin ticket for the
+ * protection window, so respawns find it loaded. Saves are written behind on an async task, with
+ * bursts of changes coalesced into one write. Players joining during the
+ * window go through a {@link JoinAdmissionQueue} when
+ * {@code players.joinQueue.enabled} is set.
  */
 public class RespawnManager implements Listener {
 
     private final FullResetPlugin plugin;
     private final Map<String, Long> recentlyResetBases = new ConcurrentHashMap<>();
     private final File dataFile;
+    // World UID -> resolved safe spawn
+    private final Map<UUID, Location> safeSpawns = new ConcurrentHashMap<>();
+    private final AtomicBoolean saveScheduled = new AtomicBoolean();
+    private final JoinAdmissionQueue joinQueue;
 
     public RespawnManager(FullResetPlugin plugin) {
         this.plugin = plugin;
         this.dataFile = new File(plugin.getDataFolder(), "respawn_data.yml");
+        this.joinQueue = new JoinAdmissionQueue(plugin, this::resolveSafeSpawnAsync);
         loadData();
         Bukkit.getPluginManager().registerEvents(this, plugin);
     }
@@ -61,10 +80,23 @@ public class RespawnManager implements Listener {
         }
     }
 
+    /**
+     * Saves on an async task shortly after; further requests until then share
+     * the same write.
+     */
+    private void requestSave() {
+        if (saveScheduled.compareAndSet(false, true)) {
+            Bukkit.getScheduler().runTaskLaterAsynchronously(plugin, () -> {
+                saveScheduled.set(false);
+                saveData();
+            }, 20L);
+        }
+    }
+
     /**
      * Save reset timestamps to disk for persistence across restarts.
      */
-    private void saveData() {
+    private synchronized void saveData() {
         try {
             YamlConfiguration config = new YamlConfiguration();
             long ttl = plugin.getConfig().getLong("players.respawnRecentWindowSeconds", 600L);
@@ -83,9 +115,28 @@ public class RespawnManager implements Listener {
     }
 
     public void markReset(String base) {
-        recentlyResetBases.put(base.toLowerCase(), Instant.now().getEpochSecond());
-        // Persist immediately so data survives unexpected shutdowns
-        saveData();
+        Long markedAt = Instant.now().getEpochSecond();
+        recentlyResetBases.put(base.toLowerCase(), markedAt);
+        requestSave();
+        World w = Bukkit.getWorld(base);
+        if (w != null) {
+            // New world, new spawn: resolve it before the first respawn asks and keep it loaded
+            safeSpawns.remove(w.getUID());
+            resolveSafeSpawnAsync(w);
+            Location spawn = w.getSpawnLocation();
+            int cx = spawn.getBlockX() >> 4;
+            int cz = spawn.getBlockZ() >> 4;
+            w.addPluginChunkTicket(cx, cz, plugin);
+            long ttl = plugin.getConfig().getLong("players.respawnRecentWindowSeconds", 600L);
+            UUID id = w.getUID();
+            Bukkit.getScheduler().runTaskLater(plugin, () -> {
+                World still = Bukkit.getWorld(id);
+                Long current = recentlyResetBases.get(base.toLowerCase());
+                // A later reset of the same base keeps the ticket for its own window
+                if (still != null && (current == null || current.equals(markedAt)))
+                    still.removePluginChunkTicket(cx, cz, plugin);
+            }, Math.max(1L, ttl) * 20L);
+        }
         plugin.getLogger().info(
                 "Marked world '" + base + "' as recently reset (protection active for respawnRecentWindowSeconds)");
     }
@@ -97,7 +148,7 @@ public class RespawnManager implements Listener {
             return false;
         if (Instant.now().getEpochSecond() - t > ttl) {
             recentlyResetBases.remove(base.toLowerCase());
-            saveData(); // Clean up expired entry from disk
+            requestSave(); // Clean up expired entry from disk
             return false;
         }
         return true;
@@ -113,8 +164,7 @@ public class RespawnManager implements Listener {
             return;
         World w = Bukkit.getWorld(currentBase);
         if (w != null) {
-            Location safeSpawn = findSafeSpawnLocation(w);
-            e.setRespawnLocation(safeSpawn);
+            e.setRespawnLocation(safeSpawnNow(w));
             plugin.getLogger().info("Forcing respawn to new world spawn for player: " + p.getName());
         }
     }
@@ -127,10 +177,13 @@ public class RespawnManager implements Listener {
         String currentBase = baseName(p.getWorld().getName());
         if (isRecent(currentBase)) {
             World w = Bukkit.getWorld(currentBase);
-            if (w != null) {
-                Location safeSpawn = findSafeSpawnLocation(w);
-                Bukkit.getScheduler().runTask(plugin, () -> {
-                    p.teleport(safeSpawn);
+            if (w != null && plugin.getConfig().getBoolean("players.joinQueue.enabled", true)) {
+                joinQueue.enqueue(p, w);
+            } else if (w != null) {
+                resolveSafeSpawnAsync(w).thenAccept(safeSpawn -> {
+                    if (!p.isOnline())
+                        return;
+                    p.teleportAsync(safeSpawn);
                     plugin.getLogger().info(
                             "Teleported joining player " + p.getName() + " to safe spawn (recent reset protection)");
                 });
@@ -138,15 +191,70 @@ public class RespawnManager implements Listener {
         }
     }
 
+    @EventHandler
+    public void onQuit(PlayerQuitEvent e) {
+        joinQueue.remove(e.getPlayer().getUniqueId());
+    }
+
+    /**
+     * Players waiting in the join queue.
+     */
+    public int getJoinQueueSize() {
+        return joinQueue.size();
+    }
+
+    @EventHandler
+    public void onSpawnChange(SpawnChangeEvent e) {
+        safeSpawns.remove(e.getWorld().getUID());
+    }
+
+    @EventHandler
+    public void onWorldUnload(WorldUnloadEvent e) {
+        safeSpawns.remove(e.getWorld().getUID());
+    }
+
+    /**
+     * Safe spawn for a respawn that cannot wait: the cached one, or one
+     * resolved now. The spawn chunk is normally held since {@link #markReset};
+     * if it is not loaded (the window survived a restart, or the spawn moved)
+     * it is loaded synchronously rather than returning an unchecked spawn.
+     */
+    private Location safeSpawnNow(World world) {
+        Location cached = safeSpawns.get(world.getUID());
+        if (cached != null)
+            return cached.clone();
+        Location spawn = world.getSpawnLocation();
+        int cx = spawn.getBlockX() >> 4;
+        int cz = spawn.getBlockZ() >> 4;
+        if (!world.isChunkLoaded(cx, cz))
+            world.getChunkAt(cx, cz);
+        return cache(world, findSafeSpawnLocation(world)).clone();
+    }
+
+    /**
+     * Safe spawn of {@code world}, loading the spawn chunk asynchronously when
+     * not cached. Completes on the main thread.
+     */
+    private CompletableFuture<Location> resolveSafeSpawnAsync(World world) {
+        Location cached = safeSpawns.get(world.getUID());
+        if (cached != null)
+            return CompletableFuture.completedFuture(cached.clone());
+        Location spawn = world.getSpawnLocation();
+        return world.getChunkAtAsync(spawn)
+                .thenApply(chunk -> cache(world, findSafeSpawnLocation(world)).clone());
+    }
+
+    private Location cache(World world, Location safe) {
+        safeSpawns.put(world.getUID(), safe);
+        return safe;
+    }
+
     /**
      * Find a safe spawn location at world spawn, ensuring not inside blocks.
+     * The spawn chunk must be loaded.
      */
     private Location findSafeSpawnLocation(World world) {
         Location spawn = world.getSpawnLocation();
-        // Ensure the spawn chunk is loaded
-        if (!spawn.getChunk().isLoaded()) {
-            spawn.getChunk().load(true);
-        }
 
         // Check if spawn is safe (not inside solid blocks)
         Location checkLoc = spawn.clone();
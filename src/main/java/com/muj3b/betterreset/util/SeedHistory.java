@@ -2,15 +2,19 @@ package com.muj3b.betterreset.util;
 
 import java.util.ArrayDeque;
 import java.util.Deque;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 /**
  * Simple fixed-size seed history for storing recent seeds used/generated per base world.
+ * Seeds can carry a short note, e.g. the seed scout's verdict.
  */
 public class SeedHistory {
     private final int capacity;
     private final Deque<Long> history = new ArrayDeque<>();
+    private final Map<Long, String> notes = new HashMap<>();
 
     public SeedHistory(int capacity) {
         this.capacity = Math.max(1, capacity);
@@ -20,9 +24,17 @@ public class SeedHistory {
         // avoid duplicates consecutive
         if (!history.isEmpty() && history.peekFirst() == seed) return;
         history.addFirst(seed);
-        while (history.size() > capacity) history.removeLast();
+        while (history.size() > capacity) notes.remove(history.removeLast());
     }
 
+    public synchronized void annotate(long seed, String note) {
+        notes.put(seed, note);
+        // Notes may arrive before the seed is added; drop strays once they pile up
+        if (notes.size() > capacity * 2) notes.keySet().retainAll(history);
+    }
+
+    public synchronized String note(long seed) { return notes.get(seed); }
+
     public synchronized List<Long> list() {
         return history.stream().collect(Collectors.toList());
     }
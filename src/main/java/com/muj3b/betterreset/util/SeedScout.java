@@ -0,0 +1,331 @@
+package com.muj3b.betterreset.util;
+
+import com.muj3b.betterreset.FullResetPlugin;
+import net.kyori.adventure.util.TriState;
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.WorldCreator;
+import org.bukkit.WorldType;
+import org.bukkit.block.Biome;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.file.YamlConfiguration;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Screens random seeds in the background so resets start on a decent spawn.
+ * During idle time it creates a throwaway {@code brscout_} world, reads the
+ * computed biomes around spawn, and scores the seed by land ratio. Seeds that
+ * pass are kept in a ranked pool persisted to {@code seed_pool.yml}; resets
+ * take the best one.
+ *
+ * Sampling biomes is cheap, but creating the world is not: Bukkit has no way
+ * to score a seed without a world, and a new world searches for a starting
+ * spawn point by generating real terrain chunks on the main thread, whatever
+ * {@code keepSpawnLoaded} says. Expect a stall of several hundred milliseconds
+ * up to a few seconds per pass. Scouting is therefore off by default, only
+ * runs on an empty server by default ({@code seeds.scouting.maxPlayers: 0}),
+ * never during a reset or above {@code seeds.scouting.maxMspt}, and after
+ * each pass waits long enough that scouting stays under
+ * {@code seeds.scouting.maxMainThreadShare} of wall-clock time.
+ */
+public class SeedScout {
+
+    public static final String WORLD_PREFIX = "brscout_";
+
+    /**
+     * A vetted seed. {@code landRatio} is the share of sampled columns that
+     * are not ocean or river.
+     */
+    public record ScoutedSeed(long seed, double landRatio, String spawnBiome, long scoutedAt) {
+        public String describe() {
+            return "scouted: " + spawnBiome + ", land " + Math.round(landRatio * 100) + "%";
+        }
+    }
+
+    private final FullResetPlugin plugin;
+    private final File poolFile;
+    private final Random rng = new Random();
+    // Best first; main thread only
+    private final List<ScoutedSeed> pool = new ArrayList<>();
+    // Last pooled seed handed out, so a cancelled reset can give it back; main thread only
+    private ScoutedSeed lent;
+    // Latest serialized pool not yet written; writers always take the newest
+    private final AtomicReference<String> pendingSave = new AtomicReference<>();
+    private long scouted;
+    // No pass before this time, so stalls stay under the configured share of wall time
+    private long cooldownUntil;
+    private long rejected;
+
+    public SeedScout(FullResetPlugin plugin) {
+        this.plugin = plugin;
+        this.poolFile = new File(plugin.getDataFolder(), "seed_pool.yml");
+        loadPool();
+        cleanupLeftovers();
+        long intervalTicks = Math.max(5L, plugin.getConfig().getLong("seeds.scouting.intervalSeconds", 600L)) * 20L;
+        Bukkit.getScheduler().runTaskTimer(plugin, this::tick, intervalTicks, intervalTicks);
+    }
+
+    public boolean isEnabled() {
+        return plugin.getConfig().getBoolean("seeds.scouting.enabled", false);
+    }
+
+    /**
+     * Removes and returns the best pooled seed, if any.
+     */
+    public Optional<ScoutedSeed> take() {
+        if (!isEnabled() || pool.isEmpty())
+            return Optional.empty();
+        ScoutedSeed best = pool.remove(0);
+        savePool();
+        return Optional.of(best);
+    }
+
+    /**
+     * Returns a pooled seed if available, otherwise a random one. Pooled seeds
+     * are annotated in {@link SeedHistory}.
+     */
+    public long nextSeed(Random fallback) {
+        Optional<ScoutedSeed> pooled = take();
+        lent = pooled.orElse(null);
+        if (pooled.isEmpty())
+            return fallback.nextLong();
+        ScoutedSeed s = pooled.get();
+        plugin.getSeedHistory().annotate(s.seed(), s.describe());
+        return s.seed();
+    }
+
+    /**
+     * Puts {@code seed} back into the pool if it is the pooled seed last
+     * returned by {@link #nextSeed}, e.g. because its countdown was cancelled.
+     */
+    public void release(long seed) {
+        if (lent == null || lent.seed() != seed)
+            return;
+        pool.add(lent);
+        lent = null;
+        pool.sort(Comparator.comparingDouble(ScoutedSeed::landRatio).reversed());
+        savePool();
+    }
+
+    public List<ScoutedSeed> pool() {
+        return List.copyOf(pool);
+    }
+
+    public long getScoutedCount() {
+        return scouted;
+    }
+
+    public long getRejectedCount() {
+        return rejected;
+    }
+
+    private void tick() {
+        if (!isEnabled())
+            return;
+        int poolSize = Math.max(1, plugin.getConfig().getInt("seeds.scouting.poolSize", 5));
+        if (pool.size() >= poolSize)
+            return;
+        if (plugin.getResetService() != null && plugin.getResetService().isResetInProgress())
+            return;
+        int maxPlayers = plugin.getConfig().getInt("seeds.scouting.maxPlayers", 0);
+        if (maxPlayers >= 0 && Bukkit.getOnlinePlayers().size() > maxPlayers)
+            return;
+        if (Bukkit.getAverageTickTime() > plugin.getConfig().getDouble("seeds.scouting.maxMspt", 40.0))
+            return;
+        long start = System.currentTimeMillis();
+        if (start < cooldownUntil)
+            return;
+        try {
+            scoutOne(rng.nextLong());
+        } catch (Exception ex) {
+            plugin.getLogger().warning("Seed scouting failed: " + ex.getMessage());
+        }
+        long stall = System.currentTimeMillis() - start;
+        double share = plugin.getConfig().getDouble("seeds.scouting.maxMainThreadShare", 0.005);
+        cooldownUntil = start + (long) (stall / Math.max(0.0001, Math.min(1.0, share)));
+        plugin.getLogger().fine("Seed scouting pass took " + stall + " ms on the main thread.");
+    }
+
+    private void scoutOne(long seed) {
+        String name = WORLD_PREFIX + Long.toHexString(seed);
+        World world = new WorldCreator(name)
+                .seed(seed)
+                .environment(World.Environment.NORMAL)
+                .type(WorldType.NORMAL)
+                .generateStructures(false)
+                .keepSpawnLoaded(TriState.FALSE)
+                .createWorld();
+        if (world == null)
+            return;
+        File folder = world.getWorldFolder();
+        try {
+            Location spawn = world.getSpawnLocation();
+            int radius = Math.max(16, plugin.getConfig().getInt("seeds.scouting.sampleRadiusBlocks", 256));
+            int step = Math.max(4, plugin.getConfig().getInt("seeds.scouting.sampleStepBlocks", 32));
+            int y = world.getSeaLevel();
+            int land = 0;
+            int total = 0;
+            for (int dx = -radius; dx <= radius; dx += step) {
+                for (int dz = -radius; dz <= radius; dz += step) {
+                    total++;
+                    if (!isWater(world.getComputedBiome(spawn.getBlockX() + dx, y, spawn.getBlockZ() + dz)))
+                        land++;
+                }
+            }
+            String spawnBiome = biomeName(world.getComputedBiome(spawn.getBlockX(), y, spawn.getBlockZ()));
+            double landRatio = total == 0 ? 0.0 : (double) land / total;
+            scouted++;
+
+            double minLand = plugin.getConfig().getDouble("seeds.scouting.minLandRatio", 0.6);
+            List<String> rejectBiomes = plugin.getConfig().getStringList("seeds.scouting.rejectSpawnBiomes");
+            boolean badSpawn = rejectBiomes.stream().anyMatch(b -> b.equalsIgnoreCase(spawnBiome));
+            if (badSpawn || landRatio < minLand) {
+                rejected++;
+                return;
+            }
+            pool.add(new ScoutedSeed(seed, landRatio, spawnBiome, System.currentTimeMillis()));
+            pool.sort(Comparator.comparingDouble(ScoutedSeed::landRatio).reversed());
+            savePool();
+        } finally {
+            if (Bukkit.unloadWorld(world, false))
+                deleteAsync(folder.toPath());
+        }
+    }
+
+    private static boolean isWater(Biome biome) {
+        String key = biomeName(biome);
+        return key.contains("ocean") || key.contains("river");
+    }
+
+    private static String biomeName(Biome biome) {
+        return biome.getKey().getKey().toLowerCase(Locale.ROOT);
+    }
+
+    private void loadPool() {
+        if (!poolFile.exists())
+            return;
+        try {
+            YamlConfiguration yaml = YamlConfiguration.loadConfiguration(poolFile);
+            for (String key : yaml.getKeys(false)) {
+                ConfigurationSection sec = yaml.getConfigurationSection(key);
+                if (sec == null)
+                    continue;
+                pool.add(new ScoutedSeed(sec.getLong("seed"), sec.getDouble("landRatio"),
+                        sec.getString("spawnBiome", "unknown"), sec.getLong("scoutedAt")));
+            }
+            pool.sort(Comparator.comparingDouble(ScoutedSeed::landRatio).reversed());
+        } catch (Exception e) {
+            plugin.getLogger().warning("Failed to load seed pool: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Serializes the pool on the calling (main) thread and writes it on the
+     * background executor.
+     */
+    private void savePool() {
+        YamlConfiguration yaml = new YamlConfiguration();
+        for (int i = 0; i < pool.size(); i++) {
+            ScoutedSeed s = pool.get(i);
+            String key = String.valueOf(i);
+            yaml.set(key + ".seed", s.seed());
+            yaml.set(key + ".landRatio", s.landRatio());
+            yaml.set(key + ".spawnBiome", s.spawnBiome());
+            yaml.set(key + ".scoutedAt", s.scoutedAt());
+        }
+        pendingSave.set(yaml.saveToString());
+        try {
+            if (plugin.getBackgroundExecutor() != null) {
+                plugin.getBackgroundExecutor().submit(this::writePendingPool);
+                return;
+            }
+        } catch (RejectedExecutionException ignored) {
+        }
+        writePendingPool();
+    }
+
+    /**
+     * Writes a pool save that is still queued; called on disable.
+     */
+    public void shutdown() {
+        writePendingPool();
+    }
+
+    private synchronized void writePendingPool() {
+        String data = pendingSave.getAndSet(null);
+        if (data == null)
+            return;
+        try {
+            Files.writeString(poolFile.toPath(), data, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            plugin.getLogger().warning("Failed to save seed pool: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Scout worlds are never meant to outlive a scouting pass; remove any left
+     * by a crash.
+     */
+    private void cleanupLeftovers() {
+        File[] leftovers = Bukkit.getWorldContainer()
+                .listFiles(f -> f.isDirectory() && f.getName().startsWith(WORLD_PREFIX));
+        if (leftovers == null)
+            return;
+        for (File f : leftovers)
+            deleteAsync(f.toPath());
+    }
+
+    private void deleteAsync(Path folder) {
+        Runnable delete = () -> {
+            try {
+                deleteFolder(folder);
+            } catch (IOException e) {
+                plugin.getLogger().warning("Failed to delete scout world '" + folder.getFileName() + "': "
+                        + e.getMessage());
+            }
+        };
+        try {
+            if (plugin.getBackgroundExecutor() != null) {
+                plugin.getBackgroundExecutor().submit(delete);
+                return;
+            }
+        } catch (RejectedExecutionException ignored) {
+        }
+        delete.run();
+    }
+
+    private static void deleteFolder(Path path) throws IOException {
+        if (!Files.exists(path))
+            return;
+        Files.walkFileTree(path, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                Files.deleteIfExists(file);
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult postVisitDirectory(Path dir, IOException exc) throws IOException {
+                Files.deleteIfExists(dir);
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+}
@@ -0,0 +1,200 @@
+package com.muj3b.betterreset.util;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Memory-mapped open-addressing table from packed region key to the last
+ * visit time in epoch seconds. Each slot is 16 bytes (key, stamp); a stamp of
+ * zero marks a free slot, so every key including region 0,0 is usable.
+ * Writes come from the main thread only; {@link #force()} may run on any
+ * thread. Forcing, remapping (grow, reset) and closing hold the table's
+ * monitor, so a flush never forces a buffer that is being replaced or whose
+ * channel is closing.
+ */
+final class VisitTable {
+    private static final int MAGIC = 0x42525654; // "BRVT"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 32;
+    private static final int SLOT_BYTES = 16;
+    private static final float LOAD_FACTOR = 0.5f;
+
+    // Header offsets
+    private static final int OFF_MAGIC = 0;
+    private static final int OFF_VERSION = 4;
+    private static final int OFF_CAPACITY = 8;
+    private static final int OFF_SIZE = 12;
+    private static final int OFF_CREATED = 16;
+
+    private final FileChannel channel;
+    private volatile MappedByteBuffer buffer;
+    private int capacity;
+    private int mask;
+    private int size;
+    private boolean closed;
+
+    private VisitTable(FileChannel channel) {
+        this.channel = channel;
+    }
+
+    /**
+     * Opens {@code file}, creating a fresh table when it is missing or not a
+     * valid table.
+     */
+    static VisitTable open(Path file, int initialCapacity, long nowSeconds) throws IOException {
+        Files.createDirectories(file.getParent());
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        VisitTable table = new VisitTable(channel);
+        try {
+            if (!table.load())
+                table.create(Integer.highestOneBit(Math.max(64, initialCapacity) - 1) << 1, nowSeconds);
+        } catch (IOException ex) {
+            channel.close();
+            throw ex;
+        }
+        return table;
+    }
+
+    private boolean load() throws IOException {
+        if (channel.size() < HEADER_BYTES)
+            return false;
+        MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_BYTES);
+        int cap = header.getInt(OFF_CAPACITY);
+        if (header.getInt(OFF_MAGIC) != MAGIC || header.getInt(OFF_VERSION) != VERSION || cap <= 0
+                || Integer.bitCount(cap) != 1 || channel.size() < HEADER_BYTES + (long) cap * SLOT_BYTES)
+            return false;
+        map(cap);
+        size = buffer.getInt(OFF_SIZE);
+        return true;
+    }
+
+    private void create(int cap, long nowSeconds) throws IOException {
+        map(cap);
+        for (int i = 0; i < cap; i++)
+            buffer.putLong(slot(i) + 8, 0L);
+        buffer.putInt(OFF_MAGIC, MAGIC);
+        buffer.putInt(OFF_VERSION, VERSION);
+        buffer.putInt(OFF_CAPACITY, cap);
+        buffer.putInt(OFF_SIZE, 0);
+        buffer.putLong(OFF_CREATED, nowSeconds);
+        size = 0;
+    }
+
+    private void map(int cap) throws IOException {
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_BYTES + (long) cap * SLOT_BYTES);
+        capacity = cap;
+        mask = cap - 1;
+    }
+
+    long createdAt() {
+        return buffer.getLong(OFF_CREATED);
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Records a visit; older stamps never overwrite newer ones.
+     */
+    void record(long key, long stampSeconds) throws IOException {
+        MappedByteBuffer buf = buffer;
+        int idx = mix(key) & mask;
+        long stamp;
+        while ((stamp = buf.getLong(slot(idx) + 8)) != 0L) {
+            if (buf.getLong(slot(idx)) == key) {
+                if (stampSeconds > stamp)
+                    buf.putLong(slot(idx) + 8, stampSeconds);
+                return;
+            }
+            idx = (idx + 1) & mask;
+        }
+        buf.putLong(slot(idx), key);
+        buf.putLong(slot(idx) + 8, stampSeconds);
+        buf.putInt(OFF_SIZE, ++size);
+        if (size > capacity * LOAD_FACTOR)
+            grow();
+    }
+
+    /**
+     * Returns the last visit in epoch seconds, or 0 if the region was never
+     * visited since the table was created.
+     */
+    long get(long key) {
+        MappedByteBuffer buf = buffer;
+        int idx = mix(key) & mask;
+        long stamp;
+        while ((stamp = buf.getLong(slot(idx) + 8)) != 0L) {
+            if (buf.getLong(slot(idx)) == key)
+                return stamp;
+            idx = (idx + 1) & mask;
+        }
+        return 0L;
+    }
+
+    /**
+     * Copies the live slots into {@code keys} and {@code stamps}, which must
+     * have at least {@link #size()} elements. Returns the number copied.
+     */
+    int copyTo(long[] keys, long[] stamps) {
+        MappedByteBuffer buf = buffer;
+        int n = 0;
+        for (int i = 0; i < capacity && n < keys.length; i++) {
+            long stamp = buf.getLong(slot(i) + 8);
+            if (stamp == 0L)
+                continue;
+            keys[n] = buf.getLong(slot(i));
+            stamps[n++] = stamp;
+        }
+        return n;
+    }
+
+    /**
+     * Forgets every visit and restarts coverage at {@code nowSeconds}.
+     */
+    synchronized void reset(long nowSeconds) throws IOException {
+        create(capacity, nowSeconds);
+    }
+
+    synchronized void force() {
+        if (!closed)
+            buffer.force();
+    }
+
+    synchronized void close() throws IOException {
+        force();
+        closed = true;
+        channel.close();
+    }
+
+    private synchronized void grow() throws IOException {
+        int oldCapacity = capacity;
+        long[] keys = new long[size];
+        long[] stamps = new long[size];
+        int n = copyTo(keys, stamps);
+        long created = createdAt();
+        create(oldCapacity << 1, created);
+        for (int i = 0; i < n; i++)
+            record(keys[i], stamps[i]);
+    }
+
+    private static int slot(int idx) {
+        return HEADER_BYTES + idx * SLOT_BYTES;
+    }
+
+    static int mix(long value) {
+        // Murmur3 finalizer, same spread as LongHashSet
+        long h = value;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return (int) h;
+    }
+}